@@ -0,0 +1,72 @@
+package com.yammer.tenacity.benchmarks;
+
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.core.CircuitBreaker;
+import com.yammer.tenacity.core.core.CircuitBreakers;
+import com.yammer.tenacity.core.properties.StringTenacityPropertyKeyFactory;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing the circuit breakers of N keys that have all executed, as the circuit breakers resource and health check do.
+ * Run with {@code java -jar tenacity-benchmarks/target/benchmarks.jar CircuitBreakersBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircuitBreakersBenchmark {
+    @Param({"10", "100", "1000"})
+    public int keyCount;
+
+    private List<TenacityPropertyKey> keys;
+
+    @Setup
+    public void setup() {
+        final StringTenacityPropertyKeyFactory keyFactory = new StringTenacityPropertyKeyFactory();
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE);
+        final Map<TenacityPropertyKey, TenacityConfiguration> configurations = new HashMap<>();
+        keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            final TenacityPropertyKey key = keyFactory.from("breaker_" + i);
+            keys.add(key);
+            configurations.put(key, configuration);
+        }
+        new TenacityPropertyRegister(configurations, new BreakerboxConfiguration()).register();
+        for (TenacityPropertyKey key : keys) {
+            TenacityCommand.<Boolean>builder(key)
+                    .run(() -> true)
+                    .execute();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hystrix.reset();
+    }
+
+    @Benchmark
+    public Collection<CircuitBreaker> all() {
+        return CircuitBreakers.all(keys);
+    }
+
+    @Benchmark
+    public Collection<CircuitBreaker> allOpen() {
+        return CircuitBreakers.allOpen(keys);
+    }
+}
@@ -0,0 +1,82 @@
+package com.yammer.tenacity.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixInvokableInfo;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.logging.ExceptionLogger;
+import com.yammer.tenacity.core.logging.ExceptionLoggingCommandHook;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Finding the ExceptionLogger for a failed command when it is the last of N, with loggers that don't log so only the
+ * dispatch is measured. Run with
+ * {@code java -jar tenacity-benchmarks/target/benchmarks.jar ExceptionLoggingCommandHookBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionLoggingCommandHookBenchmark {
+    private enum Key implements TenacityPropertyKey {
+        LOGGED
+    }
+
+    @Param({"1", "4", "16"})
+    public int loggerCount;
+
+    private ExceptionLoggingCommandHook hook;
+    private TenacityCommand<String> command;
+    private final Exception exception = new TimeoutException();
+
+    @Setup
+    public void setup() {
+        final List<ExceptionLogger<? extends Exception>> loggers = new ArrayList<>(loggerCount);
+        for (int i = 1; i < loggerCount; i++) {
+            loggers.add(i % 2 == 0 ? new NoopSQLExceptionLogger() : new NoopIOExceptionLogger());
+        }
+        loggers.add(new NoopTimeoutExceptionLogger());
+        hook = new ExceptionLoggingCommandHook(ImmutableList.copyOf(loggers));
+        command = TenacityCommand.<String>builder(Key.LOGGED)
+                .run(() -> "value")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hystrix.reset();
+    }
+
+    @Benchmark
+    public Exception onExecutionError() {
+        return hook.onExecutionError(command, exception);
+    }
+
+    private static class NoopSQLExceptionLogger extends ExceptionLogger<SQLException> {
+        @Override
+        protected <T> void logException(SQLException exception, HystrixInvokableInfo<T> commandInstance) {
+        }
+    }
+
+    private static class NoopIOExceptionLogger extends ExceptionLogger<IOException> {
+        @Override
+        protected <T> void logException(IOException exception, HystrixInvokableInfo<T> commandInstance) {
+        }
+    }
+
+    private static class NoopTimeoutExceptionLogger extends ExceptionLogger<TimeoutException> {
+        @Override
+        protected <T> void logException(TimeoutException exception, HystrixInvokableInfo<T> commandInstance) {
+        }
+    }
+}
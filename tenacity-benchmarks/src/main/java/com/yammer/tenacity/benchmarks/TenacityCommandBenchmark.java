@@ -0,0 +1,76 @@
+package com.yammer.tenacity.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.SemaphoreConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost Tenacity and Hystrix add to a command that does no work, once under each isolation strategy. Run with
+ * {@code java -jar tenacity-benchmarks/target/benchmarks.jar TenacityCommandBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenacityCommandBenchmark {
+    private enum Key implements TenacityPropertyKey {
+        THREAD, SEMAPHORE
+    }
+
+    @Param({"THREAD", "SEMAPHORE"})
+    public String isolation;
+
+    private Key key;
+
+    @Setup
+    public void setup() {
+        key = Key.valueOf(isolation);
+        final TenacityConfiguration thread = new TenacityConfiguration();
+        thread.setExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.THREAD);
+        final TenacityConfiguration semaphore = new TenacityConfiguration();
+        semaphore.setExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE);
+        semaphore.setSemaphore(new SemaphoreConfiguration(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.THREAD, thread, Key.SEMAPHORE, semaphore),
+                new BreakerboxConfiguration()).register();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hystrix.reset();
+    }
+
+    @Benchmark
+    public String execute() {
+        return new NoopCommand(key).execute();
+    }
+
+    @Benchmark
+    public String builder() {
+        return TenacityCommand.<String>builder(key)
+                .run(() -> "value")
+                .execute();
+    }
+
+    private static class NoopCommand extends TenacityCommand<String> {
+        private NoopCommand(TenacityPropertyKey key) {
+            super(key);
+        }
+
+        @Override
+        protected String run() {
+            return "value";
+        }
+    }
+}
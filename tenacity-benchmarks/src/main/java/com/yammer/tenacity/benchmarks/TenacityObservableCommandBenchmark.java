@@ -0,0 +1,66 @@
+package com.yammer.tenacity.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.Hystrix;
+import com.yammer.tenacity.core.TenacityObservableCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.SemaphoreConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import org.openjdk.jmh.annotations.*;
+import rx.Observable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of observe() on a TenacityObservableCommand emitting a single value, i.e. Hystrix's semaphore isolated
+ * observable path. Run with
+ * {@code java -jar tenacity-benchmarks/target/benchmarks.jar TenacityObservableCommandBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenacityObservableCommandBenchmark {
+    private enum Key implements TenacityPropertyKey {
+        OBSERVABLE
+    }
+
+    @Setup
+    public void setup() {
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setSemaphore(new SemaphoreConfiguration(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.OBSERVABLE, configuration),
+                new BreakerboxConfiguration()).register();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Hystrix.reset();
+    }
+
+    @Benchmark
+    public String observe() {
+        return new JustCommand().observe().toBlocking().single();
+    }
+
+    @Benchmark
+    public String toObservable() {
+        return new JustCommand().toObservable().toBlocking().single();
+    }
+
+    private static class JustCommand extends TenacityObservableCommand<String> {
+        private JustCommand() {
+            super(Key.OBSERVABLE);
+        }
+
+        @Override
+        protected Observable<String> construct() {
+            return Observable.just("value");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.yammer.tenacity.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run with {@code java -jar tenacity-benchmarks/target/benchmarks.jar TenacityPropertyRegisterBenchmark -prof gc}
+ * to compare the allocation rate of formatting property names against reading them from the per-key table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenacityPropertyRegisterBenchmark {
+    private enum Key implements TenacityPropertyKey {
+        REGISTERED, UNREGISTERED
+    }
+
+    @Setup
+    public void setup() {
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.REGISTERED, new TenacityConfiguration()),
+                new BreakerboxConfiguration()).register();
+    }
+
+    @Benchmark
+    public String format() {
+        return String.format("hystrix.command.%s.execution.isolation.thread.timeoutInMilliseconds", Key.REGISTERED);
+    }
+
+    @Benchmark
+    public String registeredKey() {
+        return TenacityPropertyRegister.executionIsolationThreadTimeoutInMilliseconds(Key.REGISTERED);
+    }
+
+    @Benchmark
+    public String unregisteredKey() {
+        return TenacityPropertyRegister.executionIsolationThreadTimeoutInMilliseconds(Key.UNREGISTERED);
+    }
+}
@@ -0,0 +1,86 @@
+package com.yammer.tenacity.benchmarks;
+
+import com.netflix.hystrix.Hystrix;
+import com.sun.net.httpserver.HttpServer;
+import com.yammer.tenacity.core.http.TenacityJerseyClientBuilder;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import org.glassfish.jersey.client.JerseyClientBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What TenacityWebTarget adds to a Jersey request: building the invocation alone (looking up the key's timeout and
+ * setting the read timeout) and a whole GET against a local stub server, each next to the plain Jersey client. Run
+ * with {@code java -jar tenacity-benchmarks/target/benchmarks.jar TenacityWebTargetBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenacityWebTargetBenchmark {
+    private enum Key implements TenacityPropertyKey {
+        CLIENT
+    }
+
+    private static final byte[] BODY = "value".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private Client client;
+    private WebTarget plainTarget;
+    private WebTarget tenacityTarget;
+
+    @Setup
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", (exchange) -> {
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(BODY);
+            }
+        });
+        server.start();
+
+        client = new JerseyClientBuilder().build();
+        final String uri = "http://localhost:" + server.getAddress().getPort() + "/";
+        plainTarget = client.target(uri);
+        tenacityTarget = TenacityJerseyClientBuilder.builder(Key.CLIENT).build(client).target(uri);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+        Hystrix.reset();
+    }
+
+    @Benchmark
+    public Invocation.Builder requestPlain() {
+        return plainTarget.request();
+    }
+
+    @Benchmark
+    public Invocation.Builder requestTenacity() {
+        return tenacityTarget.request();
+    }
+
+    @Benchmark
+    public String getPlain() {
+        return plainTarget.request().get(String.class);
+    }
+
+    @Benchmark
+    public String getTenacity() {
+        return tenacityTarget.request().get(String.class);
+    }
+}
@@ -0,0 +1,22 @@
+package com.yammer.tenacity.core;
+
+import com.yammer.tenacity.core.core.CircuitBreakerStateCache;
+import com.yammer.tenacity.core.hedging.Hedging;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
+import com.yammer.tenacity.core.retry.Retrying;
+
+/**
+ * Tenacity's counterpart to Hystrix.reset(): forgets the state Tenacity keeps per key on top of Hystrix's own, and
+ * stops polling the configurations ArchaiusPropertyRegister registered.
+ * TenacityTestRule calls it between tests.
+ */
+public final class Tenacity {
+    private Tenacity() {}
+
+    public static void reset() {
+        CircuitBreakerStateCache.reset();
+        Hedging.reset();
+        Retrying.reset();
+        ArchaiusPropertyRegister.reset();
+    }
+}
@@ -0,0 +1,259 @@
+package com.yammer.tenacity.core;
+
+import com.netflix.hystrix.HystrixCollapser;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserProperties;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableDefault;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import io.dropwizard.util.Duration;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Batches requests for a key across callers (Hystrix's GLOBAL collapser scope) into one TenacityCommand, e.g. to turn
+ * single lookups into multi-gets or IN-queries. The batch function gets the arguments of a batch and returns the
+ * responses it found; each response is handed to the caller whose argument the argument selector maps it to. Arguments
+ * without a response get null.
+ *
+ * Several TenacityCollapsers may share a key, and so its batching window and limits, but each batches only the
+ * requests made through it. With collapser.requestCacheEnabled, repeated arguments share a response within a batch
+ * and within a HystrixRequestContext; arguments are repeated when they are equal, so they need equals and hashCode.
+ *
+ * maxBatchSize and window are defaults: when the key's TenacityConfiguration has a collapser section (or Breakerbox
+ * serves collapser properties for it), that overrides them.
+ */
+public class TenacityCollapser<A, R> {
+    private static final AtomicLong CACHE_KEY_IDS = new AtomicLong();
+    private static final HystrixRequestVariableDefault<ConcurrentMap<Request<?, ?>, String>> CACHE_KEYS =
+            new HystrixRequestVariableDefault<ConcurrentMap<Request<?, ?>, String>>() {
+                @Override
+                public ConcurrentMap<Request<?, ?>, String> initialValue() {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+    private final TenacityPropertyKey key;
+    private final HystrixCollapserKey collapserKey;
+    private final Function<Collection<A>, ? extends Iterable<R>> batch;
+    private final Function<R, A> argumentSelector;
+    private final Function<A, R> fallback;
+    private final HystrixCollapserProperties.Setter propertiesDefaults;
+
+    private TenacityCollapser(Builder<A, R> builder) {
+        this.key = builder.key;
+        this.collapserKey = collapserKey(builder.key);
+        this.batch = builder.batch;
+        this.argumentSelector = builder.argumentSelector;
+        this.fallback = builder.fallback;
+        this.propertiesDefaults = HystrixCollapserProperties.Setter()
+                .withMaxRequestsInBatch(builder.maxBatchSize)
+                .withTimerDelayInMilliseconds((int) builder.window.toMilliseconds());
+    }
+
+    public static <A, R> Builder<A, R> builder(TenacityPropertyKey key) {
+        return new Builder<>(key);
+    }
+
+    public static HystrixCollapserKey collapserKey(TenacityPropertyKey key) {
+        return HystrixCollapserKey.Factory.asKey(key.name());
+    }
+
+    public R execute(A argument) {
+        return collapser(argument).execute();
+    }
+
+    public Future<R> queue(A argument) {
+        return collapser(argument).queue();
+    }
+
+    public Observable<R> observe(A argument) {
+        return collapser(argument).observe();
+    }
+
+    public Observable<R> lazyObservable(A argument) {
+        return collapser(argument).toObservable();
+    }
+
+    private HystrixCollapser<Map<A, R>, R, Request<A, R>> collapser(A argument) {
+        return new Collapser<>(collapserKey, propertiesDefaults, new Request<>(this, argument));
+    }
+
+    /**
+     * An argument, and the TenacityCollapser it was passed to. Hystrix batches a key's requests with the first collapser
+     * it was given for the key, whichever TenacityCollapser that came from, so each request carries its own.
+     */
+    private static class Request<A, R> {
+        private final TenacityCollapser<A, R> collapser;
+        private final A argument;
+
+        private Request(TenacityCollapser<A, R> collapser, A argument) {
+            this.collapser = collapser;
+            this.argument = argument;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(collapser), argument);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Request<?, ?> other = (Request<?, ?>) obj;
+            return this.collapser == other.collapser
+                    && Objects.equals(this.argument, other.argument);
+        }
+    }
+
+    private static class Collapser<A, R> extends HystrixCollapser<Map<A, R>, R, Request<A, R>> {
+        private final Request<A, R> request;
+
+        private Collapser(HystrixCollapserKey collapserKey,
+                          HystrixCollapserProperties.Setter propertiesDefaults,
+                          Request<A, R> request) {
+            super(HystrixCollapser.Setter
+                    .withCollapserKey(collapserKey)
+                    .andScope(HystrixCollapser.Scope.GLOBAL)
+                    .andCollapserPropertiesDefaults(propertiesDefaults));
+            this.request = request;
+        }
+
+        @Override
+        public Request<A, R> getRequestArgument() {
+            return request;
+        }
+
+        /*
+         * Only within a HystrixRequestContext, outside of one Hystrix has no request cache to use. Hystrix wants a String,
+         * so each distinct request in the context is given one, and equal requests get the same one.
+         */
+        @Override
+        protected String getCacheKey() {
+            return HystrixRequestContext.isCurrentThreadInitialized()
+                    ? CACHE_KEYS.get().computeIfAbsent(request, (r) -> Long.toString(CACHE_KEY_IDS.incrementAndGet()))
+                    : null;
+        }
+
+        @Override
+        protected Collection<Collection<CollapsedRequest<R, Request<A, R>>>> shardRequests(
+                Collection<CollapsedRequest<R, Request<A, R>>> requests) {
+            final Map<TenacityCollapser<A, R>, Collection<CollapsedRequest<R, Request<A, R>>>> shards = new IdentityHashMap<>();
+            for (CollapsedRequest<R, Request<A, R>> request : requests) {
+                shards.computeIfAbsent(request.getArgument().collapser, (collapser) -> new ArrayList<>()).add(request);
+            }
+            return shards.values();
+        }
+
+        @Override
+        protected HystrixCommand<Map<A, R>> createCommand(Collection<CollapsedRequest<R, Request<A, R>>> requests) {
+            final List<A> arguments = new ArrayList<>(requests.size());
+            for (CollapsedRequest<R, Request<A, R>> request : requests) {
+                arguments.add(request.getArgument().argument);
+            }
+            return requests.iterator().next().getArgument().collapser.new BatchCommand(arguments);
+        }
+
+        @Override
+        protected void mapResponseToRequests(Map<A, R> responses, Collection<CollapsedRequest<R, Request<A, R>>> requests) {
+            for (CollapsedRequest<R, Request<A, R>> request : requests) {
+                request.setResponse(responses.get(request.getArgument().argument));
+            }
+        }
+    }
+
+    private class BatchCommand extends TenacityCommand<Map<A, R>> {
+        private final List<A> arguments;
+
+        private BatchCommand(List<A> arguments) {
+            super(key);
+            this.arguments = arguments;
+        }
+
+        @Override
+        protected Map<A, R> run() throws Exception {
+            final Map<A, R> responses = new HashMap<>();
+            for (R response : batch.apply(arguments)) {
+                responses.put(argumentSelector.apply(response), response);
+            }
+            return responses;
+        }
+
+        @Override
+        protected Map<A, R> getFallback() {
+            if (fallback == null) {
+                return super.getFallback();
+            }
+            final Map<A, R> responses = new HashMap<>();
+            for (A argument : arguments) {
+                responses.put(argument, fallback.apply(argument));
+            }
+            return responses;
+        }
+    }
+
+    public static class Builder<A, R> {
+        protected final TenacityPropertyKey key;
+        protected Function<Collection<A>, ? extends Iterable<R>> batch;
+        protected Function<R, A> argumentSelector;
+        protected Function<A, R> fallback;
+        protected int maxBatchSize = Integer.MAX_VALUE;
+        protected Duration window = Duration.milliseconds(10);
+
+        public Builder(TenacityPropertyKey key) {
+            this.key = key;
+        }
+
+        public Builder<A, R> batch(Function<Collection<A>, ? extends Iterable<R>> fun) {
+            batch = fun;
+            return this;
+        }
+
+        public Builder<A, R> argumentSelector(Function<R, A> fun) {
+            argumentSelector = fun;
+            return this;
+        }
+
+        public Builder<A, R> fallback(Function<A, R> fun) {
+            fallback = fun;
+            return this;
+        }
+
+        public Builder<A, R> maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder<A, R> window(Duration window) {
+            this.window = window;
+            return this;
+        }
+
+        public TenacityCollapser<A, R> build() {
+            if (batch == null) {
+                throw new IllegalStateException("Batch must be supplied.");
+            }
+            if (argumentSelector == null) {
+                throw new IllegalStateException("Argument selector must be supplied.");
+            }
+            return new TenacityCollapser<>(this);
+        }
+    }
+}
@@ -1,16 +1,41 @@
 package com.yammer.tenacity.core;
 
 import com.netflix.hystrix.*;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import com.netflix.hystrix.metric.consumer.CumulativeCommandEventCounterStream;
 import com.netflix.hystrix.metric.consumer.RollingCommandEventCounterStream;
 import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+import com.yammer.tenacity.core.cache.TenacityResponseCache;
+import com.yammer.tenacity.core.coalescing.SingleFlight;
+import com.yammer.tenacity.core.core.TenacityObservables;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.errors.RetryAfter;
+import com.yammer.tenacity.core.hedging.HedgePolicy;
+import com.yammer.tenacity.core.hedging.Hedging;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.retry.RetryPolicy;
+import com.yammer.tenacity.core.retry.Retrying;
+import com.yammer.tenacity.core.shedding.Criticality;
+import com.yammer.tenacity.core.shedding.LoadShedder;
 import rx.Observable;
+import rx.subjects.ReplaySubject;
 
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 public abstract class TenacityCommand<R> extends HystrixCommand<R> {
+    private final Object runLock = new Object();
+    private Thread runThread;
+    private boolean runInterrupted = false;
+    private final AtomicBoolean observed = new AtomicBoolean();
+    private volatile boolean responseShed = false;
+    private final Optional<Deadline> deadline = Deadline.current();
+
     protected TenacityCommand(TenacityPropertyKey tenacityPropertyKey) {
         this(tenacityPropertyKey, tenacityPropertyKey);
     }
@@ -46,6 +71,10 @@ public abstract class TenacityCommand<R> extends HystrixCommand<R> {
         return new Builder<>(tenacityPropertyKey);
     }
 
+    public static <R> AsyncBuilder<R> asyncBuilder(TenacityPropertyKey tenacityPropertyKey) {
+        return new AsyncBuilder<>(tenacityPropertyKey);
+    }
+
     public HystrixThreadPoolProperties getThreadpoolProperties() {
         return HystrixPropertiesFactory.getThreadPoolProperties(getThreadPoolKey(), null);
     }
@@ -82,10 +111,89 @@ public abstract class TenacityCommand<R> extends HystrixCommand<R> {
         return RollingCommandEventCounterStream.getInstance(getCommandKey(), getCommandProperties());
     }
 
+    /**
+     * Runs the body of run() so that interruptRun() can interrupt it while it executes on a thread of the key's pool.
+     * Commands created by a Builder do this.
+     */
+    protected final R interruptibly(Supplier<R> body) {
+        if (!isExecutedInThread()) {
+            return body.get();
+        }
+        synchronized (runLock) {
+            runThread = Thread.currentThread();
+        }
+        try {
+            return body.get();
+        } finally {
+            synchronized (runLock) {
+                runThread = null;
+                /* The pool thread is about to be reused, don't hand it our interrupt */
+                if (runInterrupted) {
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Interrupts run() if it is executing interruptibly on a thread of the key's pool, so that it gives the thread
+     * back as soon as it notices. Hedging cancels the slower of two executions this way.
+     */
+    public void interruptRun() {
+        synchronized (runLock) {
+            if (runThread != null && runThread != Thread.currentThread()) {
+                runInterrupted = true;
+                runThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Commands that aren't CRITICAL are shed by LoadShedder before reaching Hystrix when their key is close to its
+     * concurrency limit.
+     */
+    protected Criticality getCriticality() {
+        return Criticality.DEFAULT;
+    }
+
+    /**
+     * Whether LoadShedder shed this command. A shed command never reaches Hystrix, so it is neither counted in the key's
+     * health nor reported by isResponseRejected().
+     */
+    public boolean isResponseShed() {
+        return responseShed;
+    }
+
+    @Override
+    public Observable<R> toObservable() {
+        /* Hystrix checks this too, but only once the command reaches it */
+        if (!observed.compareAndSet(false, true)) {
+            throw new HystrixRuntimeException(HystrixRuntimeException.FailureType.BAD_REQUEST_EXCEPTION, getClass(),
+                    getCommandKey().name() + " command executed multiple times - this is not permitted.",
+                    new IllegalStateException("This instance can only be executed once. Please instantiate a new instance."),
+                    null);
+        }
+        final Criticality criticality = getCriticality();
+        if (LoadShedder.admit(getCommandKey(), criticality)) {
+            return Deadline.within(deadline, super.toObservable())
+                    .doOnError((err) -> RetryAfter.failed(getCommandKey(), err));
+        }
+        responseShed = true;
+        return LoadShedder.fallBack(getClass(), getCommandKey(), criticality, deadline, () -> Observable.just(getFallback()))
+                .doOnError((err) -> RetryAfter.failed(getCommandKey(), err));
+    }
+
     public static class Builder<R> {
         protected final TenacityPropertyKey key;
         protected Supplier<R> run;
         protected Supplier<R> fallback;
+        protected HedgePolicy hedgePolicy;
+        protected RetryPolicy retryPolicy;
+        protected TenacityResponseCache.Slot<R> cacheSlot;
+        protected Object singleFlightGroup;
+        protected Object singleFlightArgument;
+        protected Criticality criticality = Criticality.DEFAULT;
+        protected final Optional<Deadline> deadline = Deadline.current();
 
         public Builder(TenacityPropertyKey key) {
             this.key = key;
@@ -101,46 +209,215 @@ public abstract class TenacityCommand<R> extends HystrixCommand<R> {
             return this;
         }
 
+        public Builder<R> hedge(HedgePolicy policy) {
+            hedgePolicy = policy;
+            return this;
+        }
+
+        public Builder<R> retry(RetryPolicy policy) {
+            retryPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Serve fresh responses for cacheKey from cache without executing the command, and stale ones as the fallback
+         * (before falling back to the fallback supplied to this builder, if any).
+         */
+        public <K> Builder<R> cache(TenacityResponseCache<K, R> cache, K cacheKey) {
+            cacheSlot = cache.slot(cacheKey);
+            return this;
+        }
+
+        /**
+         * Concurrent executions with an equal group and argument share one execution of the command, see SingleFlight.
+         * The group names what is executed (e.g. "profile"), as different calls to a key may take equal arguments.
+         */
+        public Builder<R> singleFlight(Object group, Object argument) {
+            singleFlightGroup = checkNotNull(group);
+            singleFlightArgument = argument;
+            return this;
+        }
+
+        public Builder<R> criticality(Criticality criticality) {
+            this.criticality = criticality;
+            return this;
+        }
+
         public TenacityCommand<R> build() {
+            return build(true, null);
+        }
+
+        protected TenacityCommand<R> build(boolean withFallback, Retrying.Attempt attempt) {
             if (run == null) {
                 throw new IllegalStateException("Run must be supplied.");
             }
-            if (fallback == null) {
+            return Deadline.within(deadline, () -> newCommand(effectiveRun(), withFallback, attempt));
+        }
+
+        /**
+         * Created with the deadline current when the builder was, as hedges and retries are built on other threads.
+         * Only commands with a fallback override getFallback(): a stale cached response if there is one, then the
+         * supplied fallback, and otherwise Hystrix's "no fallback". The fallback of a retried attempt only runs when the
+         * attempt isn't retried.
+         */
+        protected TenacityCommand<R> newCommand(Supplier<R> run, boolean withFallback, Retrying.Attempt attempt) {
+            final Criticality criticality = this.criticality;
+            final Supplier<R> fallback = this.fallback;
+            final TenacityResponseCache.Slot<R> cacheSlot = this.cacheSlot;
+            if (!withFallback || (fallback == null && cacheSlot == null)) {
                 return new TenacityCommand<R>(key) {
                     @Override
                     protected R run() throws Exception {
-                        return run.get();
+                        return interruptibly(run);
+                    }
+
+                    @Override
+                    protected Criticality getCriticality() {
+                        return criticality;
                     }
                 };
             } else {
                 return new TenacityCommand<R>(key) {
                     @Override
                     protected R run() throws Exception {
-                        return run.get();
+                        return interruptibly(run);
                     }
 
                     @Override
                     protected R getFallback() {
-                        return fallback.get();
+                        if (attempt != null && attempt.isRetried(this)) {
+                            throw new UnsupportedOperationException("Retrying instead of falling back.");
+                        }
+                        final Optional<R> stale = cacheSlot == null ? Optional.empty() : cacheSlot.getStale();
+                        if (stale.isPresent()) {
+                            return stale.get();
+                        }
+                        return fallback == null ? super.getFallback() : fallback.get();
+                    }
+
+                    @Override
+                    protected Criticality getCriticality() {
+                        return criticality;
                     }
                 };
             }
         }
 
         public R execute() {
-            return build().execute();
+            if (!hasPolicies()) {
+                return build().execute();
+            }
+            return lazyObservable().toBlocking().single();
         }
 
         public Future<R> queue() {
-            return build().queue();
+            if (!hasPolicies()) {
+                return build().queue();
+            }
+            return lazyObservable().toBlocking().toFuture();
         }
 
         public Observable<R> observe() {
-            return build().observe();
+            if (!hasPolicies()) {
+                return build().observe();
+            }
+            final ReplaySubject<R> subject = ReplaySubject.create();
+            lazyObservable().subscribe(subject);
+            return subject;
         }
 
         public Observable<R> lazyObservable() {
-            return build().toObservable();
+            if (!hasPolicies()) {
+                return build().toObservable();
+            }
+            if (cacheSlot == null) {
+                return sharedExecution();
+            }
+            return Observable.defer(() -> cacheSlot.getFresh()
+                    .map(Observable::just)
+                    .orElseGet(this::sharedExecution));
+        }
+
+        protected boolean hasPolicies() {
+            return hedgePolicy != null || retryPolicy != null || cacheSlot != null || singleFlightGroup != null;
+        }
+
+        protected Observable<R> sharedExecution() {
+            if (singleFlightGroup == null) {
+                return execution();
+            }
+            return SingleFlight.share(key, singleFlightGroup, singleFlightArgument, this::execution);
+        }
+
+        protected Observable<R> execution() {
+            if (retryPolicy == null) {
+                return attempt(null);
+            }
+            return Retrying.retry(key, retryPolicy, this::attempt);
+        }
+
+        protected Supplier<R> effectiveRun() {
+            if (cacheSlot == null) {
+                return run;
+            }
+            return () -> {
+                final R result = run.get();
+                cacheSlot.put(result);
+                return result;
+            };
+        }
+
+        protected Observable<R> attempt(Retrying.Attempt attempt) {
+            if (hedgePolicy == null) {
+                return build(true, attempt).toObservable();
+            }
+            return Hedging.hedge(key, hedgePolicy, () -> build(true, attempt), () -> build(false, null));
+        }
+    }
+
+    /**
+     * For dependencies with an async client: run and fallback return CompletionStages, and so does execute(). The
+     * command is a TenacityObservableCommand, so it is semaphore isolated unless the key says otherwise, and Hystrix
+     * applies the timeout and fallback from its timer thread rather than by blocking a pool thread on the stage.
+     */
+    public static class AsyncBuilder<R> {
+        protected final TenacityObservableCommand.Builder<R> builder;
+
+        public AsyncBuilder(TenacityPropertyKey key) {
+            this.builder = TenacityObservableCommand.builder(key);
+        }
+
+        public AsyncBuilder<R> run(Supplier<CompletionStage<R>> fun) {
+            builder.run(fun == null ? null : () -> TenacityObservables.fromCompletionStage(fun));
+            return this;
+        }
+
+        public AsyncBuilder<R> fallback(Supplier<CompletionStage<R>> fun) {
+            builder.fallback(fun == null ? null : () -> TenacityObservables.fromCompletionStage(fun));
+            return this;
+        }
+
+        public AsyncBuilder<R> hedge(HedgePolicy policy) {
+            builder.hedge(policy);
+            return this;
+        }
+
+        public AsyncBuilder<R> retry(RetryPolicy policy) {
+            builder.retry(policy);
+            return this;
+        }
+
+        public AsyncBuilder<R> criticality(Criticality criticality) {
+            builder.criticality(criticality);
+            return this;
+        }
+
+        public TenacityObservableCommand<R> build() {
+            return builder.build();
+        }
+
+        public CompletionStage<R> execute() {
+            return TenacityObservables.toCompletableFuture(builder.lazyObservable());
         }
     }
 
@@ -1,15 +1,31 @@
 package com.yammer.tenacity.core;
 
 import com.netflix.hystrix.*;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import com.netflix.hystrix.metric.consumer.CumulativeCommandEventCounterStream;
 import com.netflix.hystrix.metric.consumer.RollingCommandEventCounterStream;
 import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.errors.RetryAfter;
+import com.yammer.tenacity.core.hedging.HedgePolicy;
+import com.yammer.tenacity.core.hedging.Hedging;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.retry.RetryPolicy;
+import com.yammer.tenacity.core.retry.Retrying;
+import com.yammer.tenacity.core.shedding.Criticality;
+import com.yammer.tenacity.core.shedding.LoadShedder;
 import rx.Observable;
+import rx.subjects.ReplaySubject;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 public abstract class TenacityObservableCommand<R> extends HystrixObservableCommand<R> {
+    private final AtomicBoolean observed = new AtomicBoolean();
+    private volatile boolean responseShed = false;
+    private final Optional<Deadline> deadline = Deadline.current();
+
     protected TenacityObservableCommand(TenacityPropertyKey tenacityPropertyKey) {
         super(HystrixObservableCommand.Setter.withGroupKey(TenacityCommand.tenacityGroupKey())
                 .andCommandKey(tenacityPropertyKey));
@@ -71,10 +87,49 @@ public abstract class TenacityObservableCommand<R> extends HystrixObservableComm
         return RollingCommandEventCounterStream.getInstance(getCommandKey(), getCommandProperties());
     }
 
+    /**
+     * Commands that aren't CRITICAL are shed by LoadShedder before reaching Hystrix when their key is close to its
+     * concurrency limit.
+     */
+    protected Criticality getCriticality() {
+        return Criticality.DEFAULT;
+    }
+
+    /**
+     * Whether LoadShedder shed this command. A shed command never reaches Hystrix, so it is neither counted in the key's
+     * health nor reported by isResponseRejected().
+     */
+    public boolean isResponseShed() {
+        return responseShed;
+    }
+
+    @Override
+    public Observable<R> toObservable() {
+        /* Hystrix checks this too, but only once the command reaches it */
+        if (!observed.compareAndSet(false, true)) {
+            throw new HystrixRuntimeException(HystrixRuntimeException.FailureType.BAD_REQUEST_EXCEPTION, getClass(),
+                    getCommandKey().name() + " command executed multiple times - this is not permitted.",
+                    new IllegalStateException("This instance can only be executed once. Please instantiate a new instance."),
+                    null);
+        }
+        final Criticality criticality = getCriticality();
+        if (LoadShedder.admit(getCommandKey(), criticality)) {
+            return Deadline.within(deadline, super.toObservable())
+                    .doOnError((err) -> RetryAfter.failed(getCommandKey(), err));
+        }
+        responseShed = true;
+        return LoadShedder.fallBack(getClass(), getCommandKey(), criticality, deadline, this::resumeWithFallback)
+                .doOnError((err) -> RetryAfter.failed(getCommandKey(), err));
+    }
+
     public static class Builder<R> {
         protected final TenacityPropertyKey key;
         protected Supplier<Observable<R>> run;
         protected Supplier<Observable<R>> fallback;
+        protected HedgePolicy hedgePolicy;
+        protected RetryPolicy retryPolicy;
+        protected Criticality criticality = Criticality.DEFAULT;
+        protected final Optional<Deadline> deadline = Deadline.current();
 
         public Builder(TenacityPropertyKey key) {
             this.key = key;
@@ -90,16 +145,53 @@ public abstract class TenacityObservableCommand<R> extends HystrixObservableComm
             return this;
         }
 
+        public Builder<R> hedge(HedgePolicy policy) {
+            hedgePolicy = policy;
+            return this;
+        }
+
+        public Builder<R> retry(RetryPolicy policy) {
+            retryPolicy = policy;
+            return this;
+        }
+
+        public Builder<R> criticality(Criticality criticality) {
+            this.criticality = criticality;
+            return this;
+        }
+
         public TenacityObservableCommand<R> build() {
+            return build(fallback);
+        }
+
+        protected TenacityObservableCommand<R> build(Supplier<Observable<R>> fallback) {
+            return build(fallback, null);
+        }
+
+        protected TenacityObservableCommand<R> build(Supplier<Observable<R>> fallback, Retrying.Attempt attempt) {
             if (run == null) {
                 throw new IllegalStateException("Run must be supplied.");
             }
+            return Deadline.within(deadline, () -> newCommand(fallback, attempt));
+        }
+
+        /**
+         * Created with the deadline current when the builder was, as hedges and retries are built on other threads.
+         * The fallback of a retried attempt only runs when the attempt isn't retried.
+         */
+        protected TenacityObservableCommand<R> newCommand(Supplier<Observable<R>> fallback, Retrying.Attempt attempt) {
+            final Criticality criticality = this.criticality;
             if (fallback == null) {
                 return new TenacityObservableCommand<R>(key) {
                     @Override
                     protected Observable<R> construct() {
                         return run.get();
                     }
+
+                    @Override
+                    protected Criticality getCriticality() {
+                        return criticality;
+                    }
                 };
             } else {
                 return new TenacityObservableCommand<R>(key) {
@@ -110,18 +202,48 @@ public abstract class TenacityObservableCommand<R> extends HystrixObservableComm
 
                     @Override
                     protected Observable<R> resumeWithFallback() {
+                        if (attempt != null && attempt.isRetried(this)) {
+                            return Observable.error(new UnsupportedOperationException("Retrying instead of falling back."));
+                        }
                         return fallback.get();
                     }
+
+                    @Override
+                    protected Criticality getCriticality() {
+                        return criticality;
+                    }
                 };
             }
         }
 
         public Observable<R> observe() {
-            return build().observe();
+            if (!hasPolicies()) {
+                return build().observe();
+            }
+            final ReplaySubject<R> subject = ReplaySubject.create();
+            lazyObservable().subscribe(subject);
+            return subject;
         }
 
         public Observable<R> lazyObservable() {
-            return build().toObservable();
+            if (!hasPolicies()) {
+                return build().toObservable();
+            }
+            if (retryPolicy == null) {
+                return attempt(fallback, null);
+            }
+            return Retrying.retry(key, retryPolicy, (attempt) -> attempt(fallback, attempt));
+        }
+
+        protected boolean hasPolicies() {
+            return hedgePolicy != null || retryPolicy != null;
+        }
+
+        protected Observable<R> attempt(Supplier<Observable<R>> fallback, Retrying.Attempt attempt) {
+            if (hedgePolicy == null) {
+                return build(fallback, attempt).toObservable();
+            }
+            return Hedging.hedge(key, hedgePolicy, () -> build(fallback, attempt), () -> build(null));
         }
     }
 
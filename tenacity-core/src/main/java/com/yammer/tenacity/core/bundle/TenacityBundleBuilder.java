@@ -5,7 +5,9 @@ import com.google.common.collect.ImmutableList;
 import com.netflix.hystrix.strategy.executionhook.HystrixCommandExecutionHook;
 import com.yammer.tenacity.core.errors.TenacityContainerExceptionMapper;
 import com.yammer.tenacity.core.errors.TenacityExceptionMapper;
+import com.yammer.tenacity.core.metrics.YammerMetricsPublisherCommand;
 import io.dropwizard.Configuration;
+import io.dropwizard.util.Duration;
 
 import javax.ws.rs.ext.ExceptionMapper;
 import java.util.Optional;
@@ -17,6 +19,11 @@ public class TenacityBundleBuilder<T extends Configuration> {
     protected final ImmutableList.Builder<HealthCheck> healthCheckBuilder = ImmutableList.builder();
     protected boolean usingTenacityCircuitBreakerHealthCheck = false;
     protected boolean usingAdminPort = false;
+    protected int latencySignificantDigits = YammerMetricsPublisherCommand.DEFAULT_LATENCY_SIGNIFICANT_DIGITS;
+    protected Duration latencyWindow = YammerMetricsPublisherCommand.DEFAULT_LATENCY_WINDOW;
+    protected boolean usingPrometheusMetrics = false;
+    protected boolean usingDeadlines = false;
+    protected boolean usingDeadlinePropagation = false;
 
     public static <T extends Configuration> TenacityBundleBuilder<T> newBuilder() {
         return new TenacityBundleBuilder<>();
@@ -37,6 +44,33 @@ public class TenacityBundleBuilder<T extends Configuration> {
         return this;
     }
 
+    /**
+     * Serves the keys' metrics in the Prometheus text format at /tenacity/metrics, on the admin port when usingAdminPort().
+     */
+    public TenacityBundleBuilder<T> withPrometheusMetrics() {
+        usingPrometheusMetrics = true;
+        return this;
+    }
+
+    /**
+     * Commands created under a Deadline time out by it, see TenacityPropertiesStrategy and TenacityConcurrencyStrategy.
+     */
+    public TenacityBundleBuilder<T> withDeadlines() {
+        usingDeadlines = true;
+        return this;
+    }
+
+    /**
+     * Attaches the deadline callers send in the Tenacity-Deadline-Millis header to the requests they make, see
+     * DeadlineFilter. Callers can shorten the timeouts of every command serving their requests this way, so only
+     * enable it when the application is only reachable by trusted internal callers. Implies withDeadlines().
+     */
+    public TenacityBundleBuilder<T> withDeadlinePropagation() {
+        usingDeadlines = true;
+        usingDeadlinePropagation = true;
+        return this;
+    }
+
     public TenacityBundleBuilder<T> mapAllHystrixRuntimeExceptionsTo(int statusCode) {
         exceptionMapperBuilder.add(new TenacityExceptionMapper(statusCode));
         exceptionMapperBuilder.add(new TenacityContainerExceptionMapper(statusCode));
@@ -48,6 +82,18 @@ public class TenacityBundleBuilder<T extends Configuration> {
         return this;
     }
 
+    /**
+     * Precision (significant digits, 0 to 5) and window of the latency Timers published for each key.
+     */
+    public TenacityBundleBuilder<T> latencyHistograms(int significantDigits, Duration window) {
+        if (significantDigits < 0 || significantDigits > 5) {
+            throw new IllegalArgumentException("Latency histograms keep between 0 and 5 significant digits");
+        }
+        this.latencySignificantDigits = significantDigits;
+        this.latencyWindow = window;
+        return this;
+    }
+
     public TenacityBundleBuilder<T> configurationFactory(TenacityBundleConfigurationFactory<T> configurationFactory) {
         this.configurationFactory = configurationFactory;
         return this;
@@ -63,6 +109,11 @@ public class TenacityBundleBuilder<T extends Configuration> {
                 executionHook,
                 exceptionMapperBuilder.build(),
                 usingTenacityCircuitBreakerHealthCheck,
-                usingAdminPort);
+                usingAdminPort,
+                latencySignificantDigits,
+                latencyWindow,
+                usingPrometheusMetrics,
+                usingDeadlines,
+                usingDeadlinePropagation);
     }
 }
@@ -5,16 +5,24 @@ import com.netflix.hystrix.strategy.HystrixPlugins;
 import com.netflix.hystrix.strategy.executionhook.HystrixCommandExecutionHook;
 import com.yammer.tenacity.core.config.TenacityConfiguration;
 import com.yammer.tenacity.core.core.ManagedHystrix;
+import com.yammer.tenacity.core.core.TenacityHystrixPlugins;
+import com.yammer.tenacity.core.deadline.DeadlineFilter;
 import com.yammer.tenacity.core.healthcheck.TenacityCircuitBreakerHealthCheck;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
 import com.yammer.tenacity.core.metrics.YammerMetricsPublisher;
+import com.yammer.tenacity.core.metrics.TenacityPrometheusExporter;
+import com.yammer.tenacity.core.metrics.YammerMetricsPublisherCommand;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
 import com.yammer.tenacity.core.properties.TenacityPropertyKeyFactory;
+import com.yammer.tenacity.core.properties.TenacityPropertyKeyRegistry;
 import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
 import com.yammer.tenacity.core.resources.TenacityCircuitBreakersResource;
 import com.yammer.tenacity.core.resources.TenacityConfigurationResource;
+import com.yammer.tenacity.core.resources.TenacityPrometheusResource;
 import com.yammer.tenacity.core.resources.TenacityPropertyKeysResource;
 import com.yammer.tenacity.core.servlets.TenacityCircuitBreakersServlet;
 import com.yammer.tenacity.core.servlets.TenacityConfigurationServlet;
+import com.yammer.tenacity.core.servlets.TenacityPrometheusServlet;
 import com.yammer.tenacity.core.servlets.TenacityPropertyKeysServlet;
 import io.dropwizard.Configuration;
 import io.dropwizard.ConfiguredBundle;
@@ -26,8 +34,11 @@ import io.dropwizard.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletRegistration;
 import javax.ws.rs.ext.ExceptionMapper;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -41,18 +52,71 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
     protected final Iterable<ExceptionMapper<? extends Throwable>> exceptionMappers;
     protected final boolean usingTenacityCircuitBreakerHealthCheck;
     protected final boolean usingAdminPort;
+    protected final int latencySignificantDigits;
+    protected final Duration latencyWindow;
+    protected final boolean usingPrometheusMetrics;
+    protected final boolean usingDeadlines;
+    protected final boolean usingDeadlinePropagation;
 
     public TenacityConfiguredBundle(
             TenacityBundleConfigurationFactory<T> tenacityBundleConfigurationFactory,
             Optional<HystrixCommandExecutionHook> hystrixCommandExecutionHook,
             Iterable<ExceptionMapper<? extends Throwable>> exceptionMappers,
             boolean usingTenacityCircuitBreakerHealthCheck,
-            boolean usingAdminPort) {
+            boolean usingAdminPort,
+            int latencySignificantDigits,
+            Duration latencyWindow,
+            boolean usingPrometheusMetrics,
+            boolean usingDeadlines,
+            boolean usingDeadlinePropagation) {
         this.exceptionMappers = exceptionMappers;
         this.tenacityBundleConfigurationFactory = checkNotNull(tenacityBundleConfigurationFactory);
         this.executionHook = hystrixCommandExecutionHook;
         this.usingTenacityCircuitBreakerHealthCheck = usingTenacityCircuitBreakerHealthCheck;
         this.usingAdminPort = usingAdminPort;
+        this.latencySignificantDigits = latencySignificantDigits;
+        this.latencyWindow = checkNotNull(latencyWindow);
+        this.usingPrometheusMetrics = usingPrometheusMetrics;
+        this.usingDeadlines = usingDeadlines || usingDeadlinePropagation;
+        this.usingDeadlinePropagation = usingDeadlinePropagation;
+    }
+
+    public TenacityConfiguredBundle(
+            TenacityBundleConfigurationFactory<T> tenacityBundleConfigurationFactory,
+            Optional<HystrixCommandExecutionHook> hystrixCommandExecutionHook,
+            Iterable<ExceptionMapper<? extends Throwable>> exceptionMappers,
+            boolean usingTenacityCircuitBreakerHealthCheck,
+            boolean usingAdminPort,
+            int latencySignificantDigits,
+            Duration latencyWindow,
+            boolean usingPrometheusMetrics) {
+        this(tenacityBundleConfigurationFactory, hystrixCommandExecutionHook, exceptionMappers,
+                usingTenacityCircuitBreakerHealthCheck, usingAdminPort, latencySignificantDigits, latencyWindow,
+                usingPrometheusMetrics, false, false);
+    }
+
+    public TenacityConfiguredBundle(
+            TenacityBundleConfigurationFactory<T> tenacityBundleConfigurationFactory,
+            Optional<HystrixCommandExecutionHook> hystrixCommandExecutionHook,
+            Iterable<ExceptionMapper<? extends Throwable>> exceptionMappers,
+            boolean usingTenacityCircuitBreakerHealthCheck,
+            boolean usingAdminPort,
+            int latencySignificantDigits,
+            Duration latencyWindow) {
+        this(tenacityBundleConfigurationFactory, hystrixCommandExecutionHook, exceptionMappers,
+                usingTenacityCircuitBreakerHealthCheck, usingAdminPort, latencySignificantDigits, latencyWindow, false);
+    }
+
+    public TenacityConfiguredBundle(
+            TenacityBundleConfigurationFactory<T> tenacityBundleConfigurationFactory,
+            Optional<HystrixCommandExecutionHook> hystrixCommandExecutionHook,
+            Iterable<ExceptionMapper<? extends Throwable>> exceptionMappers,
+            boolean usingTenacityCircuitBreakerHealthCheck,
+            boolean usingAdminPort) {
+        this(tenacityBundleConfigurationFactory, hystrixCommandExecutionHook, exceptionMappers,
+                usingTenacityCircuitBreakerHealthCheck, usingAdminPort,
+                YammerMetricsPublisherCommand.DEFAULT_LATENCY_SIGNIFICANT_DIGITS,
+                YammerMetricsPublisherCommand.DEFAULT_LATENCY_WINDOW);
     }
 
     public TenacityConfiguredBundle(
@@ -79,13 +143,18 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
         Map<TenacityPropertyKey, TenacityConfiguration> tenacityPropertyKeyConfigurations =
                 tenacityBundleConfigurationFactory.getTenacityConfigurations(configuration);
 
+        final TenacityPropertyKeyRegistry keys = TenacityPropertyKeyRegistry.of(tenacityPropertyKeyConfigurations.keySet());
+
+        registerHystrixStrategies(tenacityPropertyKeyConfigurations);
         configureHystrix(configuration, environment);
+        addAdaptiveConcurrencyLimiter(keys, environment);
         addExceptionMappers(environment);
-        addHealthChecks(tenacityPropertyKeyConfigurations.keySet(), environment);
+        addDeadlineFilter(keys, environment);
+        addHealthChecks(keys, environment);
         addTenacityResources(
                 environment,
                 tenacityBundleConfigurationFactory.getTenacityPropertyKeyFactory(configuration),
-                tenacityPropertyKeyConfigurations.keySet()
+                keys
         );
 
         registerTenacityProperties(tenacityPropertyKeyConfigurations, configuration);
@@ -94,12 +163,35 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
     @Override
     public void initialize(Bootstrap<?> bootstrap) {
         try {
-            HystrixPlugins.getInstance().registerMetricsPublisher(new YammerMetricsPublisher(bootstrap.getMetricRegistry()));
+            HystrixPlugins.getInstance().registerMetricsPublisher(new YammerMetricsPublisher(
+                    bootstrap.getMetricRegistry(), latencySignificantDigits, latencyWindow));
         } catch (Exception err) {
             LOGGER.warn("Failed to register YammerMetricsPublisher with HystrixPlugins. This is what MetricsPublisher is currently registered: {}",
                     HystrixPlugins.getInstance().getMetricsPublisher().getClass(), err);
         }
         executionHook.ifPresent(HystrixPlugins.getInstance()::registerCommandExecutionHook);
+        /* Before anything can run, so the strategies are registered without resetting HystrixPlugins */
+        TenacityHystrixPlugins.registerStrategies(usingDeadlines, usingDeadlines);
+    }
+
+    /**
+     * TenacityConcurrencyStrategy is only registered when a key runs on virtual threads or deadlines are used, and
+     * TenacityPropertiesStrategy only when deadlines are used. Both wrap the strategies registered before them. Those
+     * for deadlines are registered in initialize(); virtual threads are only known from the configuration, so their
+     * strategy is registered here, which fails if a command already ran with another concurrency strategy.
+     */
+    protected void registerHystrixStrategies(Map<TenacityPropertyKey, TenacityConfiguration> tenacityPropertyKeyConfigurations) {
+        final boolean usingVirtualThreads = tenacityPropertyKeyConfigurations.values().stream()
+                .anyMatch((tenacityConfiguration) -> tenacityConfiguration.getThreadpool().isVirtualThreads());
+        TenacityHystrixPlugins.registerStrategies(usingVirtualThreads, false);
+    }
+
+    protected void addDeadlineFilter(Iterable<TenacityPropertyKey> keys, Environment environment) {
+        if (usingDeadlinePropagation) {
+            environment.servlets()
+                    .addFilter("tenacity-deadline", new DeadlineFilter(keys))
+                    .addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), true, "/*");
+        }
     }
 
     protected void registerTenacityProperties(Map<TenacityPropertyKey, TenacityConfiguration> tenacityPropertyKeyConfigurations,
@@ -116,6 +208,10 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
         }
     }
 
+    protected void addAdaptiveConcurrencyLimiter(Iterable<TenacityPropertyKey> keys, Environment environment) {
+        environment.lifecycle().manage(new AdaptiveConcurrencyLimiter(keys));
+    }
+
     protected void addHealthChecks(Iterable<TenacityPropertyKey> keys, Environment environment) {
         if (usingTenacityCircuitBreakerHealthCheck) {
             final TenacityCircuitBreakerHealthCheck tenacityCircuitBreakerHealthCheck = new TenacityCircuitBreakerHealthCheck(keys);
@@ -138,8 +234,11 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
         final String tenacityMetricsStream = "/tenacity/metrics.stream";
         final TenacityConfigurationResource configurationResource = new TenacityConfigurationResource(keyFactory);
         final TenacityCircuitBreakersResource circuitBreakersResource =
-                new TenacityCircuitBreakersResource(tenacityPropertyKeys, keyFactory);
+                new TenacityCircuitBreakersResource(tenacityPropertyKeys, keyFactory, environment.getObjectMapper());
         final TenacityPropertyKeysResource propertyKeysResource = new TenacityPropertyKeysResource(tenacityPropertyKeys);
+        final Optional<TenacityPrometheusResource> prometheusResource = usingPrometheusMetrics
+                ? Optional.of(new TenacityPrometheusResource(new TenacityPrometheusExporter(tenacityPropertyKeys)))
+                : Optional.empty();
 
         if (usingAdminPort) {
             environment.admin()
@@ -153,10 +252,14 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
                     .addServlet(TenacityConfigurationResource.PATH,
                             new TenacityConfigurationServlet(environment.getObjectMapper(), configurationResource))
                     .addMapping(TenacityConfigurationResource.PATH + "/*");
-            environment.admin()
+            final ServletRegistration.Dynamic circuitBreakersServlet = environment.admin()
                     .addServlet(TenacityCircuitBreakersResource.PATH,
-                            new TenacityCircuitBreakersServlet(environment.getObjectMapper(), circuitBreakersResource))
-                    .addMapping(TenacityCircuitBreakersResource.PATH + "/*");
+                            new TenacityCircuitBreakersServlet(environment.getObjectMapper(), circuitBreakersResource));
+            circuitBreakersServlet.setAsyncSupported(true);
+            circuitBreakersServlet.addMapping(TenacityCircuitBreakersResource.PATH + "/*");
+            prometheusResource.ifPresent((resource) -> environment.admin()
+                    .addServlet(TenacityPrometheusResource.PATH, new TenacityPrometheusServlet(resource))
+                    .addMapping(TenacityPrometheusResource.PATH));
         } else {
             environment.servlets()
                     .addServlet(tenacityMetricsStream, new HystrixMetricsStreamServlet())
@@ -164,12 +267,14 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
             environment.jersey().register(propertyKeysResource);
             environment.jersey().register(configurationResource);
             environment.jersey().register(circuitBreakersResource);
+            prometheusResource.ifPresent(environment.jersey()::register);
         }
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(tenacityBundleConfigurationFactory, executionHook, exceptionMappers, usingTenacityCircuitBreakerHealthCheck);
+        return Objects.hash(tenacityBundleConfigurationFactory, executionHook, exceptionMappers, usingTenacityCircuitBreakerHealthCheck,
+                latencySignificantDigits, latencyWindow, usingPrometheusMetrics, usingDeadlines, usingDeadlinePropagation);
     }
 
     @Override
@@ -184,6 +289,11 @@ public class TenacityConfiguredBundle<T extends Configuration> implements Config
         return Objects.equals(this.tenacityBundleConfigurationFactory, other.tenacityBundleConfigurationFactory)
                 && Objects.equals(this.executionHook, other.executionHook)
                 && Objects.equals(this.exceptionMappers, other.exceptionMappers)
-                && Objects.equals(this.usingTenacityCircuitBreakerHealthCheck, other.usingTenacityCircuitBreakerHealthCheck);
+                && Objects.equals(this.usingTenacityCircuitBreakerHealthCheck, other.usingTenacityCircuitBreakerHealthCheck)
+                && Objects.equals(this.latencySignificantDigits, other.latencySignificantDigits)
+                && Objects.equals(this.latencyWindow, other.latencyWindow)
+                && Objects.equals(this.usingPrometheusMetrics, other.usingPrometheusMetrics)
+                && Objects.equals(this.usingDeadlines, other.usingDeadlines)
+                && Objects.equals(this.usingDeadlinePropagation, other.usingDeadlinePropagation);
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.yammer.tenacity.core.cache;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.dropwizard.util.Duration;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responses shared across requests, unlike Hystrix's request cache which only lives as long as a HystrixRequestContext.
+ * An entry is fresh for ttl after it was written, and is then kept for another maxStaleness to be served as the
+ * fallback when the dependency can't be reached. At most maxEntries entries are kept, the least recently used ones are
+ * evicted first.
+ *
+ * Create one per dependency and keep it around, e.g. in a static field, and pass it to TenacityCommand.Builder.cache.
+ */
+public class TenacityResponseCache<K, V> {
+    private static class Entry<V> {
+        private final V value;
+        private final long writtenAtNanos;
+
+        private Entry(V value, long writtenAtNanos) {
+            this.value = value;
+            this.writtenAtNanos = writtenAtNanos;
+        }
+    }
+
+    /**
+     * The entry of one cache key; it is what a TenacityCommand.Builder holds on to.
+     */
+    public static class Slot<V> {
+        private final TenacityResponseCache<Object, V> cache;
+        private final Object key;
+
+        @SuppressWarnings("unchecked")
+        private Slot(TenacityResponseCache<?, V> cache, Object key) {
+            this.cache = (TenacityResponseCache<Object, V>) cache;
+            this.key = key;
+        }
+
+        public Optional<V> getFresh() {
+            return cache.getFresh(key);
+        }
+
+        public Optional<V> getStale() {
+            return cache.getStale(key);
+        }
+
+        public void put(V value) {
+            cache.put(key, value);
+        }
+    }
+
+    private final Duration ttl;
+    private final Duration maxStaleness;
+    private final long maxEntries;
+    private final Cache<K, Entry<V>> entries;
+
+    public TenacityResponseCache(Duration ttl, Duration maxStaleness, long maxEntries) {
+        this.ttl = ttl;
+        this.maxStaleness = maxStaleness;
+        this.maxEntries = maxEntries;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl.toNanoseconds() + maxStaleness.toNanoseconds(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    public Slot<V> slot(K key) {
+        return new Slot<>(this, key);
+    }
+
+    public Optional<V> getFresh(K key) {
+        final Entry<V> entry = entries.getIfPresent(key);
+        if (entry == null || System.nanoTime() - entry.writtenAtNanos >= ttl.toNanoseconds()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry.value);
+    }
+
+    public Optional<V> getStale(K key) {
+        final Entry<V> entry = entries.getIfPresent(key);
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.value);
+    }
+
+    public void put(K key, V value) {
+        if (value != null) {
+            entries.put(key, new Entry<>(value, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("ttl", ttl)
+                .add("maxStaleness", maxStaleness)
+                .add("maxEntries", maxEntries)
+                .add("size", size())
+                .toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.yammer.tenacity.core.coalescing;
+
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import rx.Observable;
+import rx.subjects.ReplaySubject;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of a key for the same group and argument: the first one executes, and everyone who
+ * asks while it is in flight gets its result, whether that is a response, a fallback or an error. Unsubscribing doesn't
+ * cancel an execution others may be waiting for.
+ *
+ * The group tells apart the different calls made under one key (say a profile and a settings lookup, both by user id),
+ * so that they never get each other's results; executions sharing a group must return the same type.
+ *
+ * The execution runs under the deadline of the caller that started it. Callers joining it wait for that execution, and
+ * their own deadlines don't shorten (or extend) it.
+ */
+public class SingleFlight {
+    private static final ConcurrentMap<Flight, Observable<?>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private SingleFlight() {}
+
+    private static class Flight {
+        private final String key;
+        private final Object group;
+        private final Object argument;
+
+        private Flight(String key, Object group, Object argument) {
+            this.key = key;
+            this.group = group;
+            this.argument = argument;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, group, argument);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Flight other = (Flight) obj;
+            return Objects.equals(this.key, other.key)
+                    && Objects.equals(this.group, other.group)
+                    && Objects.equals(this.argument, other.argument);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R> Observable<R> share(TenacityPropertyKey key,
+                                          Object group,
+                                          Object argument,
+                                          Supplier<Observable<R>> execution) {
+        return Observable.defer(() -> {
+            final Flight call = new Flight(key.name(), group, argument);
+            final ReplaySubject<R> flight = ReplaySubject.create();
+            final Observable<?> inFlight = IN_FLIGHT.putIfAbsent(call, flight);
+            if (inFlight != null) {
+                return (Observable<R>) inFlight;
+            }
+            try {
+                execution.get()
+                        .doOnTerminate(() -> IN_FLIGHT.remove(call, flight))
+                        .subscribe(flight);
+            } catch (RuntimeException err) {
+                IN_FLIGHT.remove(call, flight);
+                throw err;
+            }
+            return flight;
+        });
+    }
+
+    public static int inFlight() {
+        return IN_FLIGHT.size();
+    }
+}
@@ -0,0 +1,126 @@
+package com.yammer.tenacity.core.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Objects;
+
+public class AdaptiveLimitConfiguration {
+    public enum Algorithm {
+        NONE, AIMD, GRADIENT
+    }
+
+    @NotNull
+    private Algorithm algorithm = Algorithm.NONE;
+
+    @Min(1)
+    @Max(Integer.MAX_VALUE)
+    private int minLimit = 1;
+
+    @Min(1)
+    @Max(Integer.MAX_VALUE)
+    private int maxLimit = 100;
+
+    @DecimalMin("0.1")
+    @DecimalMax("1.0")
+    private double backoffRatio = 0.9;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double smoothing = 0.2;
+
+    public AdaptiveLimitConfiguration() { /* Jackson */ }
+
+    public AdaptiveLimitConfiguration(Algorithm algorithm,
+                                      int minLimit,
+                                      int maxLimit,
+                                      double backoffRatio,
+                                      double smoothing) {
+        this.algorithm = algorithm;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.smoothing = smoothing;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    @JsonIgnore
+    public boolean isEnabled() {
+        return algorithm != Algorithm.NONE;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(algorithm, minLimit, maxLimit, backoffRatio, smoothing);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final AdaptiveLimitConfiguration other = (AdaptiveLimitConfiguration) obj;
+        return Objects.equals(this.algorithm, other.algorithm)
+                && Objects.equals(this.minLimit, other.minLimit)
+                && Objects.equals(this.maxLimit, other.maxLimit)
+                && Objects.equals(this.backoffRatio, other.backoffRatio)
+                && Objects.equals(this.smoothing, other.smoothing);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLimitConfiguration{" +
+                "algorithm=" + algorithm +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                ", backoffRatio=" + backoffRatio +
+                ", smoothing=" + smoothing +
+                '}';
+    }
+}
@@ -3,12 +3,20 @@ package com.yammer.tenacity.core.config;
 import io.dropwizard.util.Duration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
 
 public class BreakerboxConfiguration {
     @NotNull @Valid
     private String urls = "";
 
+    @NotNull @Valid
+    private String path = "";
+
+    @NotNull @Valid
+    private String snapshot = "";
+
     @NotNull @Valid
     private Duration initialDelay = Duration.seconds(0);
 
@@ -18,6 +26,21 @@ public class BreakerboxConfiguration {
     @NotNull @Valid
     private Duration waitForInitialLoad = Duration.milliseconds(0);
 
+    @NotNull @Valid
+    private Duration longPollTimeout = Duration.milliseconds(0);
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double jitter = 0.1;
+
+    @NotNull @Valid
+    private Duration maxBackoff = Duration.minutes(10);
+
+    @NotNull @Valid
+    private Duration timeout = Duration.seconds(10);
+
+    private boolean failover = false;
+
     public BreakerboxConfiguration() { /* Jackson */ }
 
     public String getUrls() {
@@ -28,6 +51,22 @@ public class BreakerboxConfiguration {
         this.urls = urls;
     }
 
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(String snapshot) {
+        this.snapshot = snapshot;
+    }
+
     public Duration getInitialDelay() {
         return initialDelay;
     }
@@ -55,4 +94,48 @@ public class BreakerboxConfiguration {
     public boolean isWaitForInitialLoad() {
         return waitForInitialLoad.getQuantity() > 0;
     }
+
+    public Duration getLongPollTimeout() {
+        return longPollTimeout;
+    }
+
+    public void setLongPollTimeout(Duration longPollTimeout) {
+        this.longPollTimeout = longPollTimeout;
+    }
+
+    public boolean isLongPolling() {
+        return longPollTimeout.getQuantity() > 0;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public boolean isFailover() {
+        return failover;
+    }
+
+    public void setFailover(boolean failover) {
+        this.failover = failover;
+    }
 }
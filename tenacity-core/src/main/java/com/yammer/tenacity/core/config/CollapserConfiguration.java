@@ -0,0 +1,79 @@
+package com.yammer.tenacity.core.config;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.Objects;
+
+public class CollapserConfiguration {
+    @Min(1)
+    @Max(Integer.MAX_VALUE)
+    private int maxRequestsInBatch = Integer.MAX_VALUE;
+
+    @Min(0)
+    @Max(Integer.MAX_VALUE)
+    private int timerDelayInMillis = 10;
+
+    private boolean requestCacheEnabled = true;
+
+    public CollapserConfiguration() { /* Jackson */ }
+
+    public CollapserConfiguration(int maxRequestsInBatch,
+                                  int timerDelayInMillis,
+                                  boolean requestCacheEnabled) {
+        this.maxRequestsInBatch = maxRequestsInBatch;
+        this.timerDelayInMillis = timerDelayInMillis;
+        this.requestCacheEnabled = requestCacheEnabled;
+    }
+
+    public int getMaxRequestsInBatch() {
+        return maxRequestsInBatch;
+    }
+
+    public int getTimerDelayInMillis() {
+        return timerDelayInMillis;
+    }
+
+    public boolean isRequestCacheEnabled() {
+        return requestCacheEnabled;
+    }
+
+    public void setMaxRequestsInBatch(int maxRequestsInBatch) {
+        this.maxRequestsInBatch = maxRequestsInBatch;
+    }
+
+    public void setTimerDelayInMillis(int timerDelayInMillis) {
+        this.timerDelayInMillis = timerDelayInMillis;
+    }
+
+    public void setRequestCacheEnabled(boolean requestCacheEnabled) {
+        this.requestCacheEnabled = requestCacheEnabled;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRequestsInBatch, timerDelayInMillis, requestCacheEnabled);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final CollapserConfiguration other = (CollapserConfiguration) obj;
+        return Objects.equals(this.maxRequestsInBatch, other.maxRequestsInBatch)
+                && Objects.equals(this.timerDelayInMillis, other.timerDelayInMillis)
+                && Objects.equals(this.requestCacheEnabled, other.requestCacheEnabled);
+    }
+
+    @Override
+    public String toString() {
+        return "CollapserConfiguration{" +
+                "maxRequestsInBatch=" + maxRequestsInBatch +
+                ", timerDelayInMillis=" + timerDelayInMillis +
+                ", requestCacheEnabled=" + requestCacheEnabled +
+                '}';
+    }
+}
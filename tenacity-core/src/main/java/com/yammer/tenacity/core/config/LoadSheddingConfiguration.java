@@ -0,0 +1,65 @@
+package com.yammer.tenacity.core.config;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import java.util.Objects;
+
+public class LoadSheddingConfiguration {
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double criticalReserve = 0.0;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double sheddableLimit = 0.5;
+
+    public LoadSheddingConfiguration() { /* Jackson */ }
+
+    public LoadSheddingConfiguration(double criticalReserve,
+                                     double sheddableLimit) {
+        this.criticalReserve = criticalReserve;
+        this.sheddableLimit = sheddableLimit;
+    }
+
+    public double getCriticalReserve() {
+        return criticalReserve;
+    }
+
+    public double getSheddableLimit() {
+        return sheddableLimit;
+    }
+
+    public void setCriticalReserve(double criticalReserve) {
+        this.criticalReserve = criticalReserve;
+    }
+
+    public void setSheddableLimit(double sheddableLimit) {
+        this.sheddableLimit = sheddableLimit;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(criticalReserve, sheddableLimit);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final LoadSheddingConfiguration other = (LoadSheddingConfiguration) obj;
+        return Objects.equals(this.criticalReserve, other.criticalReserve)
+                && Objects.equals(this.sheddableLimit, other.sheddableLimit);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadSheddingConfiguration{" +
+                "criticalReserve=" + criticalReserve +
+                ", sheddableLimit=" + sheddableLimit +
+                '}';
+    }
+}
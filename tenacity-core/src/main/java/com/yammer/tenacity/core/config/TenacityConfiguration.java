@@ -25,6 +25,16 @@ public class TenacityConfiguration {
 
     private HystrixCommandProperties.ExecutionIsolationStrategy executionIsolationStrategy = null;
 
+    @NotNull @Valid
+    private AdaptiveLimitConfiguration adaptiveLimit = new AdaptiveLimitConfiguration();
+
+    /* Only registered when present, so that a TenacityCollapser's own maxBatchSize and window apply otherwise */
+    @Valid
+    private CollapserConfiguration collapser = null;
+
+    @NotNull @Valid
+    private LoadSheddingConfiguration loadShedding = new LoadSheddingConfiguration();
+
     public TenacityConfiguration() { /* Jackson */ }
 
     public TenacityConfiguration(ThreadPoolConfiguration threadpool,
@@ -46,6 +56,39 @@ public class TenacityConfiguration {
         this.executionIsolationStrategy = executionIsolationStrategy;
     }
 
+    public TenacityConfiguration(ThreadPoolConfiguration threadpool,
+                                 CircuitBreakerConfiguration circuitBreaker,
+                                 SemaphoreConfiguration semaphore,
+                                 int executionIsolationThreadTimeoutInMillis,
+                                 HystrixCommandProperties.ExecutionIsolationStrategy executionIsolationStrategy,
+                                 AdaptiveLimitConfiguration adaptiveLimit) {
+        this(threadpool, circuitBreaker, semaphore, executionIsolationThreadTimeoutInMillis, executionIsolationStrategy);
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    public TenacityConfiguration(ThreadPoolConfiguration threadpool,
+                                 CircuitBreakerConfiguration circuitBreaker,
+                                 SemaphoreConfiguration semaphore,
+                                 int executionIsolationThreadTimeoutInMillis,
+                                 HystrixCommandProperties.ExecutionIsolationStrategy executionIsolationStrategy,
+                                 AdaptiveLimitConfiguration adaptiveLimit,
+                                 CollapserConfiguration collapser) {
+        this(threadpool, circuitBreaker, semaphore, executionIsolationThreadTimeoutInMillis, executionIsolationStrategy, adaptiveLimit);
+        this.collapser = collapser;
+    }
+
+    public TenacityConfiguration(ThreadPoolConfiguration threadpool,
+                                 CircuitBreakerConfiguration circuitBreaker,
+                                 SemaphoreConfiguration semaphore,
+                                 int executionIsolationThreadTimeoutInMillis,
+                                 HystrixCommandProperties.ExecutionIsolationStrategy executionIsolationStrategy,
+                                 AdaptiveLimitConfiguration adaptiveLimit,
+                                 CollapserConfiguration collapser,
+                                 LoadSheddingConfiguration loadShedding) {
+        this(threadpool, circuitBreaker, semaphore, executionIsolationThreadTimeoutInMillis, executionIsolationStrategy, adaptiveLimit, collapser);
+        this.loadShedding = loadShedding;
+    }
+
     public ThreadPoolConfiguration getThreadpool() {
         return threadpool;
     }
@@ -90,9 +133,37 @@ public class TenacityConfiguration {
         this.executionIsolationStrategy = executionIsolationStrategy;
     }
 
+    public AdaptiveLimitConfiguration getAdaptiveLimit() {
+        return adaptiveLimit;
+    }
+
+    public void setAdaptiveLimit(AdaptiveLimitConfiguration adaptiveLimit) {
+        this.adaptiveLimit = adaptiveLimit;
+    }
+
+    public boolean hasCollapser() {
+        return Objects.nonNull(collapser);
+    }
+
+    public CollapserConfiguration getCollapser() {
+        return collapser;
+    }
+
+    public void setCollapser(CollapserConfiguration collapser) {
+        this.collapser = collapser;
+    }
+
+    public LoadSheddingConfiguration getLoadShedding() {
+        return loadShedding;
+    }
+
+    public void setLoadShedding(LoadSheddingConfiguration loadShedding) {
+        this.loadShedding = loadShedding;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(threadpool, circuitBreaker, semaphore, executionIsolationThreadTimeoutInMillis, executionIsolationStrategy);
+        return Objects.hash(threadpool, circuitBreaker, semaphore, executionIsolationThreadTimeoutInMillis, executionIsolationStrategy, adaptiveLimit, collapser, loadShedding);
     }
 
     @Override
@@ -108,7 +179,10 @@ public class TenacityConfiguration {
                 && Objects.equals(this.circuitBreaker, other.circuitBreaker)
                 && Objects.equals(this.semaphore, other.semaphore)
                 && Objects.equals(this.executionIsolationThreadTimeoutInMillis, other.executionIsolationThreadTimeoutInMillis)
-                && Objects.equals(this.executionIsolationStrategy, other.executionIsolationStrategy);
+                && Objects.equals(this.executionIsolationStrategy, other.executionIsolationStrategy)
+                && Objects.equals(this.adaptiveLimit, other.adaptiveLimit)
+                && Objects.equals(this.collapser, other.collapser)
+                && Objects.equals(this.loadShedding, other.loadShedding);
     }
 
     @Override
@@ -119,6 +193,9 @@ public class TenacityConfiguration {
                 .add("semaphore", semaphore)
                 .add("executionIsolationThreadTimeoutInMillis", executionIsolationThreadTimeoutInMillis)
                 .add("executionIsolationStrategy", executionIsolationStrategy)
+                .add("adaptiveLimit", adaptiveLimit)
+                .add("collapser", collapser)
+                .add("loadShedding", loadShedding)
                 .toString();
     }
 }
\ No newline at end of file
@@ -31,6 +31,8 @@ public class ThreadPoolConfiguration {
     @Max(Integer.MAX_VALUE)
     private int metricsRollingStatisticalWindowBuckets = 10;
 
+    private boolean virtualThreads = false;
+
     public ThreadPoolConfiguration() { /* Jackson */ }
 
 
@@ -48,6 +50,18 @@ public class ThreadPoolConfiguration {
         this.metricsRollingStatisticalWindowBuckets = metricsRollingStatisticalWindowBuckets;
     }
 
+    public ThreadPoolConfiguration(int threadPoolCoreSize,
+                                   int keepAliveTimeMinutes,
+                                   int maxQueueSize,
+                                   int queueSizeRejectionThreshold,
+                                   int metricsRollingStatisticalWindowInMilliseconds,
+                                   int metricsRollingStatisticalWindowBuckets,
+                                   boolean virtualThreads) {
+        this(threadPoolCoreSize, keepAliveTimeMinutes, maxQueueSize, queueSizeRejectionThreshold,
+                metricsRollingStatisticalWindowInMilliseconds, metricsRollingStatisticalWindowBuckets);
+        this.virtualThreads = virtualThreads;
+    }
+
     public int getThreadPoolCoreSize() {
         return threadPoolCoreSize;
     }
@@ -72,6 +86,10 @@ public class ThreadPoolConfiguration {
         return metricsRollingStatisticalWindowBuckets;
     }
 
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     public void setThreadPoolCoreSize(int threadPoolCoreSize) {
         this.threadPoolCoreSize = threadPoolCoreSize;
     }
@@ -96,9 +114,13 @@ public class ThreadPoolConfiguration {
         this.metricsRollingStatisticalWindowBuckets = metricsRollingStatisticalWindowBuckets;
     }
 
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(threadPoolCoreSize, keepAliveTimeMinutes, maxQueueSize, queueSizeRejectionThreshold, metricsRollingStatisticalWindowInMilliseconds, metricsRollingStatisticalWindowBuckets);
+        return Objects.hash(threadPoolCoreSize, keepAliveTimeMinutes, maxQueueSize, queueSizeRejectionThreshold, metricsRollingStatisticalWindowInMilliseconds, metricsRollingStatisticalWindowBuckets, virtualThreads);
     }
 
     @Override
@@ -115,7 +137,8 @@ public class ThreadPoolConfiguration {
                 && Objects.equals(this.maxQueueSize, other.maxQueueSize)
                 && Objects.equals(this.queueSizeRejectionThreshold, other.queueSizeRejectionThreshold)
                 && Objects.equals(this.metricsRollingStatisticalWindowInMilliseconds, other.metricsRollingStatisticalWindowInMilliseconds)
-                && Objects.equals(this.metricsRollingStatisticalWindowBuckets, other.metricsRollingStatisticalWindowBuckets);
+                && Objects.equals(this.metricsRollingStatisticalWindowBuckets, other.metricsRollingStatisticalWindowBuckets)
+                && Objects.equals(this.virtualThreads, other.virtualThreads);
     }
 
     @Override
@@ -127,6 +150,7 @@ public class ThreadPoolConfiguration {
                 ", queueSizeRejectionThreshold=" + queueSizeRejectionThreshold +
                 ", metricsRollingStatisticalWindowInMilliseconds=" + metricsRollingStatisticalWindowInMilliseconds +
                 ", metricsRollingStatisticalWindowBuckets=" + metricsRollingStatisticalWindowBuckets +
+                ", virtualThreads=" + virtualThreads +
                 '}';
     }
 
@@ -8,9 +8,6 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.MoreObjects;
-import com.netflix.hystrix.HystrixCircuitBreaker;
-import com.netflix.hystrix.HystrixCommandProperties;
-import com.yammer.tenacity.core.TenacityCommand;
 import com.yammer.tenacity.core.properties.StringTenacityPropertyKeyFactory;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
 import com.yammer.tenacity.core.properties.TenacityPropertyKeyFactory;
@@ -73,23 +70,7 @@ public class CircuitBreaker {
     }
 
     public static Optional<CircuitBreaker> usingHystrix(TenacityPropertyKey id) {
-        final HystrixCircuitBreaker circuitBreaker = TenacityCommand.getCircuitBreaker(id);
-
-        if (circuitBreaker == null) {
-            return Optional.empty();
-        }
-
-        final HystrixCommandProperties commandProperties = TenacityCommand.getCommandProperties(id);
-
-        if (commandProperties.circuitBreakerForceOpen().get()) {
-            return Optional.of(CircuitBreaker.forcedOpen(id));
-        } else if (commandProperties.circuitBreakerForceClosed().get()) {
-            return Optional.of(CircuitBreaker.forcedClosed(id));
-        } else if (circuitBreaker.allowRequest()) {
-            return Optional.of(CircuitBreaker.closed(id));
-        } else {
-            return Optional.of(CircuitBreaker.open(id));
-        }
+        return CircuitBreakerStateCache.get(id);
     }
 
     public TenacityPropertyKey getId() {
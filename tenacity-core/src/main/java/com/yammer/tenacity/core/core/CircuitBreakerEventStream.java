@@ -0,0 +1,135 @@
+package com.yammer.tenacity.core.core;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyKeyRegistry;
+import io.dropwizard.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.Subscriptions;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends circuit breaker transitions to Server-Sent Events clients: the current state of every open or forced circuit
+ * when the client connects, then one event per transition as CircuitBreakerStateCache sees it. Every configured key is
+ * watched, including those that haven't executed yet.
+ *
+ * Events and heartbeats (comment lines, so that disconnected clients are noticed) are written by a writer of each
+ * client's own, a worker of the io scheduler, so a client whose writes block only holds up its own events. A client
+ * is closed once writing to it fails or it falls more than 1024 events behind. TenacityCircuitBreakersServlet's clients
+ * don't block at all: they queue what their connection isn't ready for, and fail once too much is queued.
+ */
+public class CircuitBreakerEventStream {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreakerEventStream.class);
+    public static final String MEDIA_TYPE = "text/event-stream";
+    private static final int MAX_PENDING_EVENTS = 1024;
+
+    /**
+     * Where one client's events go. Only ever called from that client's writer, one call at a time.
+     */
+    public interface Client {
+        void send(String data) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private final Collection<TenacityPropertyKey> keys;
+    private final ObjectMapper objectMapper;
+    private final Duration heartbeat;
+
+    public CircuitBreakerEventStream(Collection<TenacityPropertyKey> keys, ObjectMapper objectMapper) {
+        this(keys, objectMapper, Duration.seconds(5));
+    }
+
+    public CircuitBreakerEventStream(Collection<TenacityPropertyKey> keys, ObjectMapper objectMapper, Duration heartbeat) {
+        this.keys = keys;
+        this.objectMapper = objectMapper;
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * Starts sending events to the client and returns straight away. The client is closed when it fails, or when the
+     * returned subscription is unsubscribed.
+     */
+    public Subscription open(Client client) {
+        final TenacityPropertyKeyRegistry registry = TenacityPropertyKeyRegistry.of(keys);
+        CircuitBreakerStateCache.watch(keys);
+
+        /* Subscribed to before the current states are read, so that no transition falls in between */
+        final Observable<Optional<CircuitBreaker>> circuitBreakers = Observable.merge(
+                CircuitBreakerStateCache.transitions()
+                        .filter((circuitBreaker) -> registry.find(circuitBreaker.getId().name()).isPresent()),
+                Observable.defer(() -> Observable.from(CircuitBreakers.all(keys))))
+                .onBackpressureBuffer(MAX_PENDING_EVENTS)
+                .map(Optional::of);
+        final Observable<Optional<CircuitBreaker>> heartbeats = Observable
+                .interval(0, heartbeat.toMilliseconds(), TimeUnit.MILLISECONDS, Schedulers.computation())
+                .onBackpressureDrop()
+                .map((tick) -> Optional.empty());
+
+        final ClientSubscriber subscriber = new ClientSubscriber(client);
+        Observable.merge(circuitBreakers, heartbeats)
+                .observeOn(Schedulers.io())
+                .subscribe(subscriber);
+        return subscriber;
+    }
+
+    private class ClientSubscriber extends Subscriber<Optional<CircuitBreaker>> {
+        private final Client client;
+        private final Map<String, CircuitBreaker.State> sent = new HashMap<>();
+
+        private ClientSubscriber(Client client) {
+            this.client = client;
+            add(Subscriptions.create(client::close));
+        }
+
+        @Override
+        public void onNext(Optional<CircuitBreaker> circuitBreaker) {
+            try {
+                if (circuitBreaker.isPresent()) {
+                    sendIfChanged(circuitBreaker.get());
+                } else {
+                    client.heartbeat();
+                }
+            } catch (IOException err) {
+                LOGGER.debug("Circuit breaker stream client went away", err);
+                unsubscribe();
+            }
+        }
+
+        @Override
+        public void onError(Throwable err) {
+            LOGGER.warn("Closing circuit breaker stream client", err);
+            unsubscribe();
+        }
+
+        @Override
+        public void onCompleted() {
+            unsubscribe();
+        }
+
+        private void sendIfChanged(CircuitBreaker circuitBreaker) throws IOException {
+            final CircuitBreaker.State previous = sent.put(circuitBreaker.getId().name(), circuitBreaker.getState());
+            if (circuitBreaker.getState() != (previous == null ? CircuitBreaker.State.CLOSED : previous)) {
+                client.send(toJson(circuitBreaker));
+            }
+        }
+    }
+
+    private String toJson(CircuitBreaker circuitBreaker) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(circuitBreaker);
+    }
+}
@@ -0,0 +1,265 @@
+package com.yammer.tenacity.core.core;
+
+import com.netflix.config.DynamicProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixEventType;
+import com.netflix.hystrix.metric.HystrixCommandCompletion;
+import com.netflix.hystrix.metric.HystrixCommandCompletionStream;
+import com.netflix.hystrix.metric.consumer.HealthCountsStream;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import rx.Observable;
+import rx.Subscription;
+import rx.subjects.PublishSubject;
+import rx.subjects.SerializedSubject;
+import rx.subjects.Subject;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.SerialSubscription;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker states kept up to date by Hystrix's HealthCountsStream (the stream the breakers themselves trip on),
+ * by the key's command completions and by changes to the force-open/force-closed properties. Reading a state is a map
+ * lookup; it never calls allowRequest() so monitoring can't interfere with half-open probes.
+ *
+ * Like allowRequest(), an open circuit whose sleep window has passed is reported CLOSED: Hystrix lets the next request
+ * through to test it. The window is worked out from when the circuit opened and when its last test request started,
+ * as seen by the cache. A circuit that was already open when its key was first looked up counts as opened then.
+ *
+ * Keys are tracked once they have been looked up, or once they first complete after being watched, and transitions()
+ * emits the state changes of those as they happen. A key that isn't CLOSED when tracking starts is emitted then.
+ */
+public class CircuitBreakerStateCache {
+    private static final ConcurrentMap<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Subscription> WATCHED = new ConcurrentHashMap<>();
+    private static final Set<String> WATCHED_PROPERTIES = ConcurrentHashMap.newKeySet();
+    private static final Subject<CircuitBreaker, CircuitBreaker> TRANSITIONS =
+            new SerializedSubject<>(PublishSubject.<CircuitBreaker>create());
+    private static final DynamicProperty DEFAULT_FORCE_OPEN;
+    private static final DynamicProperty DEFAULT_FORCE_CLOSED;
+
+    static {
+        /* Initialises Archaius, so the DynamicProperties below are backed by its configuration before callbacks are added */
+        DynamicPropertyFactory.getInstance();
+        DEFAULT_FORCE_OPEN = DynamicProperty.getInstance("hystrix.command.default.circuitBreaker.forceOpen");
+        DEFAULT_FORCE_CLOSED = DynamicProperty.getInstance("hystrix.command.default.circuitBreaker.forceClosed");
+    }
+
+    private static class Entry {
+        private final TenacityPropertyKey key;
+        private final HystrixCircuitBreaker hystrixCircuitBreaker;
+        private final HystrixCommandProperties commandProperties;
+        private final DynamicProperty forceOpen;
+        private final DynamicProperty forceClosed;
+        private final CompositeSubscription subscriptions = new CompositeSubscription();
+        private final SerialSubscription halfOpenTimer = new SerialSubscription();
+        private volatile CircuitBreaker circuitBreaker;
+        private volatile long openedAtMillis;
+        private volatile boolean openedAtKnown;
+        private volatile long lastTestedAtMillis;
+        private volatile boolean circuitOpen;
+
+        private Entry(TenacityPropertyKey key, HystrixCircuitBreaker hystrixCircuitBreaker) {
+            this.key = key;
+            this.hystrixCircuitBreaker = hystrixCircuitBreaker;
+            this.commandProperties = TenacityCommand.getCommandProperties(key);
+            this.forceOpen = DynamicProperty.getInstance(TenacityPropertyRegister.circuitBreakerForceOpen(key));
+            this.forceClosed = DynamicProperty.getInstance(TenacityPropertyRegister.circuitBreakerForceClosed(key));
+            this.openedAtMillis = System.currentTimeMillis();
+            this.lastTestedAtMillis = openedAtMillis;
+            this.circuitOpen = hystrixCircuitBreaker.isOpen();
+            this.openedAtKnown = !circuitOpen;
+            this.circuitBreaker = new CircuitBreaker(key, currentState(circuitOpen));
+        }
+
+        /* The streams are resolved once. Both keep running for as long as they are subscribed to, even once Hystrix
+           has moved on to new instances of them (it replaces the health stream whenever a circuit closes). */
+        private void subscribe() {
+            subscriptions.add(halfOpenTimer);
+            subscriptions.add(HealthCountsStream.getInstance(key, commandProperties)
+                    .observe()
+                    .subscribe((healthCounts) -> refresh()));
+            subscriptions.add(HystrixCommandCompletionStream.getInstance(key)
+                    .observe()
+                    .subscribe(this::completed));
+        }
+
+        private void unsubscribe() {
+            subscriptions.unsubscribe();
+        }
+
+        /* A request that ran while the circuit was open was its test request. Hystrix closes the circuit when it
+           succeeds (before it completes), and restarts the sleep window when it fails. */
+        private void completed(HystrixCommandCompletion completion) {
+            if (!circuitOpen || !completion.didCommandExecute()) {
+                return;
+            }
+            synchronized (this) {
+                if (completion.getEventCounts().contains(HystrixEventType.SUCCESS)) {
+                    circuitOpen = false;
+                } else {
+                    lastTestedAtMillis = System.currentTimeMillis() - completion.getTotalLatency();
+                }
+            }
+            refresh();
+        }
+
+        private synchronized void refresh() {
+            if (TenacityCommand.getCircuitBreaker(key) != hystrixCircuitBreaker) {
+                /* Hystrix has been reset. Asking the old breaker for its state would restart its metrics stream and
+                   keep it running forever, so forget about it instead. */
+                unsubscribe();
+                ENTRIES.remove(key.name(), this);
+                return;
+            }
+            /* Only a closed circuit is asked whether it has tripped. An open one is known to stay open until a request
+               closes it (see completed), and asking it while it resets its metrics could trip it again on the old
+               ones. */
+            if (!circuitOpen && hystrixCircuitBreaker.isOpen()) {
+                circuitOpen = true;
+                openedAtMillis = System.currentTimeMillis();
+                openedAtKnown = true;
+                lastTestedAtMillis = openedAtMillis;
+            }
+            final CircuitBreaker.State state = currentState(circuitOpen);
+            if (state != circuitBreaker.getState()) {
+                if (state == CircuitBreaker.State.FORCED_OPEN) {
+                    openedAtMillis = System.currentTimeMillis();
+                    openedAtKnown = true;
+                } else if (state == CircuitBreaker.State.OPEN) {
+                    /* Report the circuit half-open as soon as its sleep window is over, not at the next health tick */
+                    final long halfOpenInMillis = getHalfOpenAtMillis() - System.currentTimeMillis();
+                    halfOpenTimer.set(Observable.timer(halfOpenInMillis, TimeUnit.MILLISECONDS)
+                            .subscribe((tick) -> refresh()));
+                }
+                circuitBreaker = new CircuitBreaker(key, state);
+                TRANSITIONS.onNext(circuitBreaker);
+            }
+        }
+
+        private CircuitBreaker.State currentState(boolean open) {
+            if (isForced(forceOpen, DEFAULT_FORCE_OPEN)) {
+                return CircuitBreaker.State.FORCED_OPEN;
+            } else if (isForced(forceClosed, DEFAULT_FORCE_CLOSED)) {
+                return CircuitBreaker.State.FORCED_CLOSED;
+            } else if (open && System.currentTimeMillis() < getHalfOpenAtMillis()) {
+                return CircuitBreaker.State.OPEN;
+            } else {
+                return CircuitBreaker.State.CLOSED;
+            }
+        }
+
+        private long getHalfOpenAtMillis() {
+            return lastTestedAtMillis + commandProperties.circuitBreakerSleepWindowInMilliseconds().get();
+        }
+    }
+
+    private CircuitBreakerStateCache() {}
+
+    /* Read the properties directly rather than through HystrixCommandProperties: its chained properties are updated by
+       Archaius callbacks of their own, which may not have run yet when ours do. */
+    private static boolean isForced(DynamicProperty keyProperty, DynamicProperty defaultProperty) {
+        final Boolean forced = keyProperty.getBoolean(null);
+        return forced != null ? forced : defaultProperty.getBoolean(false);
+    }
+
+    public static Observable<CircuitBreaker> transitions() {
+        return TRANSITIONS;
+    }
+
+    public static Optional<CircuitBreaker> get(TenacityPropertyKey key) {
+        return entry(key).map((entry) -> entry.circuitBreaker);
+    }
+
+    /**
+     * When the key's circuit was last seen to open, as precise as the health snapshot interval. Empty for a circuit
+     * that was already open when the key was first looked up, since when it opened isn't known.
+     */
+    public static Optional<Long> getOpenedAtMillis(TenacityPropertyKey key) {
+        return entry(key)
+                .filter((entry) -> entry.circuitBreaker.getState() == CircuitBreaker.State.OPEN
+                        || entry.circuitBreaker.getState() == CircuitBreaker.State.FORCED_OPEN)
+                .filter((entry) -> entry.openedAtKnown)
+                .map((entry) -> entry.openedAtMillis);
+    }
+
+    /**
+     * Tracks the keys that have executed now, and each of the others as soon as it first completes, so that
+     * transitions() covers all of them without anyone having to look them up first.
+     */
+    public static synchronized void watch(Collection<TenacityPropertyKey> keys) {
+        for (TenacityPropertyKey key : keys) {
+            final Subscription watching = WATCHED.get(key.name());
+            if ((watching == null || watching.isUnsubscribed()) && !entry(key).isPresent()) {
+                WATCHED.put(key.name(), HystrixCommandCompletionStream.getInstance(key)
+                        .observe()
+                        .first()
+                        .subscribe((completion) -> entry(key)));
+            }
+        }
+    }
+
+    /**
+     * Forgets every key, for when Hystrix is reset.
+     */
+    public static synchronized void reset() {
+        for (Subscription watching : WATCHED.values()) {
+            watching.unsubscribe();
+        }
+        WATCHED.clear();
+        for (Entry entry : ENTRIES.values()) {
+            entry.unsubscribe();
+        }
+        ENTRIES.clear();
+    }
+
+    private static Optional<Entry> entry(TenacityPropertyKey key) {
+        final Entry entry = ENTRIES.get(key.name());
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+        final HystrixCircuitBreaker hystrixCircuitBreaker = TenacityCommand.getCircuitBreaker(key);
+        if (hystrixCircuitBreaker == null) {
+            return Optional.empty();
+        }
+        return Optional.of(track(key, hystrixCircuitBreaker));
+    }
+
+    private static synchronized Entry track(TenacityPropertyKey key, HystrixCircuitBreaker hystrixCircuitBreaker) {
+        final Entry existing = ENTRIES.get(key.name());
+        if (existing != null) {
+            return existing;
+        }
+        watchForcedProperties(key);
+        final Entry entry = new Entry(key, hystrixCircuitBreaker);
+        ENTRIES.put(key.name(), entry);
+        entry.subscribe();
+        if (entry.circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            TRANSITIONS.onNext(entry.circuitBreaker);
+        }
+        return entry;
+    }
+    private static void watchForcedProperties(TenacityPropertyKey key) {
+        if (WATCHED_PROPERTIES.add(key.name())) {
+            final Runnable refresh = () -> refresh(key.name());
+            DynamicProperty.getInstance(TenacityPropertyRegister.circuitBreakerForceOpen(key)).addCallback(refresh);
+            DynamicProperty.getInstance(TenacityPropertyRegister.circuitBreakerForceClosed(key)).addCallback(refresh);
+        }
+    }
+
+    private static void refresh(String name) {
+        final Entry entry = ENTRIES.get(name);
+        if (entry != null) {
+            entry.refresh();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.yammer.tenacity.core.core;
+
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategyDefault;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariable;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableLifecycle;
+import com.netflix.hystrix.strategy.properties.HystrixProperty;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the per-key Hystrix thread pools. Keys configured with {@code virtualThreads} get a pool whose workers are
+ * virtual threads: the pool size still bounds how many commands run concurrently, and timeouts/interrupts behave
+ * exactly as they do for THREAD isolation, but idle and blocked workers no longer pin a platform thread and its stack.
+ *
+ * Virtual threads are looked up at runtime, so on a JVM without them the key silently keeps its platform thread pool.
+ *
+ * Commands run with the Deadline of the thread that executed them, so the commands they execute in turn inherit it.
+ *
+ * Everything else, including the thread pools of the other keys, is left to the strategy it wraps: the one that was
+ * registered with Hystrix before it (e.g. to propagate an MDC), or Hystrix's default.
+ */
+public class TenacityConcurrencyStrategy extends HystrixConcurrencyStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenacityConcurrencyStrategy.class);
+
+    private final HystrixConcurrencyStrategy delegate;
+
+    public TenacityConcurrencyStrategy() {
+        this(HystrixConcurrencyStrategyDefault.getInstance());
+    }
+
+    public TenacityConcurrencyStrategy(HystrixConcurrencyStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ThreadPoolExecutor getThreadPool(HystrixThreadPoolKey threadPoolKey, HystrixThreadPoolProperties threadPoolProperties) {
+        if (threadPoolKey instanceof TenacityPropertyKey
+                && TenacityPropertyStore.isVirtualThreads((TenacityPropertyKey) threadPoolKey)) {
+            final Optional<ThreadFactory> threadFactory = virtualThreadFactory("tenacity-" + threadPoolKey.name() + "-");
+            if (threadFactory.isPresent()) {
+                return virtualThreadPool(threadFactory.get(), threadPoolProperties);
+            }
+            LOGGER.warn("Virtual threads are not available on this JVM, {} will use platform threads", threadPoolKey.name());
+        }
+        return delegate.getThreadPool(threadPoolKey, threadPoolProperties);
+    }
+
+    @Override
+    public ThreadPoolExecutor getThreadPool(HystrixThreadPoolKey threadPoolKey,
+                                            HystrixProperty<Integer> corePoolSize,
+                                            HystrixProperty<Integer> maximumPoolSize,
+                                            HystrixProperty<Integer> keepAliveTime,
+                                            TimeUnit unit,
+                                            BlockingQueue<Runnable> workQueue) {
+        return delegate.getThreadPool(threadPoolKey, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
+    }
+
+    @Override
+    public BlockingQueue<Runnable> getBlockingQueue(int maxQueueSize) {
+        return delegate.getBlockingQueue(maxQueueSize);
+    }
+
+    @Override
+    public <T> Callable<T> wrapCallable(Callable<T> callable) {
+        return Deadline.propagate(delegate.wrapCallable(callable));
+    }
+
+    @Override
+    public <T> HystrixRequestVariable<T> getRequestVariable(HystrixRequestVariableLifecycle<T> rv) {
+        return delegate.getRequestVariable(rv);
+    }
+
+    public HystrixConcurrencyStrategy getDelegate() {
+        return delegate;
+    }
+
+    protected ThreadPoolExecutor virtualThreadPool(ThreadFactory threadFactory,
+                                                   HystrixThreadPoolProperties threadPoolProperties) {
+        final int concurrency = threadPoolProperties.coreSize().get();
+        final int keepAliveTimeMinutes = threadPoolProperties.keepAliveTimeMinutes().get();
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                keepAliveTimeMinutes,
+                TimeUnit.MINUTES,
+                getBlockingQueue(threadPoolProperties.maxQueueSize().get()),
+                threadFactory);
+        if (keepAliveTimeMinutes > 0) {
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+        }
+        return threadPoolExecutor;
+    }
+
+    public static boolean isVirtualThreadsAvailable() {
+        return virtualThreadFactory("tenacity-").isPresent();
+    }
+
+    private static Optional<ThreadFactory> virtualThreadFactory(String prefix) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Object namedBuilder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder));
+        } catch (ReflectiveOperationException | RuntimeException err) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.yammer.tenacity.core.core;
+
+import com.netflix.hystrix.HystrixCollapserMetrics;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import com.netflix.hystrix.strategy.eventnotifier.HystrixEventNotifier;
+import com.netflix.hystrix.strategy.executionhook.HystrixCommandExecutionHook;
+import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisher;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesStrategy;
+
+/**
+ * Registers TenacityConcurrencyStrategy and TenacityPropertiesStrategy with Hystrix on top of the strategies already
+ * registered, rather than in their place. When no strategy was registered yet Tenacity's are registered around Hystrix's
+ * defaults. Otherwise, as HystrixPlugins only takes one registration per plugin, the plugins are read, HystrixPlugins is
+ * reset, and they are registered again with Tenacity's strategies wrapping the previous ones.
+ *
+ * Resetting HystrixPlugins also resets the metrics publishers of the commands created so far, so it is refused once a
+ * command or collapser exists: register your own strategies before that, and before the bundle is initialized.
+ */
+public final class TenacityHystrixPlugins {
+    private TenacityHystrixPlugins() {}
+
+    public static synchronized void registerStrategies(boolean concurrency, boolean properties) {
+        final HystrixPlugins plugins = HystrixPlugins.getInstance();
+        final boolean wrapConcurrency = concurrency
+                && !register(() -> plugins.registerConcurrencyStrategy(new TenacityConcurrencyStrategy()))
+                && !(plugins.getConcurrencyStrategy() instanceof TenacityConcurrencyStrategy);
+        final boolean wrapProperties = properties
+                && !register(() -> plugins.registerPropertiesStrategy(new TenacityPropertiesStrategy()))
+                && !(plugins.getPropertiesStrategy() instanceof TenacityPropertiesStrategy);
+        if (!wrapConcurrency && !wrapProperties) {
+            return;
+        }
+        if (!HystrixCommandMetrics.getInstances().isEmpty() || !HystrixCollapserMetrics.getInstances().isEmpty()) {
+            throw new IllegalStateException("Unable to register Tenacity's Hystrix strategies around "
+                    + (wrapConcurrency ? plugins.getConcurrencyStrategy() : plugins.getPropertiesStrategy())
+                    + " after commands were created. Register it before any command runs, or register "
+                    + (wrapConcurrency ? TenacityConcurrencyStrategy.class : TenacityPropertiesStrategy.class).getSimpleName()
+                    + " around it yourself.");
+        }
+        final HystrixConcurrencyStrategy concurrencyStrategy = plugins.getConcurrencyStrategy();
+        final HystrixPropertiesStrategy propertiesStrategy = plugins.getPropertiesStrategy();
+        final HystrixEventNotifier eventNotifier = plugins.getEventNotifier();
+        final HystrixMetricsPublisher metricsPublisher = plugins.getMetricsPublisher();
+        final HystrixCommandExecutionHook executionHook = plugins.getCommandExecutionHook();
+
+        HystrixPlugins.reset();
+        HystrixPlugins.getInstance().registerConcurrencyStrategy(wrapConcurrency
+                ? new TenacityConcurrencyStrategy(concurrencyStrategy)
+                : concurrencyStrategy);
+        HystrixPlugins.getInstance().registerPropertiesStrategy(wrapProperties
+                ? new TenacityPropertiesStrategy(propertiesStrategy)
+                : propertiesStrategy);
+        HystrixPlugins.getInstance().registerEventNotifier(eventNotifier);
+        HystrixPlugins.getInstance().registerMetricsPublisher(metricsPublisher);
+        HystrixPlugins.getInstance().registerCommandExecutionHook(executionHook);
+    }
+
+    /* HystrixPlugins throws IllegalStateException when the plugin was registered (or looked up) already */
+    private static boolean register(Runnable registration) {
+        try {
+            registration.run();
+            return true;
+        } catch (IllegalStateException err) {
+            return false;
+        }
+    }
+}
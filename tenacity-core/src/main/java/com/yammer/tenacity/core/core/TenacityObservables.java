@@ -2,6 +2,13 @@ package com.yammer.tenacity.core.core;
 
 import com.netflix.hystrix.HystrixObservable;
 import rx.Observable;
+import rx.subscriptions.SerialSubscription;
+import rx.subscriptions.Subscriptions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 public class TenacityObservables {
     private TenacityObservables() {}
@@ -28,4 +35,46 @@ public class TenacityObservables {
                                                   Observable<R> secondary) {
         return execute(primary.observe(), secondary);
     }
-}
\ No newline at end of file
+
+    /**
+     * A lazy Observable of the stage returned by the supplier. Unsubscribing (e.g. when Hystrix times the command out)
+     * cancels the stage, in case the client behind it supports cancellation.
+     */
+    public static <R> Observable<R> fromCompletionStage(Supplier<? extends CompletionStage<R>> supplier) {
+        return Observable.create((subscriber) -> {
+            final CompletableFuture<R> future = supplier.get().toCompletableFuture();
+            final CompletableFuture<R> delivered = future.whenComplete((result, err) -> {
+                if (err != null) {
+                    subscriber.onError(err instanceof CompletionException && err.getCause() != null ? err.getCause() : err);
+                } else {
+                    subscriber.onNext(result);
+                    subscriber.onCompleted();
+                }
+            });
+            /* A cancelled delivery stage no longer runs, so a late result can't reach an unsubscribed subscriber */
+            subscriber.add(Subscriptions.create(() -> {
+                delivered.cancel(false);
+                future.cancel(false);
+            }));
+        });
+    }
+
+    /**
+     * Subscribes to an Observable of a single item and completes the returned future with it. Cancelling the future
+     * unsubscribes.
+     */
+    public static <R> CompletableFuture<R> toCompletableFuture(Observable<R> observable) {
+        final SerialSubscription subscription = new SerialSubscription();
+        final CompletableFuture<R> future = new CompletableFuture<R>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                subscription.unsubscribe();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        subscription.set(observable
+                .single()
+                .subscribe(future::complete, future::completeExceptionally));
+        return future;
+    }
+}
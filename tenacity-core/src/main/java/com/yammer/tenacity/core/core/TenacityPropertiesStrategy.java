@@ -0,0 +1,235 @@
+package com.yammer.tenacity.core.core;
+
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserProperties;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.HystrixTimerThreadPoolProperties;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesStrategy;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesStrategyDefault;
+import com.netflix.hystrix.strategy.properties.HystrixProperty;
+import com.yammer.tenacity.core.deadline.Deadline;
+
+import java.util.Optional;
+
+/**
+ * Gives each key command properties whose execution timeout is min(the key's timeout, the time remaining until the
+ * Deadline of the thread reading it). Hystrix reads the timeout on the thread that subscribes to a command, and
+ * TenacityCommand and TenacityObservableCommand subscribe with the Deadline they were created under, so Hystrix times
+ * them out (and falls back) once the caller has given up. Hystrix caches the properties per key as usual, so there is
+ * one instance per key whatever the deadlines.
+ *
+ * Everything else is read from the strategy it wraps: the one that was registered with Hystrix before it, or Hystrix's
+ * default.
+ */
+public class TenacityPropertiesStrategy extends HystrixPropertiesStrategy {
+    private final HystrixPropertiesStrategy delegate;
+
+    public TenacityPropertiesStrategy() {
+        this(HystrixPropertiesStrategyDefault.getInstance());
+    }
+
+    public TenacityPropertiesStrategy(HystrixPropertiesStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public HystrixCommandProperties getCommandProperties(HystrixCommandKey commandKey,
+                                                         HystrixCommandProperties.Setter builder) {
+        return new DeadlineCommandProperties(commandKey, delegate.getCommandProperties(commandKey, builder));
+    }
+
+    @Override
+    public String getCommandPropertiesCacheKey(HystrixCommandKey commandKey, HystrixCommandProperties.Setter builder) {
+        return delegate.getCommandPropertiesCacheKey(commandKey, builder);
+    }
+
+    @Override
+    public HystrixThreadPoolProperties getThreadPoolProperties(HystrixThreadPoolKey threadPoolKey,
+                                                               HystrixThreadPoolProperties.Setter builder) {
+        return delegate.getThreadPoolProperties(threadPoolKey, builder);
+    }
+
+    @Override
+    public String getThreadPoolPropertiesCacheKey(HystrixThreadPoolKey threadPoolKey,
+                                                  HystrixThreadPoolProperties.Setter builder) {
+        return delegate.getThreadPoolPropertiesCacheKey(threadPoolKey, builder);
+    }
+
+    @Override
+    public HystrixCollapserProperties getCollapserProperties(HystrixCollapserKey collapserKey,
+                                                             HystrixCollapserProperties.Setter builder) {
+        return delegate.getCollapserProperties(collapserKey, builder);
+    }
+
+    @Override
+    public String getCollapserPropertiesCacheKey(HystrixCollapserKey collapserKey,
+                                                 HystrixCollapserProperties.Setter builder) {
+        return delegate.getCollapserPropertiesCacheKey(collapserKey, builder);
+    }
+
+    @Override
+    public HystrixTimerThreadPoolProperties getTimerThreadPoolProperties() {
+        return delegate.getTimerThreadPoolProperties();
+    }
+
+    public HystrixPropertiesStrategy getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * The wrapped strategy's properties for the key, but for the execution timeout.
+     */
+    private static class DeadlineCommandProperties extends HystrixCommandProperties {
+        private final HystrixCommandProperties properties;
+        private final HystrixProperty<Integer> executionTimeoutInMilliseconds;
+
+        private DeadlineCommandProperties(HystrixCommandKey commandKey, HystrixCommandProperties properties) {
+            super(commandKey);
+            this.properties = properties;
+            final HystrixProperty<Integer> keyTimeout = properties.executionTimeoutInMilliseconds();
+            this.executionTimeoutInMilliseconds = () -> {
+                final int timeout = keyTimeout.get();
+                final Optional<Deadline> deadline = Deadline.current();
+                //Hystrix's timer rejects a zero delay, so an expired deadline times out after a millisecond
+                return deadline.isPresent()
+                        ? (int) Math.max(1, Math.min(timeout, deadline.get().getRemainingMillis()))
+                        : timeout;
+            };
+        }
+
+        @Override
+        public HystrixProperty<Integer> executionTimeoutInMilliseconds() {
+            return executionTimeoutInMilliseconds;
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public HystrixProperty<Integer> executionIsolationThreadTimeoutInMilliseconds() {
+            return executionTimeoutInMilliseconds;
+        }
+
+        @Override
+        public HystrixProperty<Boolean> circuitBreakerEnabled() {
+            return properties.circuitBreakerEnabled();
+        }
+
+        @Override
+        public HystrixProperty<Integer> circuitBreakerErrorThresholdPercentage() {
+            return properties.circuitBreakerErrorThresholdPercentage();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> circuitBreakerForceClosed() {
+            return properties.circuitBreakerForceClosed();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> circuitBreakerForceOpen() {
+            return properties.circuitBreakerForceOpen();
+        }
+
+        @Override
+        public HystrixProperty<Integer> circuitBreakerRequestVolumeThreshold() {
+            return properties.circuitBreakerRequestVolumeThreshold();
+        }
+
+        @Override
+        public HystrixProperty<Integer> circuitBreakerSleepWindowInMilliseconds() {
+            return properties.circuitBreakerSleepWindowInMilliseconds();
+        }
+
+        @Override
+        public HystrixProperty<Integer> executionIsolationSemaphoreMaxConcurrentRequests() {
+            return properties.executionIsolationSemaphoreMaxConcurrentRequests();
+        }
+
+        @Override
+        public HystrixProperty<ExecutionIsolationStrategy> executionIsolationStrategy() {
+            return properties.executionIsolationStrategy();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> executionIsolationThreadInterruptOnTimeout() {
+            return properties.executionIsolationThreadInterruptOnTimeout();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> executionIsolationThreadInterruptOnFutureCancel() {
+            return properties.executionIsolationThreadInterruptOnFutureCancel();
+        }
+
+        @Override
+        public HystrixProperty<String> executionIsolationThreadPoolKeyOverride() {
+            return properties.executionIsolationThreadPoolKeyOverride();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> executionTimeoutEnabled() {
+            return properties.executionTimeoutEnabled();
+        }
+
+        @Override
+        public HystrixProperty<Integer> fallbackIsolationSemaphoreMaxConcurrentRequests() {
+            return properties.fallbackIsolationSemaphoreMaxConcurrentRequests();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> fallbackEnabled() {
+            return properties.fallbackEnabled();
+        }
+
+        @Override
+        public HystrixProperty<Integer> metricsHealthSnapshotIntervalInMilliseconds() {
+            return properties.metricsHealthSnapshotIntervalInMilliseconds();
+        }
+
+        @Override
+        public HystrixProperty<Integer> metricsRollingPercentileBucketSize() {
+            return properties.metricsRollingPercentileBucketSize();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> metricsRollingPercentileEnabled() {
+            return properties.metricsRollingPercentileEnabled();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public HystrixProperty<Integer> metricsRollingPercentileWindow() {
+            return properties.metricsRollingPercentileWindow();
+        }
+
+        @Override
+        public HystrixProperty<Integer> metricsRollingPercentileWindowInMilliseconds() {
+            return properties.metricsRollingPercentileWindowInMilliseconds();
+        }
+
+        @Override
+        public HystrixProperty<Integer> metricsRollingPercentileWindowBuckets() {
+            return properties.metricsRollingPercentileWindowBuckets();
+        }
+
+        @Override
+        public HystrixProperty<Integer> metricsRollingStatisticalWindowInMilliseconds() {
+            return properties.metricsRollingStatisticalWindowInMilliseconds();
+        }
+
+        @Override
+        public HystrixProperty<Integer> metricsRollingStatisticalWindowBuckets() {
+            return properties.metricsRollingStatisticalWindowBuckets();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> requestCacheEnabled() {
+            return properties.requestCacheEnabled();
+        }
+
+        @Override
+        public HystrixProperty<Boolean> requestLogEnabled() {
+            return properties.requestLogEnabled();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.yammer.tenacity.core.core;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that is refilled by normal requests rather than by time: every deposit adds ratio tokens, up to
+ * maxTokens, and every extra request (a hedge, a retry) has to withdraw a whole token. With a ratio of 0.1 extra
+ * requests can't add more than 10% to a dependency's load, however badly it is doing.
+ */
+public class TokenBudget {
+    private static final long SCALE = 1000;
+
+    private final double ratio;
+    private final int maxTokens;
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public TokenBudget(double ratio, int maxTokens) {
+        if (ratio < 0.0 || maxTokens < 0) {
+            throw new IllegalArgumentException("ratio and maxTokens must not be negative");
+        }
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.deposit = Math.round(ratio * SCALE);
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(maxBalance, current + amount));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            final long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    public double getBalance() {
+        return (double) balance.get() / SCALE;
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("ratio", ratio)
+                .add("maxTokens", maxTokens)
+                .add("balance", getBalance())
+                .toString();
+    }
+}
@@ -0,0 +1,147 @@
+package com.yammer.tenacity.core.deadline;
+
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+import rx.Observable;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The point in time after which whoever is waiting on the current request has given up. A deadline attached to a
+ * thread is inherited by the TenacityCommands created on it, which are subscribed to with it attached, and by the
+ * threads they run on when TenacityConcurrencyStrategy is registered: with TenacityPropertiesStrategy registered their
+ * execution timeout becomes min(the key's timeout, the time remaining). TenacityWebTarget forwards the time remaining to downstream services in
+ * the {@link #HEADER} header, and DeadlineFilter attaches it to the requests they serve when the bundle is built
+ * withDeadlinePropagation().
+ */
+public final class Deadline {
+    public static final String HEADER = "Tenacity-Deadline-Millis";
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return after(timeout.getQuantity(), timeout.getUnit());
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        //nanoTime() differences only compare correctly below 2^63, so absurdly far deadlines are brought in to 2^62
+        return new Deadline(System.nanoTime() + Math.min(unit.toNanos(timeout), Long.MAX_VALUE / 2));
+    }
+
+    /**
+     * @return the deadline in a {@link #HEADER} header value, or empty when it is missing or malformed
+     */
+    public static Optional<Deadline> fromHeader(String value) {
+        return fromHeader(value, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the deadline in a {@link #HEADER} header value, at most maxMillis from now, or empty when it is missing
+     * or malformed
+     */
+    public static Optional<Deadline> fromHeader(String value, long maxMillis) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            final long remainingMillis = Long.parseLong(value.trim());
+            return remainingMillis < 0
+                    ? Optional.empty()
+                    : Optional.of(after(Math.min(remainingMillis, maxMillis), TimeUnit.MILLISECONDS));
+        } catch (NumberFormatException err) {
+            return Optional.empty();
+        }
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Runs the supplier with deadline attached, or as is when there is none.
+     */
+    public static <T> T within(Optional<Deadline> deadline, Supplier<T> supplier) {
+        if (!deadline.isPresent()) {
+            return supplier.get();
+        }
+        try (Scope ignored = deadline.get().attach()) {
+            return supplier.get();
+        }
+    }
+
+    /**
+     * @return observable subscribed to with deadline attached, or as is when there is none
+     */
+    public static <T> Observable<T> within(Optional<Deadline> deadline, Observable<T> observable) {
+        if (!deadline.isPresent()) {
+            return observable;
+        }
+        return Observable.create((subscriber) -> {
+            try (Scope ignored = deadline.get().attach()) {
+                observable.unsafeSubscribe(subscriber);
+            }
+        });
+    }
+
+    /**
+     * @return callable running with the current thread's deadline, whichever thread ends up calling it
+     */
+    public static <T> Callable<T> propagate(Callable<T> callable) {
+        final Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return callable;
+        }
+        return () -> {
+            try (Scope ignored = deadline.attach()) {
+                return callable.call();
+            }
+        };
+    }
+
+    /**
+     * Makes this the current thread's deadline until the returned scope is closed.
+     */
+    public Scope attach() {
+        final Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public long getRemainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public String toHeader() {
+        return String.valueOf(getRemainingMillis());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("remainingMillis", getRemainingMillis())
+                .toString();
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,69 @@
+package com.yammer.tenacity.core.deadline;
+
+import com.google.common.collect.ImmutableList;
+import com.yammer.tenacity.core.properties.TenacityExecutionTimeout;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Attaches the deadline a caller sent in the {@link Deadline#HEADER} header to the thread serving its request, so the
+ * TenacityCommands it executes don't outlive the caller's interest in the response. The header is capped at the
+ * longest execution timeout of the keys, which is as long as any command could take anyway.
+ *
+ * Whoever sends the header decides how long the commands serving its request may take, down to failing them all
+ * straight away, so only install this in front of trusted internal callers.
+ */
+public class DeadlineFilter implements Filter {
+    private final ImmutableList<TenacityExecutionTimeout> timeouts;
+
+    public DeadlineFilter(Iterable<TenacityPropertyKey> keys) {
+        final ImmutableList.Builder<TenacityExecutionTimeout> timeouts = ImmutableList.builder();
+        for (TenacityPropertyKey key : keys) {
+            timeouts.add(TenacityExecutionTimeout.of(key));
+        }
+        this.timeouts = timeouts.build();
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        final Optional<Deadline> deadline = request instanceof HttpServletRequest
+                ? Deadline.fromHeader(((HttpServletRequest) request).getHeader(Deadline.HEADER), getMaxMillis())
+                : Optional.empty();
+        if (!deadline.isPresent()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (Deadline.Scope ignored = deadline.get().attach()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private long getMaxMillis() {
+        if (timeouts.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        int maxMillis = 0;
+        for (TenacityExecutionTimeout timeout : timeouts) {
+            maxMillis = Math.max(maxMillis, timeout.getTimeoutInMillis());
+        }
+        return maxMillis;
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,119 @@
+package com.yammer.tenacity.core.errors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.core.CircuitBreaker;
+import com.yammer.tenacity.core.core.CircuitBreakerStateCache;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates when a key that failed fast will take work again, for the Retry-After header of the responses
+ * TenacityExceptionMapper makes of its failures:
+ *
+ * - short-circuited: what is left of circuitBreaker.sleepWindowInMillis since the circuit opened, after which Hystrix
+ *   lets a probe through. A forced-open circuit, or one that was already open when Tenacity first looked at its key
+ *   (so when it opened isn't known), is given the whole window.
+ * - rejected: how long the key takes to work through its queue at its concurrency limit, i.e.
+ *   (queued + 1) * mean execution time / limit.
+ *
+ * The key is that of the TenacityCommand or TenacityObservableCommand that failed with the exception. Failures of
+ * other commands, and of keys that have not run here yet, are estimated at a second.
+ */
+public final class RetryAfter {
+    private static final long MINIMUM_SECONDS = 1;
+    /* Weak identity keys; concurrent, as every failure of every key goes through it and they come fastest under load */
+    private static final Cache<Throwable, TenacityPropertyKey> FAILED_KEYS = CacheBuilder.newBuilder().weakKeys().build();
+
+    private RetryAfter() {}
+
+    /**
+     * Remembers which key failed with the exception, for as long as the exception is around.
+     */
+    public static void failed(HystrixCommandKey key, Throwable exception) {
+        if (key instanceof TenacityPropertyKey
+                && exception instanceof HystrixRuntimeException
+                && isFailingFast((HystrixRuntimeException) exception)) {
+            FAILED_KEYS.put(exception, (TenacityPropertyKey) key);
+        }
+    }
+
+    private static boolean isFailingFast(HystrixRuntimeException exception) {
+        switch (exception.getFailureType()) {
+            case SHORTCIRCUIT:
+            case REJECTED_THREAD_EXECUTION:
+            case REJECTED_SEMAPHORE_EXECUTION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static Optional<Long> seconds(HystrixRuntimeException exception) {
+        switch (exception.getFailureType()) {
+            case SHORTCIRCUIT:
+                return Optional.of(toSeconds(keyOf(exception)
+                        .map((key) -> shortCircuitedMillis(key, System.currentTimeMillis()))
+                        .orElse(0L)));
+            case REJECTED_THREAD_EXECUTION:
+            case REJECTED_SEMAPHORE_EXECUTION:
+                return Optional.of(toSeconds(keyOf(exception)
+                        .map(RetryAfter::rejectedMillis)
+                        .orElse(0L)));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static long shortCircuitedMillis(TenacityPropertyKey key, long nowMillis) {
+        final long sleepWindowMillis = TenacityCommand.getCommandProperties(key)
+                .circuitBreakerSleepWindowInMilliseconds().get();
+        if (sleepWindowMillis <= 0) {
+            return 0;
+        }
+        final Optional<Long> openedAtMillis = CircuitBreakerStateCache.get(key)
+                .filter((circuitBreaker) -> circuitBreaker.getState() == CircuitBreaker.State.OPEN)
+                .flatMap((circuitBreaker) -> CircuitBreakerStateCache.getOpenedAtMillis(key));
+        if (!openedAtMillis.isPresent()) {
+            return sleepWindowMillis;
+        }
+        /* A failed probe opens the circuit for another window without the state ever leaving OPEN */
+        final long openMillis = Math.max(0, nowMillis - openedAtMillis.get());
+        return sleepWindowMillis - openMillis % sleepWindowMillis;
+    }
+
+    private static long rejectedMillis(TenacityPropertyKey key) {
+        final HystrixCommandMetrics commandMetrics = TenacityCommand.getCommandMetrics(key);
+        if (commandMetrics == null) {
+            return 0;
+        }
+        final long queued;
+        if (TenacityCommand.getCommandProperties(key).executionIsolationStrategy().get()
+                == HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE) {
+            queued = 0;
+        } else {
+            final HystrixThreadPoolMetrics threadPoolMetrics = TenacityCommand.getThreadpoolMetrics(key);
+            queued = threadPoolMetrics == null ? 0 : threadPoolMetrics.getCurrentQueueSize().longValue();
+        }
+        final int limit = Math.max(1, AdaptiveConcurrencyLimiter.getLimit(key));
+        return (queued + 1) * commandMetrics.getExecutionTimeMean() / limit;
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(MINIMUM_SECONDS, (millis + TimeUnit.SECONDS.toMillis(1) - 1) / TimeUnit.SECONDS.toMillis(1));
+    }
+
+    private static Optional<TenacityPropertyKey> keyOf(HystrixRuntimeException exception) {
+        final TenacityPropertyKey key = FAILED_KEYS.getIfPresent(exception);
+        return key == null || TenacityCommand.getCommandMetrics(key) == null ? Optional.empty() : Optional.of(key);
+    }
+}
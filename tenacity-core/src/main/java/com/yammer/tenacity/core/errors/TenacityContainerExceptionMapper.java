@@ -1,5 +1,6 @@
 package com.yammer.tenacity.core.errors;
 
+import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.glassfish.jersey.server.ContainerException;
 
 import javax.ws.rs.core.Response;
@@ -24,7 +25,7 @@ public class TenacityContainerExceptionMapper implements ExceptionMapper<Contain
     @Override
     public Response toResponse(ContainerException exception) {
         if (TenacityExceptionMapper.isTenacityException(exception.getCause())) {
-            return Response.status(statusCode).build();
+            return TenacityExceptionMapper.tenacityResponse(statusCode, (HystrixRuntimeException) exception.getCause());
         } else {
             return Response.serverError().build();
         }
@@ -4,10 +4,12 @@ import com.netflix.hystrix.exception.HystrixRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
 import java.net.SocketTimeoutException;
 import java.util.Objects;
+import java.util.Optional;
 
 public class TenacityExceptionMapper implements ExceptionMapper<HystrixRuntimeException> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TenacityExceptionMapper.class);
@@ -50,11 +52,27 @@ public class TenacityExceptionMapper implements ExceptionMapper<HystrixRuntimeEx
         }
     }
 
+    /**
+     * How long a client should wait before retrying work that failed fast, as estimated by RetryAfter: the rest of the
+     * circuit breaker's sleep window for short-circuited commands, the time to drain the queue for rejected ones.
+     */
+    public static Optional<Long> retryAfterSeconds(HystrixRuntimeException exception) {
+        return RetryAfter.seconds(exception);
+    }
+
+    static Response tenacityResponse(int statusCode, HystrixRuntimeException exception) {
+        final Response.ResponseBuilder response = Response.status(statusCode);
+        if (statusCode == 429 || statusCode == Response.Status.SERVICE_UNAVAILABLE.getStatusCode()) {
+            retryAfterSeconds(exception).ifPresent((seconds) -> response.header(HttpHeaders.RETRY_AFTER, seconds));
+        }
+        return response.build();
+    }
+
     @Override
     public Response toResponse(HystrixRuntimeException exception) {
         if (isTenacityException(exception)) {
             LOGGER.debug("Unhandled HystrixRuntimeException", exception);
-            return Response.status(statusCode).build(); //TODO: Retry-After for 429
+            return tenacityResponse(statusCode, exception);
         }
 
         LOGGER.warn("HystrixRuntimeException is not mappable to a status code: {}", exception);
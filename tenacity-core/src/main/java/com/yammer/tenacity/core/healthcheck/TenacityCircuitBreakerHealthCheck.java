@@ -4,11 +4,11 @@ import com.codahale.metrics.health.HealthCheck;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Collections2;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.yammer.tenacity.core.core.CircuitBreaker;
 import com.yammer.tenacity.core.core.CircuitBreakers;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyKeyRegistry;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -17,11 +17,11 @@ public class TenacityCircuitBreakerHealthCheck extends HealthCheck {
     protected Collection<TenacityPropertyKey> propertyKeys;
 
     public TenacityCircuitBreakerHealthCheck(TenacityPropertyKey... propertyKeys) {
-        this(ImmutableList.copyOf(propertyKeys));
+        this(TenacityPropertyKeyRegistry.of(propertyKeys));
     }
 
     public TenacityCircuitBreakerHealthCheck(Iterable<TenacityPropertyKey> propertyKeys) {
-        this.propertyKeys = ImmutableList.copyOf(propertyKeys);
+        this.propertyKeys = TenacityPropertyKeyRegistry.of(propertyKeys);
     }
 
     public String getName() {
@@ -0,0 +1,56 @@
+package com.yammer.tenacity.core.hedging;
+
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+/**
+ * When to send a second attempt: once the primary has been running for longer than the key's execution time at
+ * percentile (but never sooner than minDelay, which also covers keys without latency data yet), as long as the key's
+ * hedge budget allows it. See Hedging.
+ */
+public class HedgePolicy {
+    private final double percentile;
+    private final Duration minDelay;
+    private final double budgetRatio;
+    private final int maxBudget;
+
+    public HedgePolicy(double percentile) {
+        this(percentile, Duration.milliseconds(10), 0.1, 10);
+    }
+
+    public HedgePolicy(double percentile, Duration minDelay, double budgetRatio, int maxBudget) {
+        if (percentile <= 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]");
+        }
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("percentile", percentile)
+                .add("minDelay", minDelay)
+                .add("budgetRatio", budgetRatio)
+                .add("maxBudget", maxBudget)
+                .toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.yammer.tenacity.core.hedging;
+
+import com.netflix.hystrix.HystrixCircuitBreaker;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixInvokableInfo;
+import com.netflix.hystrix.HystrixObservable;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.core.TokenBudget;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.shedding.LoadShedder;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Races a primary command against a hedge that is only started if the primary is slow, taking whichever finishes first
+ * and unsubscribing from (i.e. cancelling) the other. A TenacityCommand that loses is interrupted, so that it doesn't
+ * hold on to a thread of the key's pool.
+ *
+ * A hedge is an ordinary execution of the key, so it goes through the key's threadpool or semaphore, but it should be
+ * built without a fallback: a hedge that fails or is rejected is dropped and the primary's result is used. The
+ * primary's fallback doesn't take part in the race: when the primary falls back while a hedge is running, the hedge
+ * is waited for, and the fallback is only used if the hedge fails too. No hedge is sent once the primary has failed,
+ * while the circuit is open or while the key is at its concurrency limit, and every hedge costs a token from the key's
+ * budget, which primaries refill; the first policy used with a key sizes its budget.
+ */
+public class Hedging {
+    private static final ConcurrentMap<String, TokenBudget> BUDGETS = new ConcurrentHashMap<>();
+    private static final int PENDING = 0;
+    private static final int HEDGING = 1;
+    private static final int DONE = 2;
+
+    private Hedging() {}
+
+    public static <R, C extends HystrixObservable<R> & HystrixInvokableInfo<R>> Observable<R> hedge(
+            TenacityPropertyKey key,
+            HedgePolicy policy,
+            Supplier<? extends C> primary,
+            Supplier<? extends C> hedge) {
+        return Observable.defer(() -> {
+            final TokenBudget budget = BUDGETS.computeIfAbsent(key.name(),
+                    (name) -> new TokenBudget(policy.getBudgetRatio(), policy.getMaxBudget()));
+            budget.deposit();
+
+            /* Completes once there is no hedge left that could win */
+            final AtomicInteger hedging = new AtomicInteger(PENDING);
+            final AsyncSubject<R> noHedge = AsyncSubject.create();
+            final Runnable hedgeDone = () -> {
+                if (hedging.getAndSet(DONE) != DONE) {
+                    noHedge.onCompleted();
+                }
+            };
+
+            final C primaryCommand = primary.get();
+            final Observable<R> primaryResponses = toObservable(primaryCommand)
+                    .concatMap((response) -> isFallingBack(primaryCommand)
+                            ? afterHedge(hedging, noHedge, Observable.just(response))
+                            : Observable.just(response))
+                    .onErrorResumeNext((err) -> afterHedge(hedging, noHedge, Observable.<R>error(err)));
+
+            /* io rather than computation: a semaphore isolated TenacityCommand runs on the thread that subscribes */
+            final Observable<R> hedged = Observable
+                    .timer(delayInMillis(key, policy), TimeUnit.MILLISECONDS, Schedulers.io())
+                    .flatMap((tick) -> {
+                        if (!hedging.compareAndSet(PENDING, HEDGING)) {
+                            return Observable.<R>never();
+                        }
+                        if (!canHedge(key) || !budget.tryWithdraw()) {
+                            hedgeDone.run();
+                            return Observable.<R>never();
+                        }
+                        return toObservable(hedge.get()).onErrorResumeNext((err) -> {
+                            hedgeDone.run();
+                            return Observable.never();
+                        });
+                    })
+                    .doOnUnsubscribe(hedgeDone::run);
+            return Observable.amb(primaryResponses, hedged);
+        });
+    }
+
+    /**
+     * Forgets every key's budget, for when Hystrix is reset.
+     */
+    public static void reset() {
+        BUDGETS.clear();
+    }
+
+    public static Optional<TokenBudget> getBudget(TenacityPropertyKey key) {
+        return Optional.ofNullable(BUDGETS.get(key.name()));
+    }
+
+    private static long delayInMillis(TenacityPropertyKey key, HedgePolicy policy) {
+        final HystrixCommandMetrics metrics = TenacityCommand.getCommandMetrics(key);
+        final long percentile = metrics == null ? 0 : metrics.getExecutionTimePercentile(policy.getPercentile());
+        return Math.max(policy.getMinDelay().toMilliseconds(), percentile);
+    }
+
+    private static boolean canHedge(TenacityPropertyKey key) {
+        final HystrixCircuitBreaker circuitBreaker = TenacityCommand.getCircuitBreaker(key);
+        if (circuitBreaker != null && circuitBreaker.isOpen()) {
+            return false;
+        }
+        final HystrixCommandMetrics metrics = TenacityCommand.getCommandMetrics(key);
+        return metrics == null || metrics.getCurrentConcurrentExecutionCount() < AdaptiveConcurrencyLimiter.getLimit(key);
+    }
+
+    /* The primary failed: no hedge may start any more, and the response waits for one that is running */
+    private static <R> Observable<R> afterHedge(AtomicInteger hedging, AsyncSubject<R> noHedge, Observable<R> response) {
+        if (hedging.compareAndSet(PENDING, DONE)) {
+            noHedge.onCompleted();
+        }
+        return noHedge.concatWith(response);
+    }
+
+    private static boolean isFallingBack(HystrixInvokableInfo<?> command) {
+        return command.isFailedExecution()
+                || command.isResponseTimedOut()
+                || command.isResponseShortCircuited()
+                || command.isResponseRejected()
+                || LoadShedder.isShed(command);
+    }
+
+    private static <R> Observable<R> toObservable(HystrixObservable<R> command) {
+        if (command instanceof TenacityCommand) {
+            final TenacityCommand<?> tenacityCommand = (TenacityCommand<?>) command;
+            return command.toObservable().doOnUnsubscribe(tenacityCommand::interruptRun);
+        }
+        return command.toObservable();
+    }
+}
@@ -1,7 +1,8 @@
 package com.yammer.tenacity.core.http;
 
 import com.google.common.primitives.Ints;
-import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.properties.TenacityExecutionTimeout;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
 import io.dropwizard.util.Duration;
 import org.glassfish.jersey.client.ClientProperties;
@@ -14,25 +15,39 @@ import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 public class TenacityWebTarget implements WebTarget {
     private final WebTarget delegate;
     protected final TenacityPropertyKey tenacityPropertyKey;
     protected final Duration timeoutPadding;
+    private final TenacityExecutionTimeout executionTimeout;
 
 
     public TenacityWebTarget(WebTarget delegate, TenacityPropertyKey tenacityPropertyKey, Duration timeoutPadding) {
         this.delegate = delegate;
         this.tenacityPropertyKey = tenacityPropertyKey;
         this.timeoutPadding = timeoutPadding;
+        this.executionTimeout = TenacityExecutionTimeout.of(tenacityPropertyKey);
     }
 
 
+    /**
+     * The request gets the key's timeout, or the time remaining until the current Deadline if that is sooner. With a
+     * Deadline, that is passed on in the Deadline header so the service it calls stops working on it when we stop
+     * waiting.
+     */
     protected void setTimeoutWithTenacity(Invocation.Builder builder) {
-        builder.property(ClientProperties.READ_TIMEOUT, Ints.checkedCast(TenacityCommand
-                        .getCommandProperties(tenacityPropertyKey)
-                        .executionTimeoutInMilliseconds()
-                        .get() + timeoutPadding.toMilliseconds()));
+        final Optional<Deadline> deadline = Deadline.current();
+        final long timeoutInMillis = deadline.isPresent()
+                ? Math.min(executionTimeout.getTimeoutInMillis(), deadline.get().getRemainingMillis())
+                : executionTimeout.getTimeoutInMillis();
+        //a read timeout of zero is infinite
+        builder.property(ClientProperties.READ_TIMEOUT, Ints.checkedCast(
+                Math.max(1, timeoutInMillis + timeoutPadding.toMilliseconds())));
+        if (deadline.isPresent()) {
+            builder.header(Deadline.HEADER, timeoutInMillis);
+        }
     }
 
     @Override
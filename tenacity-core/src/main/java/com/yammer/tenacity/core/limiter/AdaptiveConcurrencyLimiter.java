@@ -0,0 +1,226 @@
+package com.yammer.tenacity.core.limiter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.config.ConcurrentCompositeConfiguration;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixEventType;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.AdaptiveLimitConfiguration;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.util.Duration;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically tunes the concurrency limit of every key that has an adaptive limit configured. The limit is the
+ * threadpool core size for THREAD isolation and the semaphore size for SEMAPHORE isolation; both are dynamic properties
+ * so Hystrix picks up the new value on the next execution, and anything reading the configuration (such as
+ * TenacityConfigurationResource) sees the limit that is currently in effect.
+ *
+ * The limit is written as an override property, above every configuration: while a key's adaptive limit is enabled
+ * the limiter wins over Breakerbox and local override files, which only provide the limit it starts from. Disabling
+ * the adaptive limit, or stopping the limiter, removes the override so the configured limit applies again.
+ */
+public class AdaptiveConcurrencyLimiter implements Managed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static class KeyState {
+        private final AdaptiveLimitConfiguration.Algorithm algorithmType;
+        private final LimitAlgorithm algorithm;
+        private long requests;
+        private long timeouts;
+        private long rejections;
+
+        private KeyState(AdaptiveLimitConfiguration configuration) {
+            this.algorithmType = configuration.getAlgorithm();
+            this.algorithm = configuration.getAlgorithm() == AdaptiveLimitConfiguration.Algorithm.GRADIENT
+                    ? new GradientLimitAlgorithm(configuration.getSmoothing())
+                    : new AimdLimitAlgorithm(configuration.getBackoffRatio());
+        }
+
+        private LimitSample sample(HystrixCommandMetrics metrics) {
+            final long currentTimeouts = metrics.getCumulativeCount(HystrixEventType.TIMEOUT);
+            final long currentRejections = metrics.getCumulativeCount(HystrixEventType.THREAD_POOL_REJECTED)
+                    + metrics.getCumulativeCount(HystrixEventType.SEMAPHORE_REJECTED);
+            final long currentRequests = metrics.getCumulativeCount(HystrixEventType.SUCCESS)
+                    + metrics.getCumulativeCount(HystrixEventType.FAILURE)
+                    + metrics.getCumulativeCount(HystrixEventType.BAD_REQUEST)
+                    + currentTimeouts
+                    + currentRejections;
+
+            final LimitSample sample = new LimitSample(
+                    currentRequests - requests,
+                    currentTimeouts - timeouts,
+                    currentRejections - rejections,
+                    (int) metrics.getRollingMaxConcurrentExecutions(),
+                    metrics.getExecutionTimeMean());
+            requests = currentRequests;
+            timeouts = currentTimeouts;
+            rejections = currentRejections;
+            return sample;
+        }
+    }
+
+    protected final Collection<TenacityPropertyKey> keys;
+    protected final Duration interval;
+    private final Map<String, KeyState> states = new ConcurrentHashMap<>();
+    private final Map<String, String> overrides = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> updates;
+
+    public AdaptiveConcurrencyLimiter(Iterable<TenacityPropertyKey> keys) {
+        this(keys, Duration.seconds(1));
+    }
+
+    public AdaptiveConcurrencyLimiter(Iterable<TenacityPropertyKey> keys, Duration interval) {
+        this.keys = ImmutableList.copyOf(keys);
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("tenacity-adaptive-limiter-%d")
+                .setDaemon(true)
+                .build());
+        updates = scheduler.scheduleWithFixedDelay(this::updateLimits,
+                interval.toMilliseconds(), interval.toMilliseconds(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (updates != null) {
+            updates.cancel(true);
+            updates = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        states.clear();
+        for (String key : ImmutableList.copyOf(overrides.keySet())) {
+            clearOverride(key);
+        }
+    }
+
+    public void updateLimits() {
+        for (TenacityPropertyKey key : keys) {
+            try {
+                updateLimit(key);
+            } catch (Exception err) {
+                LOGGER.warn("Unable to update the adaptive concurrency limit for {}", key, err);
+            }
+        }
+    }
+
+    protected void updateLimit(TenacityPropertyKey key) {
+        final AdaptiveLimitConfiguration configuration = TenacityPropertyStore.getAdaptiveLimitConfiguration(key);
+        if (!configuration.isEnabled()) {
+            states.remove(key.name());
+            clearOverride(key.name());
+            return;
+        }
+
+        final HystrixCommandMetrics metrics = TenacityCommand.getCommandMetrics(key);
+        if (metrics == null) {
+            return;
+        }
+
+        final KeyState state = state(key, configuration);
+        updateLimit(key, configuration, state, state.sample(metrics));
+    }
+
+    /**
+     * Adjusts the limit of a key from a sample taken elsewhere, rather than from its rolling Hystrix metrics.
+     */
+    public void updateLimit(TenacityPropertyKey key, LimitSample sample) {
+        final AdaptiveLimitConfiguration configuration = TenacityPropertyStore.getAdaptiveLimitConfiguration(key);
+        if (!configuration.isEnabled()) {
+            states.remove(key.name());
+            clearOverride(key.name());
+            return;
+        }
+        updateLimit(key, configuration, state(key, configuration), sample);
+    }
+
+    private KeyState state(TenacityPropertyKey key, AdaptiveLimitConfiguration configuration) {
+        return states.compute(key.name(), (name, existing) ->
+                existing == null || existing.algorithmType != configuration.getAlgorithm()
+                        ? new KeyState(configuration)
+                        : existing);
+    }
+
+    private void updateLimit(TenacityPropertyKey key,
+                             AdaptiveLimitConfiguration configuration,
+                             KeyState state,
+                             LimitSample sample) {
+        if (sample.getRequests() == 0) {
+            return;
+        }
+
+        final int limit = getLimit(key);
+        final int newLimit = Math.max(configuration.getMinLimit(),
+                Math.min(configuration.getMaxLimit(), state.algorithm.update(limit, sample)));
+        if (newLimit != limit) {
+            LOGGER.debug("Adjusting concurrency limit for {} from {} to {} after {}", key, limit, newLimit, sample);
+            setOverride(key, newLimit);
+        }
+    }
+
+    private void setOverride(TenacityPropertyKey key, int limit) {
+        final String property = limitProperty(key);
+        final String previous = overrides.put(key.name(), property);
+        final AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+        if (configInstance instanceof ConcurrentCompositeConfiguration) {
+            final ConcurrentCompositeConfiguration composite = (ConcurrentCompositeConfiguration) configInstance;
+            /* The isolation strategy changed, the other limit goes back to its configured value */
+            if (previous != null && !previous.equals(property)) {
+                composite.clearOverrideProperty(previous);
+            }
+            composite.setOverrideProperty(property, limit);
+        } else {
+            configInstance.setProperty(property, limit);
+        }
+    }
+
+    private void clearOverride(String key) {
+        final String property = overrides.remove(key);
+        final AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+        if (property != null && configInstance instanceof ConcurrentCompositeConfiguration) {
+            ((ConcurrentCompositeConfiguration) configInstance).clearOverrideProperty(property);
+        }
+    }
+
+    public static int getLimit(TenacityPropertyKey key) {
+        final HystrixCommandProperties commandProperties = TenacityCommand.getCommandProperties(key);
+        if (isSemaphoreIsolated(commandProperties)) {
+            return commandProperties.executionIsolationSemaphoreMaxConcurrentRequests().get();
+        }
+        return TenacityCommand.getThreadpoolProperties(key).coreSize().get();
+    }
+
+    private static String limitProperty(TenacityPropertyKey key) {
+        return isSemaphoreIsolated(TenacityCommand.getCommandProperties(key))
+                ? TenacityPropertyRegister.semaphoreMaxConcurrentRequests(key)
+                : TenacityPropertyRegister.threadpoolCoreSize(key);
+    }
+
+    private static boolean isSemaphoreIsolated(HystrixCommandProperties commandProperties) {
+        return commandProperties.executionIsolationStrategy().get() == HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE;
+    }
+}
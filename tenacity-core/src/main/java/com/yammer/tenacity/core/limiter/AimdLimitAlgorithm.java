@@ -0,0 +1,24 @@
+package com.yammer.tenacity.core.limiter;
+
+/**
+ * Additive increase, multiplicative decrease. Timeouts are treated as drops and shrink the limit by the backoff ratio,
+ * while a key that is using (or being rejected at) its whole limit grows it by one.
+ */
+public class AimdLimitAlgorithm implements LimitAlgorithm {
+    private final double backoffRatio;
+
+    public AimdLimitAlgorithm(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    @Override
+    public int update(int limit, LimitSample sample) {
+        if (sample.getTimeouts() > 0) {
+            return Math.min(limit - 1, (int) (limit * backoffRatio));
+        }
+        if (sample.getRejections() > 0 || sample.getMaxConcurrency() >= limit) {
+            return limit + 1;
+        }
+        return limit;
+    }
+}
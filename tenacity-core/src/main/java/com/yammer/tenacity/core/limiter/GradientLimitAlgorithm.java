@@ -0,0 +1,55 @@
+package com.yammer.tenacity.core.limiter;
+
+/**
+ * Vegas style limit driven by latency: the ratio between the best latency seen and the current latency estimates how
+ * much queueing the dependency is doing. The limit follows {@code limit * gradient + sqrt(limit)}, which keeps a small
+ * amount of headroom for probing, and is smoothed so a single noisy sample cannot swing it.
+ *
+ * The best latency is the minimum over the last one to two windows of samples (60 by default, a minute at the
+ * limiter's default interval), so that when a dependency gets permanently slower the limit recovers once the window
+ * has passed instead of staying pinned at the gradient's floor.
+ */
+public class GradientLimitAlgorithm implements LimitAlgorithm {
+    public static final int DEFAULT_WINDOW = 60;
+    private final double smoothing;
+    private final int window;
+    private int samples = 0;
+    private int windowMinLatencyInMillis = Integer.MAX_VALUE;
+    private int previousWindowMinLatencyInMillis = Integer.MAX_VALUE;
+
+    public GradientLimitAlgorithm(double smoothing) {
+        this(smoothing, DEFAULT_WINDOW);
+    }
+
+    public GradientLimitAlgorithm(double smoothing, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("A window holds at least one sample");
+        }
+        this.smoothing = smoothing;
+        this.window = window;
+    }
+
+    @Override
+    public int update(int limit, LimitSample sample) {
+        final int latency = Math.max(1, sample.getMeanLatencyInMillis());
+        windowMinLatencyInMillis = Math.min(windowMinLatencyInMillis, latency);
+        final int minLatencyInMillis = getMinLatencyInMillis();
+        if (++samples % window == 0) {
+            previousWindowMinLatencyInMillis = windowMinLatencyInMillis;
+            windowMinLatencyInMillis = Integer.MAX_VALUE;
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, (double) minLatencyInMillis / latency));
+        final double target = limit * gradient + Math.sqrt(limit);
+        final int newLimit = (int) Math.round(limit * (1.0 - smoothing) + target * smoothing);
+        if (sample.getMaxConcurrency() * 2 < limit) {
+            //Not using half of what it has, no point in growing any further
+            return Math.min(limit, newLimit);
+        }
+        return newLimit;
+    }
+
+    public int getMinLatencyInMillis() {
+        return Math.min(windowMinLatencyInMillis, previousWindowMinLatencyInMillis);
+    }
+}
@@ -0,0 +1,10 @@
+package com.yammer.tenacity.core.limiter;
+
+public interface LimitAlgorithm {
+    /**
+     * @param limit the limit currently in effect
+     * @param sample what the key observed since the previous update
+     * @return the new limit, before it is clamped to the configured bounds
+     */
+    int update(int limit, LimitSample sample);
+}
@@ -0,0 +1,54 @@
+package com.yammer.tenacity.core.limiter;
+
+import com.google.common.base.MoreObjects;
+
+public class LimitSample {
+    private final long requests;
+    private final long timeouts;
+    private final long rejections;
+    private final int maxConcurrency;
+    private final int meanLatencyInMillis;
+
+    public LimitSample(long requests,
+                       long timeouts,
+                       long rejections,
+                       int maxConcurrency,
+                       int meanLatencyInMillis) {
+        this.requests = requests;
+        this.timeouts = timeouts;
+        this.rejections = rejections;
+        this.maxConcurrency = maxConcurrency;
+        this.meanLatencyInMillis = meanLatencyInMillis;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getRejections() {
+        return rejections;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getMeanLatencyInMillis() {
+        return meanLatencyInMillis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("requests", requests)
+                .add("timeouts", timeouts)
+                .add("rejections", rejections)
+                .add("maxConcurrency", maxConcurrency)
+                .add("meanLatencyInMillis", meanLatencyInMillis)
+                .toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.yammer.tenacity.core.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import io.dropwizard.util.Duration;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Reservoir keeping every value in an HdrHistogram rather than a sample, so any percentile can be read to the
+ * configured number of significant digits (2 keeps values to within 1%). Recording doesn't block or allocate.
+ *
+ * Snapshots cover the values recorded over the last one to two windows: values are moved out of the recorder when a
+ * snapshot is taken, and the older of the two windows is dropped once the newer one is a window old. Reporters that
+ * read at least once per window therefore see a rolling distribution. size() counts the values of those windows as of
+ * the last snapshot, plus the ones recorded since, without taking a snapshot.
+ */
+public class HdrHistogramReservoir implements Reservoir {
+    private final int significantDigits;
+    private final long windowNanos;
+    private final Clock clock;
+    private final Recorder recorder;
+    private final LongAdder unread = new LongAdder();
+    private volatile long windowCount;
+    private Histogram intervalHistogram;
+    private Histogram current;
+    private Histogram previous;
+    private long currentStartNanos;
+
+    public HdrHistogramReservoir(int significantDigits, Duration window) {
+        this(significantDigits, window, Clock.defaultClock());
+    }
+
+    public HdrHistogramReservoir(int significantDigits, Duration window, Clock clock) {
+        this.significantDigits = significantDigits;
+        this.windowNanos = window.toNanoseconds();
+        this.clock = clock;
+        this.recorder = new Recorder(significantDigits);
+        this.current = new Histogram(significantDigits);
+        this.previous = new Histogram(significantDigits);
+        this.currentStartNanos = clock.getTick();
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, windowCount + Math.max(0, unread.sum()));
+    }
+
+    @Override
+    public void update(long value) {
+        unread.increment();
+        recorder.recordValue(Math.max(0, value));
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        final long now = clock.getTick();
+        if (now - currentStartNanos >= windowNanos) {
+            final Histogram expired = previous;
+            previous = current;
+            current = expired;
+            current.reset();
+            currentStartNanos = now;
+        }
+        current.add(intervalHistogram);
+        unread.add(-intervalHistogram.getTotalCount());
+        windowCount = previous.getTotalCount() + current.getTotalCount();
+
+        final Histogram window = new Histogram(significantDigits);
+        window.add(previous);
+        window.add(current);
+        return new HdrHistogramSnapshot(window);
+    }
+}
@@ -0,0 +1,88 @@
+package com.yammer.tenacity.core.metrics;
+
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Snapshot of an HdrHistogramReservoir. getHistogram() gives the HdrHistogram itself, to be merged with those of
+ * other instances (Histogram.add) or shipped in HdrHistogram's compressed encoding.
+ */
+public class HdrHistogramSnapshot extends Snapshot {
+    private final Histogram histogram;
+
+    public HdrHistogramSnapshot(Histogram histogram) {
+        this.histogram = histogram;
+    }
+
+    public Histogram getHistogram() {
+        return histogram.copy();
+    }
+
+    @Override
+    public double getValue(double quantile) {
+        return histogram.getValueAtPercentile(quantile * 100.0);
+    }
+
+    /**
+     * @return each distinct value recorded, once; the histogram doesn't keep the individual values
+     */
+    @Override
+    public long[] getValues() {
+        final long[] values = new long[countDistinctValues()];
+        int i = 0;
+        for (HistogramIterationValue value : histogram.recordedValues()) {
+            values[i++] = value.getValueIteratedTo();
+        }
+        return values;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, histogram.getTotalCount());
+    }
+
+    @Override
+    public long getMax() {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getMaxValue();
+    }
+
+    @Override
+    public double getMean() {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue();
+    }
+
+    @Override
+    public double getStdDev() {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getStdDeviation();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            for (HistogramIterationValue value : histogram.recordedValues()) {
+                for (long i = 0; i < value.getCountAtValueIteratedTo(); i++) {
+                    out.printf("%d%n", value.getValueIteratedTo());
+                }
+            }
+        }
+    }
+
+    private int countDistinctValues() {
+        int count = 0;
+        for (HistogramIterationValue ignored : histogram.recordedValues()) {
+            count++;
+        }
+        return count;
+    }
+}
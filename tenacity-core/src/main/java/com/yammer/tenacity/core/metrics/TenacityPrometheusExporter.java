@@ -0,0 +1,317 @@
+package com.yammer.tenacity.core.metrics;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixEventType;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.netflix.hystrix.metric.HystrixCommandCompletion;
+import com.netflix.hystrix.metric.HystrixCommandCompletionStream;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.core.CircuitBreaker;
+import com.yammer.tenacity.core.core.CircuitBreakerStateCache;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.shedding.LoadShedder;
+import rx.Subscription;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Renders the keys' metrics in the Prometheus text format (version 0.0.4):
+ *
+ * - tenacity_command_events_total and tenacity_command_shed_total counters
+ * - tenacity_command_execution_latency_seconds and tenacity_command_total_latency_seconds histograms
+ * - tenacity_command_error_percentage, tenacity_command_concurrent_executions and tenacity_command_concurrency_limit
+ * - tenacity_threadpool_* gauges of thread-isolated keys
+ * - tenacity_circuit_breaker_state, 1 for the state the key's breaker is in and 0 for the others
+ *
+ * Counters and histograms are kept from each key's HystrixCommandCompletionStream from the time the exporter is
+ * created; the rest is read once per key per scrape and written straight to the response. Keys that have not run yet
+ * are left out.
+ */
+public class TenacityPrometheusExporter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final long[] LATENCY_BUCKETS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final String[] LATENCY_BUCKET_LABELS = new String[LATENCY_BUCKETS_MILLIS.length + 1];
+    private static final HystrixEventType[] EVENT_TYPES = HystrixEventType.values();
+    private static final String[] EVENT_TYPE_LABELS = new String[EVENT_TYPES.length];
+    private static final CircuitBreaker.State[] STATES = CircuitBreaker.State.values();
+    private static final String[] STATE_LABELS = new String[STATES.length];
+
+    static {
+        for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+            LATENCY_BUCKET_LABELS[i] = seconds(LATENCY_BUCKETS_MILLIS[i]);
+        }
+        LATENCY_BUCKET_LABELS[LATENCY_BUCKETS_MILLIS.length] = "+Inf";
+        for (int i = 0; i < EVENT_TYPES.length; i++) {
+            EVENT_TYPE_LABELS[i] = EVENT_TYPES[i].name().toLowerCase(Locale.ENGLISH);
+        }
+        for (int i = 0; i < STATES.length; i++) {
+            STATE_LABELS[i] = STATES[i].name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    private final ImmutableList<KeyStats> stats;
+
+    public TenacityPrometheusExporter(Iterable<TenacityPropertyKey> keys) {
+        final ImmutableList.Builder<KeyStats> builder = ImmutableList.builder();
+        for (TenacityPropertyKey key : checkNotNull(keys)) {
+            builder.add(new KeyStats(key));
+        }
+        this.stats = builder.build();
+    }
+
+    private static class LatencyHistogram {
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS_MILLIS.length + 1];
+        private final LongAdder sumMillis = new LongAdder();
+
+        private LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long millis) {
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MILLIS.length && millis > LATENCY_BUCKETS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            sumMillis.add(millis);
+        }
+    }
+
+    private static class KeyStats {
+        private final TenacityPropertyKey key;
+        private final String label;
+        private final LongAdder[] events = new LongAdder[EVENT_TYPES.length];
+        private final LatencyHistogram executionLatency = new LatencyHistogram();
+        private final LatencyHistogram totalLatency = new LatencyHistogram();
+        private HystrixCommandCompletionStream stream;
+        private Subscription subscription;
+
+        private KeyStats(TenacityPropertyKey key) {
+            this.key = key;
+            this.label = "key=\"" + escape(key.name()) + "\"";
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new LongAdder();
+            }
+            subscribe();
+        }
+
+        /* Hystrix replaces its streams when it is reset */
+        private synchronized void subscribe() {
+            final HystrixCommandCompletionStream current = HystrixCommandCompletionStream.getInstance(key);
+            if (current == stream) {
+                return;
+            }
+            if (subscription != null) {
+                subscription.unsubscribe();
+            }
+            stream = current;
+            subscription = current.observe().subscribe(this::record);
+        }
+
+        private void record(HystrixCommandCompletion completion) {
+            for (int i = 0; i < EVENT_TYPES.length; i++) {
+                final int count = completion.getEventCounts().getCount(EVENT_TYPES[i]);
+                if (count > 0) {
+                    events[i].add(count);
+                }
+            }
+            if (completion.didCommandExecute() && completion.getExecutionLatency() > -1) {
+                executionLatency.record(completion.getExecutionLatency());
+            }
+            if (completion.getTotalLatency() > -1) {
+                totalLatency.record(completion.getTotalLatency());
+            }
+        }
+    }
+
+    /* What a scrape reads of a key besides its counters, read once */
+    private static class KeySnapshot {
+        private final KeyStats stats;
+        private final long shed;
+        private final int errorPercentage;
+        private final int concurrentExecutions;
+        private final int concurrencyLimit;
+        private final Optional<HystrixThreadPoolMetrics> threadPool;
+        private final Optional<CircuitBreaker.State> state;
+
+        private KeySnapshot(KeyStats stats, HystrixCommandMetrics commandMetrics) {
+            this.stats = stats;
+            this.shed = LoadShedder.getShedCount(stats.key);
+            this.errorPercentage = commandMetrics.getHealthCounts().getErrorPercentage();
+            this.concurrentExecutions = commandMetrics.getCurrentConcurrentExecutionCount();
+            this.concurrencyLimit = AdaptiveConcurrencyLimiter.getLimit(stats.key);
+            this.threadPool = Optional.ofNullable(TenacityCommand.getThreadpoolMetrics(stats.key));
+            this.state = CircuitBreakerStateCache.get(stats.key).map(CircuitBreaker::getState);
+        }
+    }
+
+    public void write(Writer writer) throws IOException {
+        final List<KeySnapshot> snapshots = new ArrayList<>(stats.size());
+        for (KeyStats keyStats : stats) {
+            keyStats.subscribe();
+            final HystrixCommandMetrics commandMetrics = TenacityCommand.getCommandMetrics(keyStats.key);
+            if (commandMetrics != null) {
+                snapshots.add(new KeySnapshot(keyStats, commandMetrics));
+            }
+        }
+
+        header(writer, "tenacity_command_events_total", "counter", "Command events by type");
+        for (KeySnapshot snapshot : snapshots) {
+            for (int i = 0; i < EVENT_TYPES.length; i++) {
+                sample(writer, "tenacity_command_events_total", snapshot.stats.label,
+                        "event=\"" + EVENT_TYPE_LABELS[i] + "\"", Long.toString(snapshot.stats.events[i].sum()));
+            }
+        }
+
+        header(writer, "tenacity_command_shed_total", "counter", "Commands shed by the LoadShedder");
+        for (KeySnapshot snapshot : snapshots) {
+            sample(writer, "tenacity_command_shed_total", snapshot.stats.label, null, Long.toString(snapshot.shed));
+        }
+
+        header(writer, "tenacity_command_execution_latency_seconds", "histogram", "Latency of run()");
+        for (KeySnapshot snapshot : snapshots) {
+            histogram(writer, "tenacity_command_execution_latency_seconds", snapshot.stats.label,
+                    snapshot.stats.executionLatency);
+        }
+
+        header(writer, "tenacity_command_total_latency_seconds", "histogram", "Latency as seen by the caller");
+        for (KeySnapshot snapshot : snapshots) {
+            histogram(writer, "tenacity_command_total_latency_seconds", snapshot.stats.label,
+                    snapshot.stats.totalLatency);
+        }
+
+        header(writer, "tenacity_command_error_percentage", "gauge", "Error percentage the circuit breaker trips on");
+        for (KeySnapshot snapshot : snapshots) {
+            sample(writer, "tenacity_command_error_percentage", snapshot.stats.label, null,
+                    Integer.toString(snapshot.errorPercentage));
+        }
+
+        header(writer, "tenacity_command_concurrent_executions", "gauge", "Commands executing");
+        for (KeySnapshot snapshot : snapshots) {
+            sample(writer, "tenacity_command_concurrent_executions", snapshot.stats.label, null,
+                    Integer.toString(snapshot.concurrentExecutions));
+        }
+
+        header(writer, "tenacity_command_concurrency_limit", "gauge", "Concurrency limit of the key");
+        for (KeySnapshot snapshot : snapshots) {
+            sample(writer, "tenacity_command_concurrency_limit", snapshot.stats.label, null,
+                    Integer.toString(snapshot.concurrencyLimit));
+        }
+
+        header(writer, "tenacity_threadpool_active_threads", "gauge", "Threads executing commands");
+        for (KeySnapshot snapshot : snapshots) {
+            if (snapshot.threadPool.isPresent()) {
+                sample(writer, "tenacity_threadpool_active_threads", snapshot.stats.label, null,
+                        snapshot.threadPool.get().getCurrentActiveCount().toString());
+            }
+        }
+
+        header(writer, "tenacity_threadpool_pool_size", "gauge", "Threads in the pool");
+        for (KeySnapshot snapshot : snapshots) {
+            if (snapshot.threadPool.isPresent()) {
+                sample(writer, "tenacity_threadpool_pool_size", snapshot.stats.label, null,
+                        snapshot.threadPool.get().getCurrentPoolSize().toString());
+            }
+        }
+
+        header(writer, "tenacity_threadpool_max_pool_size", "gauge", "Threads the pool may grow to");
+        for (KeySnapshot snapshot : snapshots) {
+            if (snapshot.threadPool.isPresent()) {
+                sample(writer, "tenacity_threadpool_max_pool_size", snapshot.stats.label, null,
+                        snapshot.threadPool.get().getCurrentMaximumPoolSize().toString());
+            }
+        }
+
+        header(writer, "tenacity_threadpool_queue_size", "gauge", "Commands waiting for a thread");
+        for (KeySnapshot snapshot : snapshots) {
+            if (snapshot.threadPool.isPresent()) {
+                sample(writer, "tenacity_threadpool_queue_size", snapshot.stats.label, null,
+                        snapshot.threadPool.get().getCurrentQueueSize().toString());
+            }
+        }
+
+        header(writer, "tenacity_circuit_breaker_state", "gauge", "State of the circuit breaker");
+        for (KeySnapshot snapshot : snapshots) {
+            if (snapshot.state.isPresent()) {
+                for (int i = 0; i < STATES.length; i++) {
+                    sample(writer, "tenacity_circuit_breaker_state", snapshot.stats.label,
+                            "state=\"" + STATE_LABELS[i] + "\"", STATES[i] == snapshot.state.get() ? "1" : "0");
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static void histogram(Writer writer, String name, String label, LatencyHistogram histogram) throws IOException {
+        long count = 0;
+        for (int i = 0; i < histogram.buckets.length; i++) {
+            count += histogram.buckets[i].sum();
+            sample(writer, name + "_bucket", label, "le=\"" + LATENCY_BUCKET_LABELS[i] + "\"", Long.toString(count));
+        }
+        sample(writer, name + "_sum", label, null, seconds(histogram.sumMillis.sum()));
+        sample(writer, name + "_count", label, null, Long.toString(count));
+    }
+
+    private static void header(Writer writer, String name, String type, String help) throws IOException {
+        writer.write("# HELP ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(help);
+        writer.write("\n# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write('\n');
+    }
+
+    private static void sample(Writer writer, String name, String label, String extraLabel, String value) throws IOException {
+        writer.write(name);
+        writer.write('{');
+        writer.write(label);
+        if (extraLabel != null) {
+            writer.write(',');
+            writer.write(extraLabel);
+        }
+        writer.write("} ");
+        writer.write(value);
+        writer.write('\n');
+    }
+
+    private static String seconds(long millis) {
+        return BigDecimal.valueOf(millis, 3).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(String value) {
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
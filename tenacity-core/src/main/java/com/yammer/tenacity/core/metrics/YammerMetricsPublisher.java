@@ -4,23 +4,49 @@ import com.codahale.metrics.MetricRegistry;
 import com.netflix.hystrix.*;
 import com.netflix.hystrix.contrib.codahalemetricspublisher.HystrixCodaHaleMetricsPublisherThreadPool;
 import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisher;
+import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisherCollapser;
 import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisherCommand;
 import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisherThreadPool;
+import io.dropwizard.util.Duration;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 public class YammerMetricsPublisher extends HystrixMetricsPublisher {
     protected final MetricRegistry metricRegistry;
+    protected final int latencySignificantDigits;
+    protected final Duration latencyWindow;
 
     public YammerMetricsPublisher(MetricRegistry metricRegistry) {
+        this(metricRegistry,
+                YammerMetricsPublisherCommand.DEFAULT_LATENCY_SIGNIFICANT_DIGITS,
+                YammerMetricsPublisherCommand.DEFAULT_LATENCY_WINDOW);
+    }
+
+    /**
+     * @param latencySignificantDigits precision of the commands' latency Timers, from 0 to 5
+     * @param latencyWindow how far back the latency Timers' snapshots go, from one to two of these
+     */
+    public YammerMetricsPublisher(MetricRegistry metricRegistry, int latencySignificantDigits, Duration latencyWindow) {
+        checkArgument(latencySignificantDigits >= 0 && latencySignificantDigits <= 5,
+                "latencySignificantDigits must be between 0 and 5");
         this.metricRegistry = metricRegistry;
+        this.latencySignificantDigits = latencySignificantDigits;
+        this.latencyWindow = latencyWindow;
     }
 
     @Override
     public HystrixMetricsPublisherCommand getMetricsPublisherForCommand(HystrixCommandKey commandKey, HystrixCommandGroupKey commandGroupKey, HystrixCommandMetrics metrics, HystrixCircuitBreaker circuitBreaker, HystrixCommandProperties properties) {
-        return new YammerMetricsPublisherCommand(commandKey, commandGroupKey, metrics, circuitBreaker, properties, metricRegistry);
+        return new YammerMetricsPublisherCommand(commandKey, commandGroupKey, metrics, circuitBreaker, properties, metricRegistry,
+                latencySignificantDigits, latencyWindow);
     }
 
     @Override
     public HystrixMetricsPublisherThreadPool getMetricsPublisherForThreadPool(HystrixThreadPoolKey threadPoolKey, HystrixThreadPoolMetrics metrics, HystrixThreadPoolProperties properties) {
         return new HystrixCodaHaleMetricsPublisherThreadPool("", threadPoolKey, metrics, properties, metricRegistry);
     }
-}
\ No newline at end of file
+
+    @Override
+    public HystrixMetricsPublisherCollapser getMetricsPublisherForCollapser(HystrixCollapserKey collapserKey, HystrixCollapserMetrics metrics, HystrixCollapserProperties properties) {
+        return new YammerMetricsPublisherCollapser(collapserKey, metrics, metricRegistry);
+    }
+}
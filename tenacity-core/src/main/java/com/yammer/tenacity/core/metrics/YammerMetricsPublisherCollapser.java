@@ -0,0 +1,59 @@
+package com.yammer.tenacity.core.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserMetrics;
+import com.netflix.hystrix.HystrixEventType;
+import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisherCollapser;
+
+/**
+ * Batch size distribution and counts of a collapser (e.g. a TenacityCollapser), named like the commands' metrics:
+ * HystrixCollapser.{key}.batchSize_percentile_99 and so on.
+ */
+public class YammerMetricsPublisherCollapser implements HystrixMetricsPublisherCollapser {
+    private static final double[] PERCENTILES = {25, 50, 75, 90, 99, 99.5};
+
+    protected final HystrixCollapserKey collapserKey;
+    protected final HystrixCollapserMetrics metrics;
+    protected final MetricRegistry metricRegistry;
+
+    public YammerMetricsPublisherCollapser(HystrixCollapserKey collapserKey,
+                                           HystrixCollapserMetrics metrics,
+                                           MetricRegistry metricRegistry) {
+        this.collapserKey = collapserKey;
+        this.metrics = metrics;
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public void initialize() {
+        metricRegistry.register(createMetricName("countRequestsBatched"),
+                (Gauge<Long>) () -> metrics.getCumulativeCount(HystrixEventType.Collapser.ADDED_TO_BATCH));
+        metricRegistry.register(createMetricName("countBatches"),
+                (Gauge<Long>) () -> metrics.getCumulativeCount(HystrixEventType.Collapser.BATCH_EXECUTED));
+        metricRegistry.register(createMetricName("countResponsesFromCache"),
+                (Gauge<Long>) () -> metrics.getCumulativeCount(HystrixEventType.Collapser.RESPONSE_FROM_CACHE));
+        metricRegistry.register(createMetricName("batchSize_mean"),
+                (Gauge<Integer>) metrics::getBatchSizeMean);
+        metricRegistry.register(createMetricName("shardSize_mean"),
+                (Gauge<Integer>) metrics::getShardSizeMean);
+        for (double percentile : PERCENTILES) {
+            final String suffix = percentileName(percentile);
+            metricRegistry.register(createMetricName("batchSize_percentile_" + suffix),
+                    (Gauge<Integer>) () -> metrics.getBatchSizePercentile(percentile));
+            metricRegistry.register(createMetricName("shardSize_percentile_" + suffix),
+                    (Gauge<Integer>) () -> metrics.getShardSizePercentile(percentile));
+        }
+    }
+
+    protected String createMetricName(String name) {
+        return MetricRegistry.name("HystrixCollapser", collapserKey.name(), name);
+    }
+
+    private static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((int) percentile)
+                : String.valueOf(percentile).replace(".", "");
+    }
+}
@@ -2,17 +2,52 @@ package com.yammer.tenacity.core.metrics;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
 import com.netflix.hystrix.*;
 import com.netflix.hystrix.contrib.codahalemetricspublisher.HystrixCodaHaleMetricsPublisherCommand;
+import com.netflix.hystrix.metric.HystrixCommandCompletion;
+import com.netflix.hystrix.metric.HystrixCommandCompletionStream;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.shedding.LoadShedder;
+import io.dropwizard.util.Duration;
+import rx.Subscription;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Besides Hystrix's own gauges, publishes each key's latencies as Timers (latencyExecute for run() alone, latencyTotal
+ * as seen by the caller) backed by an HdrHistogramReservoir, so reporters can read any percentile of them. Hystrix
+ * replaces its completion streams when it is reset, so the Timers follow the current stream whenever they are read.
+ */
 public class YammerMetricsPublisherCommand extends HystrixCodaHaleMetricsPublisherCommand {
+    public static final int DEFAULT_LATENCY_SIGNIFICANT_DIGITS = 2;
+    public static final Duration DEFAULT_LATENCY_WINDOW = Duration.minutes(1);
+
+    protected final HystrixCommandKey commandKey;
     protected final HystrixCommandMetrics metrics;
     protected final MetricRegistry metricRegistry;
+    protected final int latencySignificantDigits;
+    protected final Duration latencyWindow;
+    private volatile Timer latencyExecute;
+    private volatile Timer latencyTotal;
+    private HystrixCommandCompletionStream stream;
+    private Subscription subscription;
 
     public YammerMetricsPublisherCommand(HystrixCommandKey commandKey, HystrixCommandGroupKey commandGroupKey, HystrixCommandMetrics metrics, HystrixCircuitBreaker circuitBreaker, HystrixCommandProperties properties, MetricRegistry metricRegistry) {
+        this(commandKey, commandGroupKey, metrics, circuitBreaker, properties, metricRegistry,
+                DEFAULT_LATENCY_SIGNIFICANT_DIGITS, DEFAULT_LATENCY_WINDOW);
+    }
+
+    public YammerMetricsPublisherCommand(HystrixCommandKey commandKey, HystrixCommandGroupKey commandGroupKey, HystrixCommandMetrics metrics, HystrixCircuitBreaker circuitBreaker, HystrixCommandProperties properties, MetricRegistry metricRegistry,
+                                         int latencySignificantDigits, Duration latencyWindow) {
         super("", commandKey, commandGroupKey, metrics, circuitBreaker, properties, metricRegistry);
+        this.commandKey = commandKey;
         this.metrics = metrics;
         this.metricRegistry = metricRegistry;
+        this.latencySignificantDigits = latencySignificantDigits;
+        this.latencyWindow = latencyWindow;
     }
 
     @Override
@@ -26,5 +61,56 @@ public class YammerMetricsPublisherCommand extends HystrixCodaHaleMetricsPublish
                 (Gauge<Integer>)() -> metrics.getTotalTimePercentile(95));
         metricRegistry.register(createMetricName("latencyTotal_percentile_999"),
                 (Gauge<Integer>)() -> metrics.getTotalTimePercentile(99.9));
+        if (commandKey instanceof TenacityPropertyKey) {
+            metricRegistry.register(createMetricName("concurrencyLimit"),
+                    (Gauge<Integer>)() -> AdaptiveConcurrencyLimiter.getLimit((TenacityPropertyKey) commandKey));
+        }
+        metricRegistry.register(createMetricName("countShed"),
+                (Gauge<Long>)() -> LoadShedder.getShedCount(commandKey));
+
+        latencyExecute = newLatencyTimer();
+        latencyTotal = newLatencyTimer();
+        subscribe();
+        metricRegistry.register(createMetricName("latencyExecute"), latencyExecute);
+        metricRegistry.register(createMetricName("latencyTotal"), latencyTotal);
+    }
+
+    private Timer newLatencyTimer() {
+        return new Timer(new HdrHistogramReservoir(latencySignificantDigits, latencyWindow)) {
+            @Override
+            public long getCount() {
+                subscribe();
+                return super.getCount();
+            }
+
+            @Override
+            public Snapshot getSnapshot() {
+                subscribe();
+                return super.getSnapshot();
+            }
+        };
+    }
+
+    /* Hystrix replaces its streams when it is reset */
+    private synchronized void subscribe() {
+        final HystrixCommandCompletionStream current = HystrixCommandCompletionStream.getInstance(commandKey);
+        if (current == stream) {
+            return;
+        }
+        if (subscription != null) {
+            subscription.unsubscribe();
+        }
+        stream = current;
+        subscription = current.observe().subscribe((completion) -> record(completion, latencyExecute, latencyTotal));
+    }
+
+    /* The same latencies Hystrix puts in its own distributions, which are only known to the millisecond */
+    private static void record(HystrixCommandCompletion completion, Timer latencyExecute, Timer latencyTotal) {
+        if (completion.didCommandExecute() && completion.getExecutionLatency() > -1) {
+            latencyExecute.update(completion.getExecutionLatency(), TimeUnit.MILLISECONDS);
+        }
+        if (completion.getTotalLatency() > -1) {
+            latencyTotal.update(completion.getTotalLatency(), TimeUnit.MILLISECONDS);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,28 +1,104 @@
 package com.yammer.tenacity.core.properties;
 
-import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.collect.ImmutableList;
+import com.netflix.config.AbstractPollingScheduler;
+import com.netflix.config.AggregatedConfiguration;
 import com.netflix.config.ConfigurationManager;
 import com.netflix.config.DynamicConfiguration;
-import com.netflix.config.FixedDelayPollingScheduler;
+import com.netflix.config.PollListener;
 import com.netflix.config.PolledConfigurationSource;
-import com.netflix.config.sources.URLConfigurationSource;
 import com.yammer.tenacity.core.config.BreakerboxConfiguration;
 import io.dropwizard.util.Duration;
+import org.apache.commons.configuration.AbstractConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class ArchaiusPropertyRegister {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArchaiusPropertyRegister.class);
+    private static final Set<Registration> REGISTRATIONS = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+    /**
+     * The configurations one call to register() added to ConfigurationManager. Closing it stops polling their sources
+     * and removes them again.
+     */
+    public static class Registration implements Closeable {
+        private final List<DynamicConfiguration> configurations;
 
-    private static class TenacityPollingScheduler extends FixedDelayPollingScheduler {
+        private Registration(List<DynamicConfiguration> configurations) {
+            this.configurations = configurations;
+        }
+
+        @Override
+        public void close() {
+            if (!REGISTRATIONS.remove(this)) {
+                return;
+            }
+            final AbstractConfiguration configInstance = ConfigurationManager.getConfigInstance();
+            for (DynamicConfiguration configuration : configurations) {
+                configuration.stopLoading();
+                if (configInstance instanceof AggregatedConfiguration) {
+                    ((AggregatedConfiguration) configInstance).removeConfiguration(configuration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes every Registration that is still open.
+     */
+    public static void reset() {
+        for (Registration registration : ImmutableList.copyOf(REGISTRATIONS)) {
+            registration.close();
+        }
+    }
+
+    /**
+     * Polls every delay, give or take up to jitter of it so that instances started together drift apart instead of
+     * polling Breakerbox in waves, and backs off exponentially (up to maxBackoff) while polls keep failing. Stopping it
+     * closes the source it polls, when that is Closeable.
+     */
+    private static class TenacityPollingScheduler extends AbstractPollingScheduler {
         private static final Logger LOGGER = LoggerFactory.getLogger(TenacityPollingScheduler.class);
+        private final long initialDelayMillis;
+        private final long delayMillis;
+        private final double jitter;
+        private final long maxBackoffMillis;
+        private volatile boolean lastPollSucceeded = true;
+        private volatile boolean lastPollChanged;
+        private int consecutiveFailures;
+        private ExecutorService executor;
+        private PolledConfigurationSource source;
 
-        public TenacityPollingScheduler(int initialDelayMillis, int delayMillis, boolean ignoreDeletesFromSource) {
-            super(initialDelayMillis, delayMillis, ignoreDeletesFromSource);
+        public TenacityPollingScheduler(long initialDelayMillis, long delayMillis, double jitter, long maxBackoffMillis,
+                                        boolean ignoreDeletesFromSource) {
+            super(ignoreDeletesFromSource);
+            this.initialDelayMillis = initialDelayMillis;
+            this.delayMillis = delayMillis;
+            this.jitter = jitter;
+            this.maxBackoffMillis = Math.max(delayMillis, maxBackoffMillis);
+            addPollListener((eventType, lastResult, exception) -> {
+                lastPollSucceeded = eventType == PollListener.EventType.POLL_SUCCESS;
+                lastPollChanged = lastResult != null && lastResult.hasChanges();
+            });
         }
 
         @Override
@@ -33,16 +109,201 @@ public class ArchaiusPropertyRegister {
                 LOGGER.warn("Initial dynamic configuration load failed", err);
             }
         }
+
+        protected String getThreadName() {
+            return "tenacity-poller";
+        }
+
+        @Override
+        public void startPolling(PolledConfigurationSource source, Configuration config) {
+            synchronized (this) {
+                this.source = source;
+            }
+            super.startPolling(source, config);
+        }
+
+        @Override
+        protected synchronized void schedule(Runnable runnable) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat(getThreadName())
+                    .build());
+            executor.execute(() -> {
+                try {
+                    poll(runnable);
+                } catch (InterruptedException err) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        protected void poll(Runnable runnable) throws InterruptedException {
+            /* Spread the first polls of instances started together over the jitter */
+            Thread.sleep(initialDelayMillis + (long) (ThreadLocalRandom.current().nextDouble() * jitter * delayMillis));
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    runnable.run();
+                } catch (RuntimeException err) {
+                    LOGGER.warn("Dynamic configuration poll failed", err);
+                    lastPollSucceeded = false;
+                }
+                final long nextDelayMillis = nextDelayMillis();
+                if (nextDelayMillis > 0) {
+                    Thread.sleep(nextDelayMillis);
+                }
+            }
+        }
+
+        private long nextDelayMillis() {
+            if (lastPollSucceeded) {
+                consecutiveFailures = 0;
+                return nextDelayAfterSuccessMillis();
+            }
+            consecutiveFailures++;
+            final double backoffMillis = delayMillis * Math.pow(2, Math.min(consecutiveFailures, 30));
+            return jittered((long) Math.min(maxBackoffMillis, backoffMillis));
+        }
+
+        protected long nextDelayAfterSuccessMillis() {
+            return jittered(delayMillis);
+        }
+
+        protected boolean isLastPollChanged() {
+            return lastPollChanged;
+        }
+
+        private long jittered(long millis) {
+            if (jitter <= 0) {
+                return millis;
+            }
+            return millis + (long) (ThreadLocalRandom.current().nextDouble(-jitter, jitter) * millis);
+        }
+
+        @Override
+        public synchronized void stop() {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            if (source instanceof Closeable) {
+                try {
+                    ((Closeable) source).close();
+                } catch (IOException err) {
+                    LOGGER.warn("Unable to close {}", source, err);
+                }
+            }
+        }
+    }
+
+    /**
+     * Polls again as soon as a poll returns while the server holds polls until something changes, and otherwise (or
+     * after a failure) like TenacityPollingScheduler.
+     */
+    private static class LongPollingScheduler extends TenacityPollingScheduler {
+        private final ConditionalURLConfigurationSource urlSource;
+
+        public LongPollingScheduler(long initialDelayMillis, long delayMillis, double jitter, long maxBackoffMillis,
+                                    ConditionalURLConfigurationSource urlSource, boolean ignoreDeletesFromSource) {
+            super(initialDelayMillis, delayMillis, jitter, maxBackoffMillis, ignoreDeletesFromSource);
+            this.urlSource = urlSource;
+        }
+
+        @Override
+        protected String getThreadName() {
+            return "tenacity-long-poll-scheduler";
+        }
+
+        /* A server that doesn't hold polls answers at once, and is polled every delay instead of continuously */
+        @Override
+        protected long nextDelayAfterSuccessMillis() {
+            if (isLastPollChanged() || urlSource.isHoldingPolls()) {
+                return 0;
+            }
+            return super.nextDelayAfterSuccessMillis();
+        }
+    }
+
+    /**
+     * Polls a FileConfigurationSource whenever something changes in its directory, and every delay in case a change
+     * went unnoticed (or when the directory can't be watched).
+     */
+    private static class FileWatchingScheduler extends TenacityPollingScheduler {
+        private static final Logger LOGGER = LoggerFactory.getLogger(FileWatchingScheduler.class);
+        private static final long SETTLE_MILLIS = 50;
+        private final Path directory;
+        private final long delayMillis;
+
+        public FileWatchingScheduler(Path directory, long delayMillis, boolean ignoreDeletesFromSource) {
+            super(0, delayMillis, 0.0, delayMillis, ignoreDeletesFromSource);
+            this.directory = directory;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        protected String getThreadName() {
+            return "tenacity-file-watcher";
+        }
+
+        @Override
+        protected void poll(Runnable runnable) throws InterruptedException {
+            try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                /* Read once right away for the changes made since the initial load, before the watch began */
+                while (!Thread.currentThread().isInterrupted()) {
+                    runnable.run();
+                    final WatchKey key = watchService.poll(delayMillis, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        settle(watchService, key);
+                    }
+                }
+            } catch (IOException err) {
+                LOGGER.warn("Unable to watch {}, reading it every {}ms instead", directory, delayMillis, err);
+                super.poll(runnable);
+            }
+        }
+
+        /* Files are usually written in more than one step; read them once they are done */
+        private static void settle(WatchService watchService, WatchKey key) throws InterruptedException {
+            WatchKey next = key;
+            while (next != null) {
+                next.pollEvents();
+                next.reset();
+                next = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
     }
-    public void register(BreakerboxConfiguration breakerboxConfiguration) {
-        if (breakerboxConfiguration.getUrls().isEmpty()) {
-            return;
+
+    public Registration register(BreakerboxConfiguration breakerboxConfiguration) {
+        final ImmutableList.Builder<DynamicConfiguration> configurations = ImmutableList.builder();
+        /* Registered first so that local files override Breakerbox */
+        if (!breakerboxConfiguration.getPath().isEmpty()) {
+            configurations.add(registerPath(breakerboxConfiguration));
         }
+        if (!breakerboxConfiguration.getUrls().isEmpty()) {
+            configurations.add(registerUrls(breakerboxConfiguration));
+        }
+        final Registration registration = new Registration(configurations.build());
+        REGISTRATIONS.add(registration);
+        return registration;
+    }
 
-        final TenacityPollingScheduler tenacityPollingScheduler = new TenacityPollingScheduler(
-                Ints.checkedCast(breakerboxConfiguration.getInitialDelay().toMilliseconds()),
-                Ints.checkedCast(breakerboxConfiguration.getDelay().toMilliseconds()),
-                true);
+    private DynamicConfiguration registerUrls(BreakerboxConfiguration breakerboxConfiguration) {
+        final ConditionalURLConfigurationSource urlSource = new ConditionalURLConfigurationSource(breakerboxConfiguration);
+        final long initialDelayMillis = breakerboxConfiguration.getInitialDelay().toMilliseconds();
+        final long delayMillis = breakerboxConfiguration.getDelay().toMilliseconds();
+        final long maxBackoffMillis = breakerboxConfiguration.getMaxBackoff().toMilliseconds();
+        /*
+         * Without a snapshot what Breakerbox stops serving keeps its last value, as it always has. With one, startup
+         * applies properties Breakerbox may no longer serve, and the deletions SnapshotConfigurationSource reports
+         * are what removes them again
+         */
+        final boolean ignoreDeletesFromSource = breakerboxConfiguration.getSnapshot().isEmpty();
+        final TenacityPollingScheduler tenacityPollingScheduler = breakerboxConfiguration.isLongPolling()
+                ? new LongPollingScheduler(initialDelayMillis, delayMillis, breakerboxConfiguration.getJitter(),
+                        maxBackoffMillis, urlSource, ignoreDeletesFromSource)
+                : new TenacityPollingScheduler(initialDelayMillis, delayMillis, breakerboxConfiguration.getJitter(),
+                        maxBackoffMillis, ignoreDeletesFromSource);
 
         final CountDownLatch countDownLatch = new CountDownLatch(1);
 
@@ -50,9 +311,11 @@ public class ArchaiusPropertyRegister {
             tenacityPollingScheduler.addPollListener((eventType, lastResult, exception) -> countDownLatch.countDown());
         }
 
-        final DynamicConfiguration dynConfig = new DynamicConfiguration(
-                new URLConfigurationSource(breakerboxConfiguration.getUrls().split(",")),
-                tenacityPollingScheduler);
+        /* With a snapshot to start from, the initial load doesn't wait for Breakerbox and neither does the latch */
+        final PolledConfigurationSource source = breakerboxConfiguration.getSnapshot().isEmpty()
+                ? urlSource
+                : new SnapshotConfigurationSource(urlSource, Paths.get(breakerboxConfiguration.getSnapshot()));
+        final DynamicConfiguration dynConfig = new DynamicConfiguration(source, tenacityPollingScheduler);
 
         ConfigurationManager.getConfigInstance();
         ConfigurationManager.loadPropertiesFromConfiguration(dynConfig);
@@ -66,5 +329,21 @@ public class ArchaiusPropertyRegister {
                 LOGGER.warn("Failed waiting for Breakerbox initial load", err);
             }
         }
+        return dynConfig;
+    }
+
+    private DynamicConfiguration registerPath(BreakerboxConfiguration breakerboxConfiguration) {
+        final FileConfigurationSource source = new FileConfigurationSource(Paths.get(breakerboxConfiguration.getPath()));
+        /* Removing a property (or a file) reverts its override, so deletions are applied */
+        final DynamicConfiguration dynConfig = new DynamicConfiguration(
+                source,
+                new FileWatchingScheduler(
+                        source.getDirectory(),
+                        breakerboxConfiguration.getDelay().toMilliseconds(),
+                        false));
+
+        ConfigurationManager.getConfigInstance();
+        ConfigurationManager.loadPropertiesFromConfiguration(dynConfig);
+        return dynConfig;
     }
 }
@@ -0,0 +1,326 @@
+package com.yammer.tenacity.core.properties;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.HttpHeaders;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.config.PollResult;
+import com.netflix.config.PolledConfigurationSource;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Polls properties from URLs like Archaius' URLConfigurationSource, later URLs overriding earlier ones, but asks HTTP
+ * URLs for their payload only when it has changed since the last poll (If-None-Match/If-Modified-Since) and reports
+ * only the properties that changed, so an unchanged Breakerbox configuration costs a 304 and updates nothing.
+ *
+ * With a long poll timeout the conditional requests also carry Prefer: wait=(timeout) (RFC 7240), asking servers that
+ * support it to hold them until the payload changes; isHoldingPolls() tells whether they did (Preference-Applied).
+ * Several urls are then polled at once, on threads that close() stops, and a poll returns as soon as any of them
+ * changes.
+ *
+ * With failover the urls are alternatives rather than layers: properties come from the first one that answers, starting
+ * from the one that answered last, so a url that is down costs a timeout only when the one in use fails as well.
+ */
+public class ConditionalURLConfigurationSource implements PolledConfigurationSource, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConditionalURLConfigurationSource.class);
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private final ImmutableList<Resource> resources;
+    private final long longPollTimeoutMillis;
+    private final int timeoutMillis;
+    private final boolean failover;
+    private final ExecutorService executor;
+    private Map<String, Object> current = Collections.emptyMap();
+    private int active = 0;
+
+    public ConditionalURLConfigurationSource(String... urls) {
+        this(Arrays.asList(urls), 0, 0, false);
+    }
+
+    public ConditionalURLConfigurationSource(BreakerboxConfiguration breakerboxConfiguration) {
+        this(Arrays.asList(breakerboxConfiguration.getUrls().split(",")),
+                breakerboxConfiguration.getLongPollTimeout().toMilliseconds(),
+                Ints.saturatedCast(breakerboxConfiguration.getTimeout().toMilliseconds()),
+                breakerboxConfiguration.isFailover());
+    }
+
+    private ConditionalURLConfigurationSource(List<String> urls,
+                                              long longPollTimeoutMillis,
+                                              int timeoutMillis,
+                                              boolean failover) {
+        this.longPollTimeoutMillis = longPollTimeoutMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.failover = failover;
+        final ImmutableList.Builder<Resource> builder = ImmutableList.builder();
+        for (String url : urls) {
+            try {
+                builder.add(new Resource(new URL(url.trim())));
+            } catch (MalformedURLException err) {
+                throw new IllegalArgumentException("Invalid configuration URL: " + url, err);
+            }
+        }
+        this.resources = builder.build();
+        this.executor = longPollTimeoutMillis > 0 && resources.size() > 1 && !failover
+                ? Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("tenacity-long-poll-%d")
+                        .build())
+                : null;
+    }
+
+    private class Resource {
+        private final URL url;
+        private String etag;
+        private String lastModified;
+        private Properties properties = new Properties();
+        private volatile HttpURLConnection inFlight;
+        private volatile boolean aborted;
+        private volatile boolean held;
+
+        private Resource(URL url) {
+            this.url = url;
+        }
+
+        /**
+         * @return whether the properties changed
+         */
+        private boolean load() throws IOException {
+            final URLConnection connection = url.openConnection();
+            connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            if (connection instanceof HttpURLConnection) {
+                return load((HttpURLConnection) connection);
+            }
+            properties = read(connection);
+            return true;
+        }
+
+        private boolean load(HttpURLConnection connection) throws IOException {
+            if (etag != null) {
+                connection.setRequestProperty(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                connection.setRequestProperty(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+            final boolean waiting = longPollTimeoutMillis > 0 && (etag != null || lastModified != null);
+            held = false;
+            if (waiting) {
+                connection.setRequestProperty(PREFER, "wait=" + Math.max(1, longPollTimeoutMillis / 1000));
+                connection.setReadTimeout(Math.max(timeoutMillis, Ints.saturatedCast(2 * longPollTimeoutMillis)));
+                inFlight = connection;
+            }
+            try {
+                if (waiting && aborted) {
+                    return false;
+                }
+                final int status = connection.getResponseCode();
+                held = waiting && isWaitApplied(connection.getHeaderField(PREFERENCE_APPLIED));
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return false;
+                }
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Unexpected status " + status + " from " + url);
+                }
+                properties = read(connection);
+                etag = connection.getHeaderField(HttpHeaders.ETAG);
+                lastModified = connection.getHeaderField(HttpHeaders.LAST_MODIFIED);
+                return true;
+            } catch (IOException | RuntimeException err) {
+                /* Disconnecting from another thread fails the request with either */
+                if (waiting && aborted) {
+                    return false;
+                }
+                throw err;
+            } finally {
+                inFlight = null;
+                connection.disconnect();
+            }
+        }
+
+        /* Gives up on a held request, which then counts as unchanged. Requests that aren't held are left to finish. */
+        private void abort() {
+            aborted = true;
+            final HttpURLConnection connection = inFlight;
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static boolean isWaitApplied(String preferenceApplied) {
+        if (preferenceApplied == null) {
+            return false;
+        }
+        for (String preference : preferenceApplied.split(",")) {
+            if (preference.trim().toLowerCase(Locale.ENGLISH).startsWith("wait")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Properties read(URLConnection connection) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream input = "gzip".equalsIgnoreCase(connection.getContentEncoding())
+                ? new GZIPInputStream(connection.getInputStream())
+                : connection.getInputStream()) {
+            properties.load(input);
+        }
+        return properties;
+    }
+
+    @Override
+    public synchronized PollResult poll(boolean initial, Object checkPoint) throws IOException {
+        final boolean changed;
+        if (failover) {
+            changed = loadFirstAvailable();
+        } else {
+            changed = executor == null ? loadInTurn() : loadAtOnce();
+        }
+        if (!changed && !initial) {
+            return PollResult.createIncremental(null, null, null, checkPoint);
+        }
+
+        final Map<String, Object> next = new HashMap<>();
+        for (Resource resource : failover ? ImmutableList.of(resources.get(active)) : resources) {
+            for (Map.Entry<Object, Object> entry : resource.properties.entrySet()) {
+                next.put((String) entry.getKey(), entry.getValue());
+            }
+        }
+        final Map<String, Object> previous = current;
+        current = next;
+        if (initial) {
+            return PollResult.createFull(next);
+        }
+        return PropertyChanges.between(previous, next, checkPoint);
+    }
+
+    private boolean loadInTurn() throws IOException {
+        boolean changed = false;
+        for (Resource resource : resources) {
+            changed |= resource.load();
+        }
+        return changed;
+    }
+
+    /* Switching to another url counts as a change, as its properties replace those of the previous one */
+    private boolean loadFirstAvailable() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < resources.size(); i++) {
+            final int index = (active + i) % resources.size();
+            try {
+                final boolean changed = resources.get(index).load();
+                if (index == active) {
+                    return changed;
+                }
+                LOGGER.warn("Failing over from {} to {}", resources.get(active).url, resources.get(index).url, failure);
+                active = index;
+                return true;
+            } catch (IOException err) {
+                if (failure == null) {
+                    failure = err;
+                } else {
+                    failure.addSuppressed(err);
+                }
+            }
+        }
+        if (failure == null) {
+            return false;
+        }
+        throw failure;
+    }
+
+    private boolean loadAtOnce() throws IOException {
+        final ExecutorCompletionService<Boolean> loads = new ExecutorCompletionService<>(executor);
+        for (Resource resource : resources) {
+            resource.aborted = false;
+            loads.submit(resource::load);
+        }
+        boolean changed = false;
+        IOException failure = null;
+        for (int i = 0; i < resources.size(); i++) {
+            try {
+                if (loads.take().get()) {
+                    changed = true;
+                    abortAll();
+                }
+            } catch (ExecutionException err) {
+                if (failure == null) {
+                    failure = err.getCause() instanceof IOException
+                            ? (IOException) err.getCause()
+                            : new IOException(err.getCause());
+                }
+                abortAll();
+            } catch (InterruptedException err) {
+                abortAll();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while polling " + this);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return changed;
+    }
+
+    private void abortAll() {
+        for (Resource resource : resources) {
+            resource.abort();
+        }
+    }
+
+    /**
+     * @return whether the server held the last poll until something changed or the long poll timed out, so that
+     * polling again right away doesn't hammer it
+     */
+    public synchronized boolean isHoldingPolls() {
+        for (Resource resource : failover ? ImmutableList.of(resources.get(active)) : resources) {
+            if (resource.held) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Gives up on held requests and stops the threads polling several urls at once */
+    @Override
+    public void close() {
+        abortAll();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("urls", resources.stream().map((resource) -> resource.url).collect(Collectors.toList()))
+                .toString();
+    }
+}
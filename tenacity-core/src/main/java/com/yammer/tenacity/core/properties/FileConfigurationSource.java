@@ -0,0 +1,90 @@
+package com.yammer.tenacity.core.properties;
+
+import com.google.common.base.MoreObjects;
+import com.netflix.config.PollResult;
+import com.netflix.config.PolledConfigurationSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads properties in the format Breakerbox serves them from a file, or from the *.properties files of a directory in
+ * the order of their names (later files overriding earlier ones), and reports only the properties that changed since
+ * the last poll. A path that doesn't exist (yet) has no properties.
+ */
+public class FileConfigurationSource implements PolledConfigurationSource {
+    private final Path path;
+    private Map<String, Object> current = Collections.emptyMap();
+
+    public FileConfigurationSource(Path path) {
+        this.path = checkNotNull(path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the directory whose changes may change the properties
+     */
+    public Path getDirectory() {
+        return Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+    }
+
+    @Override
+    public synchronized PollResult poll(boolean initial, Object checkPoint) throws IOException {
+        final Map<String, Object> next = new HashMap<>();
+        for (Path file : files()) {
+            final Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(file)) {
+                properties.load(input);
+            }
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                next.put((String) entry.getKey(), entry.getValue());
+            }
+        }
+        final Map<String, Object> previous = current;
+        current = next;
+        if (initial) {
+            return PollResult.createFull(next);
+        }
+        return PropertyChanges.between(previous, next, checkPoint);
+    }
+
+    private List<Path> files() throws IOException {
+        if (Files.isRegularFile(path)) {
+            return Collections.singletonList(path);
+        }
+        if (!Files.isDirectory(path)) {
+            return Collections.emptyList();
+        }
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(path, "*.properties")) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("path", path)
+                .toString();
+    }
+}
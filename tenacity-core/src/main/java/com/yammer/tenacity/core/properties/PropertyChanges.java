@@ -0,0 +1,33 @@
+package com.yammer.tenacity.core.properties;
+
+import com.netflix.config.PollResult;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class PropertyChanges {
+    private PropertyChanges() {}
+
+    /**
+     * @return the properties added, changed and deleted between previous and next, for Archaius to apply just those
+     */
+    static PollResult between(Map<String, Object> previous, Map<String, Object> next, Object checkPoint) {
+        final Map<String, Object> added = new HashMap<>();
+        final Map<String, Object> changed = new HashMap<>();
+        final Map<String, Object> deleted = new HashMap<>();
+        for (Map.Entry<String, Object> entry : next.entrySet()) {
+            final Object value = previous.get(entry.getKey());
+            if (value == null) {
+                added.put(entry.getKey(), entry.getValue());
+            } else if (!value.equals(entry.getValue())) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> entry : previous.entrySet()) {
+            if (!next.containsKey(entry.getKey())) {
+                deleted.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return PollResult.createIncremental(added, changed, deleted, checkPoint);
+    }
+}
@@ -0,0 +1,141 @@
+package com.yammer.tenacity.core.properties;
+
+import com.google.common.base.MoreObjects;
+import com.netflix.config.PollResult;
+import com.netflix.config.PolledConfigurationSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the last properties polled from another source in a snapshot file, and answers the initial poll from it when
+ * there is one, so startup applies the last known good configuration without waiting on (or for) the other source.
+ * The next poll goes to the other source and reports what changed since the snapshot. Closing it closes the other
+ * source.
+ */
+public class SnapshotConfigurationSource implements PolledConfigurationSource, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotConfigurationSource.class);
+    private final PolledConfigurationSource source;
+    private final Path snapshot;
+    private Map<String, Object> current = Collections.emptyMap();
+    private boolean sourceLoaded = false;
+
+    public SnapshotConfigurationSource(PolledConfigurationSource source, Path snapshot) {
+        this.source = checkNotNull(source);
+        this.snapshot = checkNotNull(snapshot);
+    }
+
+    public Path getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized PollResult poll(boolean initial, Object checkPoint) throws Exception {
+        if (initial && Files.isRegularFile(snapshot)) {
+            try {
+                current = read();
+                LOGGER.info("Applying the last known good configuration from {} until {} answers", snapshot, source);
+                return PollResult.createFull(current);
+            } catch (IOException err) {
+                LOGGER.warn("Unable to read the configuration snapshot {}", snapshot, err);
+            }
+        }
+
+        final PollResult result = source.poll(!sourceLoaded, checkPoint);
+        sourceLoaded = true;
+        if (result.isIncremental() && !result.hasChanges() && !initial) {
+            return result;
+        }
+        final Map<String, Object> next = result.isIncremental() ? apply(result) : complete(result);
+        final Map<String, Object> previous = current;
+        current = next;
+        write();
+        if (initial) {
+            return PollResult.createFull(next);
+        }
+        return PropertyChanges.between(previous, next, checkPoint);
+    }
+
+    private static Map<String, Object> complete(PollResult result) {
+        return result.getComplete() == null ? new HashMap<>() : new HashMap<>(result.getComplete());
+    }
+
+    private Map<String, Object> apply(PollResult result) {
+        final Map<String, Object> next = new HashMap<>(current);
+        if (result.getAdded() != null) {
+            next.putAll(result.getAdded());
+        }
+        if (result.getChanged() != null) {
+            next.putAll(result.getChanged());
+        }
+        if (result.getDeleted() != null) {
+            next.keySet().removeAll(result.getDeleted().keySet());
+        }
+        return next;
+    }
+
+    private Map<String, Object> read() throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(snapshot)) {
+            properties.load(input);
+        }
+        final Map<String, Object> read = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            read.put((String) entry.getKey(), entry.getValue());
+        }
+        return read;
+    }
+
+    /* Written aside and moved into place, so a crash never leaves a partial snapshot behind */
+    private void write() {
+        final Properties properties = new Properties();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+            properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        final Path written = snapshot.toAbsolutePath().resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            final Path directory = written.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            try {
+                try (OutputStream output = Files.newOutputStream(written)) {
+                    properties.store(output, "Last known good configuration from " + source);
+                }
+                Files.move(written, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(written);
+            }
+        } catch (IOException err) {
+            LOGGER.warn("Unable to write the configuration snapshot {}", snapshot, err);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source instanceof Closeable) {
+            ((Closeable) source).close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("source", source)
+                .add("snapshot", snapshot)
+                .toString();
+    }
+}
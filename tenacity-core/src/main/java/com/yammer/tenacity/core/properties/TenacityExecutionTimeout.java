@@ -0,0 +1,52 @@
+package com.yammer.tenacity.core.properties;
+
+import com.netflix.config.DynamicProperty;
+import com.netflix.config.DynamicPropertyFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The execution timeout of a key, kept up to date by Archaius callbacks so that reading it (e.g. from
+ * TenacityWebTarget on every request) is a single volatile read. It resolves the same way Hystrix does: the key's
+ * property, then hystrix.command.default, then Hystrix's own default.
+ */
+public class TenacityExecutionTimeout {
+    private static final String DEFAULT_PROPERTY = "hystrix.command.default.execution.isolation.thread.timeoutInMilliseconds";
+    private static final int DEFAULT_TIMEOUT_IN_MILLIS = 1000;
+    private static final ConcurrentMap<String, TenacityExecutionTimeout> TIMEOUTS = new ConcurrentHashMap<>();
+
+    private final DynamicProperty keyProperty;
+    private final DynamicProperty defaultProperty;
+    private volatile int timeoutInMillis;
+
+    private TenacityExecutionTimeout(TenacityPropertyKey key) {
+        /* Initialises Archaius, so the DynamicProperties below are backed by its configuration before callbacks are added */
+        DynamicPropertyFactory.getInstance();
+        this.keyProperty = DynamicProperty.getInstance(TenacityPropertyRegister.executionIsolationThreadTimeoutInMilliseconds(key));
+        this.defaultProperty = DynamicProperty.getInstance(DEFAULT_PROPERTY);
+        final Runnable refresh = this::refresh;
+        keyProperty.addCallback(refresh);
+        defaultProperty.addCallback(refresh);
+        refresh();
+    }
+
+    public static TenacityExecutionTimeout of(TenacityPropertyKey key) {
+        final TenacityExecutionTimeout timeout = TIMEOUTS.get(key.name());
+        return timeout != null ? timeout : TIMEOUTS.computeIfAbsent(key.name(), (name) -> new TenacityExecutionTimeout(key));
+    }
+
+    public int getTimeoutInMillis() {
+        return timeoutInMillis;
+    }
+
+    private void refresh() {
+        final Integer keyTimeout = keyProperty.getInteger(null);
+        if (keyTimeout != null) {
+            timeoutInMillis = keyTimeout;
+            return;
+        }
+        final Integer defaultTimeout = defaultProperty.getInteger(null);
+        timeoutInMillis = defaultTimeout != null ? defaultTimeout : DEFAULT_TIMEOUT_IN_MILLIS;
+    }
+}
@@ -13,6 +13,9 @@ public interface TenacityPropertyKey extends HystrixCommandKey, HystrixThreadPoo
     }
 
     default TenacityPropertyKey validate(Collection<TenacityPropertyKey> keys) {
+        if (keys instanceof TenacityPropertyKeyRegistry) {
+            return ((TenacityPropertyKeyRegistry) keys).validate(this);
+        }
         return keys.stream()
                 .filter(isEqualPredicate())
                 .findAny()
@@ -0,0 +1,54 @@
+package com.yammer.tenacity.core.properties;
+
+import com.google.common.collect.ForwardingCollection;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * An immutable collection of keys indexed by name. TenacityPropertyKey.validate and CircuitBreakers.find look keys up
+ * in the index instead of scanning, so hand this to anything that resolves keys per request.
+ */
+public class TenacityPropertyKeyRegistry extends ForwardingCollection<TenacityPropertyKey> {
+    private final ImmutableList<TenacityPropertyKey> keys;
+    private final ImmutableMap<String, TenacityPropertyKey> keysByName;
+
+    private TenacityPropertyKeyRegistry(Iterable<TenacityPropertyKey> keys) {
+        final Map<String, TenacityPropertyKey> byName = new LinkedHashMap<>();
+        for (TenacityPropertyKey key : keys) {
+            byName.putIfAbsent(key.name(), key);
+        }
+        this.keys = ImmutableList.copyOf(keys);
+        this.keysByName = ImmutableMap.copyOf(byName);
+    }
+
+    public static TenacityPropertyKeyRegistry of(Iterable<TenacityPropertyKey> keys) {
+        if (keys instanceof TenacityPropertyKeyRegistry) {
+            return (TenacityPropertyKeyRegistry) keys;
+        }
+        return new TenacityPropertyKeyRegistry(keys);
+    }
+
+    public static TenacityPropertyKeyRegistry of(TenacityPropertyKey... keys) {
+        return of(ImmutableList.copyOf(keys));
+    }
+
+    @Override
+    protected Collection<TenacityPropertyKey> delegate() {
+        return keys;
+    }
+
+    public Optional<TenacityPropertyKey> find(String name) {
+        return Optional.ofNullable(keysByName.get(name));
+    }
+
+    public TenacityPropertyKey validate(TenacityPropertyKey key) {
+        return find(key.name())
+                .orElseThrow(() -> new NoSuchElementException("No TenacityPropertyKey " + key.name()));
+    }
+}
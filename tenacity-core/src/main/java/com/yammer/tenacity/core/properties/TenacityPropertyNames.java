@@ -0,0 +1,77 @@
+package com.yammer.tenacity.core.properties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archaius property names for every registered key, built once so that hot paths (e.g. looking up the timeout of a
+ * key on every request) don't have to format them over and over. Unregistered keys still work, their names are just
+ * built on demand.
+ */
+final class TenacityPropertyNames {
+    enum Property {
+        EXECUTION_ISOLATION_THREAD_TIMEOUT_IN_MILLISECONDS("hystrix.command.", ".execution.isolation.thread.timeoutInMilliseconds"),
+        CIRCUIT_BREAKER_REQUEST_VOLUME_THRESHOLD("hystrix.command.", ".circuitBreaker.requestVolumeThreshold"),
+        CIRCUIT_BREAKER_SLEEP_WINDOW_IN_MILLISECONDS("hystrix.command.", ".circuitBreaker.sleepWindowInMilliseconds"),
+        CIRCUIT_BREAKER_ERROR_THRESHOLD_PERCENTAGE("hystrix.command.", ".circuitBreaker.errorThresholdPercentage"),
+        CIRCUIT_BREAKER_METRICS_ROLLING_STATS_TIME_IN_MILLISECONDS("hystrix.command.", ".metrics.rollingStats.timeInMilliseconds"),
+        CIRCUIT_BREAKER_METRICS_ROLLING_STATS_NUM_BUCKETS("hystrix.command.", ".metrics.rollingStats.numBuckets"),
+        THREADPOOL_METRICS_ROLLING_STATS_TIME_IN_MILLISECONDS("hystrix.threadpool.", ".metrics.rollingStats.timeInMilliseconds"),
+        THREADPOOL_METRICS_ROLLING_STATS_NUM_BUCKETS("hystrix.threadpool.", ".metrics.rollingStats.numBuckets"),
+        THREADPOOL_CORE_SIZE("hystrix.threadpool.", ".coreSize"),
+        THREADPOOL_KEEP_ALIVE_TIME_MINUTES("hystrix.threadpool.", ".keepAliveTimeMinutes"),
+        THREADPOOL_QUEUE_SIZE_REJECTION_THRESHOLD("hystrix.threadpool.", ".queueSizeRejectionThreshold"),
+        THREADPOOL_MAX_QUEUE_SIZE("hystrix.threadpool.", ".maxQueueSize"),
+        THREADPOOL_VIRTUAL_THREADS("tenacity.threadpool.", ".virtualThreads"),
+        SEMAPHORE_MAX_CONCURRENT_REQUESTS("hystrix.command.", ".execution.isolation.semaphore.maxConcurrentRequests"),
+        SEMAPHORE_FALLBACK_MAX_CONCURRENT_REQUESTS("hystrix.command.", ".fallback.isolation.semaphore.maxConcurrentRequests"),
+        EXECUTION_ISOLATION_STRATEGY("hystrix.command.", ".execution.isolation.strategy"),
+        ADAPTIVE_LIMIT_ALGORITHM("tenacity.command.", ".adaptiveLimit.algorithm"),
+        ADAPTIVE_LIMIT_MIN_LIMIT("tenacity.command.", ".adaptiveLimit.minLimit"),
+        ADAPTIVE_LIMIT_MAX_LIMIT("tenacity.command.", ".adaptiveLimit.maxLimit"),
+        ADAPTIVE_LIMIT_BACKOFF_RATIO("tenacity.command.", ".adaptiveLimit.backoffRatio"),
+        ADAPTIVE_LIMIT_SMOOTHING("tenacity.command.", ".adaptiveLimit.smoothing"),
+        LOAD_SHEDDING_CRITICAL_RESERVE("tenacity.command.", ".loadShedding.criticalReserve"),
+        LOAD_SHEDDING_SHEDDABLE_LIMIT("tenacity.command.", ".loadShedding.sheddableLimit"),
+        CIRCUIT_BREAKER_FORCE_OPEN("hystrix.command.", ".circuitBreaker.forceOpen"),
+        CIRCUIT_BREAKER_FORCE_CLOSED("hystrix.command.", ".circuitBreaker.forceClosed"),
+        COLLAPSER_MAX_REQUESTS_IN_BATCH("hystrix.collapser.", ".maxRequestsInBatch"),
+        COLLAPSER_TIMER_DELAY_IN_MILLISECONDS("hystrix.collapser.", ".timerDelayInMilliseconds"),
+        COLLAPSER_REQUEST_CACHE_ENABLED("hystrix.collapser.", ".requestCache.enabled");
+
+        private final String prefix;
+        private final String suffix;
+
+        Property(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        String of(String keyName) {
+            return prefix + keyName + suffix;
+        }
+    }
+
+    private static final Property[] PROPERTIES = Property.values();
+    private static final Map<String, String[]> REGISTERED = new ConcurrentHashMap<>();
+
+    private TenacityPropertyNames() {}
+
+    static void register(TenacityPropertyKey key) {
+        REGISTERED.computeIfAbsent(key.name(), TenacityPropertyNames::build);
+    }
+
+    static String get(TenacityPropertyKey key, Property property) {
+        final String keyName = key.name();
+        final String[] names = REGISTERED.get(keyName);
+        return names != null ? names[property.ordinal()] : property.of(keyName);
+    }
+
+    private static String[] build(String keyName) {
+        final String[] names = new String[PROPERTIES.length];
+        for (Property property : PROPERTIES) {
+            names[property.ordinal()] = property.of(keyName).intern();
+        }
+        return names;
+    }
+}
@@ -52,6 +52,8 @@ public class TenacityPropertyRegister {
     private void registerConfiguration(TenacityPropertyKey key,
                                        TenacityConfiguration configuration,
                                        AbstractConfiguration configInstance) {
+        TenacityPropertyNames.register(key);
+
         configInstance.setProperty(
                 executionIsolationThreadTimeoutInMilliseconds(key),
                 configuration.getExecutionIsolationThreadTimeoutInMillis());
@@ -100,6 +102,10 @@ public class TenacityPropertyRegister {
                 threadpoolMetricsRollingStatsTimeInMilliseconds(key),
                 configuration.getThreadpool().getMetricsRollingStatisticalWindowInMilliseconds());
 
+        configInstance.setProperty(
+                threadpoolVirtualThreads(key),
+                configuration.getThreadpool().isVirtualThreads());
+
         configInstance.setProperty(
                 semaphoreMaxConcurrentRequests(key),
                 configuration.getSemaphore().getMaxConcurrentRequests());
@@ -108,6 +114,48 @@ public class TenacityPropertyRegister {
                 semaphoreFallbackMaxConcurrentRequests(key),
                 configuration.getSemaphore().getFallbackMaxConcurrentRequests());
 
+        configInstance.setProperty(
+                adaptiveLimitAlgorithm(key),
+                configuration.getAdaptiveLimit().getAlgorithm());
+
+        configInstance.setProperty(
+                adaptiveLimitMinLimit(key),
+                configuration.getAdaptiveLimit().getMinLimit());
+
+        configInstance.setProperty(
+                adaptiveLimitMaxLimit(key),
+                configuration.getAdaptiveLimit().getMaxLimit());
+
+        configInstance.setProperty(
+                adaptiveLimitBackoffRatio(key),
+                configuration.getAdaptiveLimit().getBackoffRatio());
+
+        configInstance.setProperty(
+                adaptiveLimitSmoothing(key),
+                configuration.getAdaptiveLimit().getSmoothing());
+
+        configInstance.setProperty(
+                loadSheddingCriticalReserve(key),
+                configuration.getLoadShedding().getCriticalReserve());
+
+        configInstance.setProperty(
+                loadSheddingSheddableLimit(key),
+                configuration.getLoadShedding().getSheddableLimit());
+
+        if (configuration.hasCollapser()) {
+            configInstance.setProperty(
+                    collapserMaxRequestsInBatch(key),
+                    configuration.getCollapser().getMaxRequestsInBatch());
+
+            configInstance.setProperty(
+                    collapserTimerDelayInMilliseconds(key),
+                    configuration.getCollapser().getTimerDelayInMillis());
+
+            configInstance.setProperty(
+                    collapserRequestCacheEnabled(key),
+                    configuration.getCollapser().isRequestCacheEnabled());
+        }
+
         if (configuration.hasExecutionIsolationStrategy()) {
             configInstance.setProperty(
                     executionIsolationStrategy(key),
@@ -127,70 +175,114 @@ public class TenacityPropertyRegister {
     }
 
     public static String executionIsolationThreadTimeoutInMilliseconds(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.execution.isolation.thread.timeoutInMilliseconds", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.EXECUTION_ISOLATION_THREAD_TIMEOUT_IN_MILLISECONDS);
     }
 
     public static String circuitBreakerRequestVolumeThreshold(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.circuitBreaker.requestVolumeThreshold", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_REQUEST_VOLUME_THRESHOLD);
     }
 
     public static String circuitBreakerSleepWindowInMilliseconds(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.circuitBreaker.sleepWindowInMilliseconds", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_SLEEP_WINDOW_IN_MILLISECONDS);
     }
 
     public static String circuitBreakerErrorThresholdPercentage(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.circuitBreaker.errorThresholdPercentage", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_ERROR_THRESHOLD_PERCENTAGE);
     }
 
     public static String circuitBreakermetricsRollingStatsTimeInMilliseconds(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.metrics.rollingStats.timeInMilliseconds", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_METRICS_ROLLING_STATS_TIME_IN_MILLISECONDS);
     }
 
     public static String circuitBreakermetricsRollingStatsNumBuckets(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.metrics.rollingStats.numBuckets", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_METRICS_ROLLING_STATS_NUM_BUCKETS);
     }
 
     public static String threadpoolMetricsRollingStatsTimeInMilliseconds(TenacityPropertyKey key) {
-        return String.format("hystrix.threadpool.%s.metrics.rollingStats.timeInMilliseconds", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_METRICS_ROLLING_STATS_TIME_IN_MILLISECONDS);
     }
 
     public static String threadpoolMetricsRollingStatsNumBuckets(TenacityPropertyKey key) {
-        return String.format("hystrix.threadpool.%s.metrics.rollingStats.numBuckets", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_METRICS_ROLLING_STATS_NUM_BUCKETS);
     }
 
     public static String threadpoolCoreSize(TenacityPropertyKey key) {
-        return String.format("hystrix.threadpool.%s.coreSize", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_CORE_SIZE);
     }
 
     public static String threadpoolKeepAliveTimeMinutes(TenacityPropertyKey key) {
-        return String.format("hystrix.threadpool.%s.keepAliveTimeMinutes", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_KEEP_ALIVE_TIME_MINUTES);
     }
 
     public static String threadpoolQueueSizeRejectionThreshold(TenacityPropertyKey key) {
-        return String.format("hystrix.threadpool.%s.queueSizeRejectionThreshold", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_QUEUE_SIZE_REJECTION_THRESHOLD);
     }
 
     public static String threadpoolMaxQueueSize(TenacityPropertyKey key) {
-        return String.format("hystrix.threadpool.%s.maxQueueSize", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_MAX_QUEUE_SIZE);
+    }
+
+    public static String threadpoolVirtualThreads(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.THREADPOOL_VIRTUAL_THREADS);
     }
 
     public static String semaphoreMaxConcurrentRequests(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.execution.isolation.semaphore.maxConcurrentRequests", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.SEMAPHORE_MAX_CONCURRENT_REQUESTS);
     }
 
     public static String semaphoreFallbackMaxConcurrentRequests(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.fallback.isolation.semaphore.maxConcurrentRequests", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.SEMAPHORE_FALLBACK_MAX_CONCURRENT_REQUESTS);
     }
 
     public static String executionIsolationStrategy(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.execution.isolation.strategy", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.EXECUTION_ISOLATION_STRATEGY);
+    }
+
+    public static String adaptiveLimitAlgorithm(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.ADAPTIVE_LIMIT_ALGORITHM);
+    }
+
+    public static String adaptiveLimitMinLimit(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.ADAPTIVE_LIMIT_MIN_LIMIT);
+    }
+
+    public static String adaptiveLimitMaxLimit(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.ADAPTIVE_LIMIT_MAX_LIMIT);
+    }
+
+    public static String adaptiveLimitBackoffRatio(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.ADAPTIVE_LIMIT_BACKOFF_RATIO);
+    }
+
+    public static String adaptiveLimitSmoothing(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.ADAPTIVE_LIMIT_SMOOTHING);
+    }
+
+    public static String loadSheddingCriticalReserve(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.LOAD_SHEDDING_CRITICAL_RESERVE);
+    }
+
+    public static String loadSheddingSheddableLimit(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.LOAD_SHEDDING_SHEDDABLE_LIMIT);
     }
 
     public static String circuitBreakerForceOpen(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.circuitBreaker.forceOpen", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_FORCE_OPEN);
     }
 
     public static String circuitBreakerForceClosed(TenacityPropertyKey key) {
-        return String.format("hystrix.command.%s.circuitBreaker.forceClosed", key.name());
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.CIRCUIT_BREAKER_FORCE_CLOSED);
+    }
+
+    public static String collapserMaxRequestsInBatch(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.COLLAPSER_MAX_REQUESTS_IN_BATCH);
+    }
+
+    public static String collapserTimerDelayInMilliseconds(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.COLLAPSER_TIMER_DELAY_IN_MILLISECONDS);
+    }
+
+    public static String collapserRequestCacheEnabled(TenacityPropertyKey key) {
+        return TenacityPropertyNames.get(key, TenacityPropertyNames.Property.COLLAPSER_REQUEST_CACHE_ENABLED);
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.yammer.tenacity.core.properties;
 
+import com.netflix.config.DynamicPropertyFactory;
 import com.netflix.hystrix.HystrixCommandProperties;
 import com.netflix.hystrix.HystrixThreadPoolProperties;
 import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.AdaptiveLimitConfiguration;
 import com.yammer.tenacity.core.config.CircuitBreakerConfiguration;
+import com.yammer.tenacity.core.config.CollapserConfiguration;
+import com.yammer.tenacity.core.config.LoadSheddingConfiguration;
 import com.yammer.tenacity.core.config.SemaphoreConfiguration;
 import com.yammer.tenacity.core.config.TenacityConfiguration;
 import com.yammer.tenacity.core.config.ThreadPoolConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TenacityPropertyStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenacityPropertyStore.class);
+
     private TenacityPropertyStore() {}
 
     public static TenacityConfiguration getTenacityConfiguration(TenacityPropertyKey key) {
@@ -21,7 +29,8 @@ public class TenacityPropertyStore {
                         threadPoolProperties.maxQueueSize().get(),
                         threadPoolProperties.queueSizeRejectionThreshold().get(),
                         threadPoolProperties.metricsRollingStatisticalWindowInMilliseconds().get(),
-                        threadPoolProperties.metricsRollingStatisticalWindowBuckets().get()),
+                        threadPoolProperties.metricsRollingStatisticalWindowBuckets().get(),
+                        isVirtualThreads(key)),
                 new CircuitBreakerConfiguration(
                         commandProperties.circuitBreakerRequestVolumeThreshold().get(),
                         commandProperties.circuitBreakerSleepWindowInMilliseconds().get(),
@@ -32,6 +41,58 @@ public class TenacityPropertyStore {
                         commandProperties.executionIsolationSemaphoreMaxConcurrentRequests().get(),
                         commandProperties.fallbackIsolationSemaphoreMaxConcurrentRequests().get()),
                 commandProperties.executionTimeoutInMilliseconds().get(),
-                commandProperties.executionIsolationStrategy().get());
+                commandProperties.executionIsolationStrategy().get(),
+                getAdaptiveLimitConfiguration(key),
+                getCollapserConfiguration(key),
+                getLoadSheddingConfiguration(key));
+    }
+
+    public static LoadSheddingConfiguration getLoadSheddingConfiguration(TenacityPropertyKey key) {
+        final LoadSheddingConfiguration defaults = new LoadSheddingConfiguration();
+        final DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        return new LoadSheddingConfiguration(
+                propertyFactory.getDoubleProperty(TenacityPropertyRegister.loadSheddingCriticalReserve(key), defaults.getCriticalReserve()).get(),
+                propertyFactory.getDoubleProperty(TenacityPropertyRegister.loadSheddingSheddableLimit(key), defaults.getSheddableLimit()).get());
+    }
+
+    public static CollapserConfiguration getCollapserConfiguration(TenacityPropertyKey key) {
+        final CollapserConfiguration defaults = new CollapserConfiguration();
+        final DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        return new CollapserConfiguration(
+                propertyFactory.getIntProperty(TenacityPropertyRegister.collapserMaxRequestsInBatch(key), defaults.getMaxRequestsInBatch()).get(),
+                propertyFactory.getIntProperty(TenacityPropertyRegister.collapserTimerDelayInMilliseconds(key), defaults.getTimerDelayInMillis()).get(),
+                propertyFactory.getBooleanProperty(TenacityPropertyRegister.collapserRequestCacheEnabled(key), defaults.isRequestCacheEnabled()).get());
+    }
+
+    public static AdaptiveLimitConfiguration getAdaptiveLimitConfiguration(TenacityPropertyKey key) {
+        final AdaptiveLimitConfiguration defaults = new AdaptiveLimitConfiguration();
+        final DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+        return new AdaptiveLimitConfiguration(
+                getAdaptiveLimitAlgorithm(key, defaults.getAlgorithm()),
+                propertyFactory.getIntProperty(TenacityPropertyRegister.adaptiveLimitMinLimit(key), defaults.getMinLimit()).get(),
+                propertyFactory.getIntProperty(TenacityPropertyRegister.adaptiveLimitMaxLimit(key), defaults.getMaxLimit()).get(),
+                propertyFactory.getDoubleProperty(TenacityPropertyRegister.adaptiveLimitBackoffRatio(key), defaults.getBackoffRatio()).get(),
+                propertyFactory.getDoubleProperty(TenacityPropertyRegister.adaptiveLimitSmoothing(key), defaults.getSmoothing()).get());
+    }
+
+    private static AdaptiveLimitConfiguration.Algorithm getAdaptiveLimitAlgorithm(
+            TenacityPropertyKey key, AdaptiveLimitConfiguration.Algorithm defaultAlgorithm) {
+        final String algorithm = DynamicPropertyFactory
+                .getInstance()
+                .getStringProperty(TenacityPropertyRegister.adaptiveLimitAlgorithm(key), defaultAlgorithm.name())
+                .get();
+        try {
+            return AdaptiveLimitConfiguration.Algorithm.valueOf(algorithm.trim().toUpperCase());
+        } catch (IllegalArgumentException err) {
+            LOGGER.warn("Unknown adaptive limit algorithm {} for {}, using {}", algorithm, key, defaultAlgorithm);
+            return defaultAlgorithm;
+        }
+    }
+
+    public static boolean isVirtualThreads(TenacityPropertyKey key) {
+        return DynamicPropertyFactory
+                .getInstance()
+                .getBooleanProperty(TenacityPropertyRegister.threadpoolVirtualThreads(key), false)
+                .get();
     }
 }
\ No newline at end of file
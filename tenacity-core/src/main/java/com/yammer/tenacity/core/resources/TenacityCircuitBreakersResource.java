@@ -1,17 +1,24 @@
 package com.yammer.tenacity.core.resources;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yammer.tenacity.core.core.CircuitBreaker;
+import com.yammer.tenacity.core.core.CircuitBreakerEventStream;
 import com.yammer.tenacity.core.core.CircuitBreakers;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
 import com.yammer.tenacity.core.properties.TenacityPropertyKeyFactory;
 import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import io.dropwizard.jackson.Jackson;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -20,13 +27,22 @@ import java.util.Optional;
 public class TenacityCircuitBreakersResource {
     private static final Logger LOGGER = LoggerFactory.getLogger(TenacityCircuitBreakersResource.class);
     public static final String PATH = "/tenacity/circuitbreakers";
+    public static final String STREAM_PATH = "stream";
     private final Collection<TenacityPropertyKey> keys;
     private final TenacityPropertyKeyFactory keyFactory;
+    private final CircuitBreakerEventStream eventStream;
 
     public TenacityCircuitBreakersResource(Collection<TenacityPropertyKey> keys,
                                            TenacityPropertyKeyFactory keyFactory) {
+        this(keys, keyFactory, Jackson.newObjectMapper());
+    }
+
+    public TenacityCircuitBreakersResource(Collection<TenacityPropertyKey> keys,
+                                           TenacityPropertyKeyFactory keyFactory,
+                                           ObjectMapper objectMapper) {
         this.keys = keys;
         this.keyFactory = keyFactory;
+        this.eventStream = new CircuitBreakerEventStream(keys, objectMapper);
     }
 
     @GET
@@ -36,6 +52,21 @@ public class TenacityCircuitBreakersResource {
         return CircuitBreakers.all(keys);
     }
 
+    @GET
+    @Path(STREAM_PATH)
+    @Produces(SseFeature.SERVER_SENT_EVENTS)
+    public Response stream() {
+        final EventOutput output = new EventOutput();
+        eventStream.open(new EventOutputClient(output));
+        return Response.ok(output)
+                .header("Cache-Control", "no-cache")
+                .build();
+    }
+
+    public CircuitBreakerEventStream getEventStream() {
+        return eventStream;
+    }
+
     @GET
     @Timed
     @Path("{key}")
@@ -85,4 +116,33 @@ public class TenacityCircuitBreakersResource {
         }
         return Response.status(Response.Status.NOT_FOUND).build();
     }
-}
\ No newline at end of file
+
+    /* EventOutput writes block, but only hold up this client's own writer */
+    private static class EventOutputClient implements CircuitBreakerEventStream.Client {
+        private static final OutboundEvent HEARTBEAT = new OutboundEvent.Builder().comment("").build();
+        private final EventOutput output;
+
+        private EventOutputClient(EventOutput output) {
+            this.output = output;
+        }
+
+        @Override
+        public void send(String data) throws IOException {
+            output.write(new OutboundEvent.Builder().data(data).build());
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            output.write(HEARTBEAT);
+        }
+
+        @Override
+        public void close() {
+            try {
+                output.close();
+            } catch (IOException err) {
+                LOGGER.debug("Unable to close circuit breaker stream", err);
+            }
+        }
+    }
+}
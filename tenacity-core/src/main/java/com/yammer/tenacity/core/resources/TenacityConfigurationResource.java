@@ -3,6 +3,7 @@ package com.yammer.tenacity.core.resources;
 import com.codahale.metrics.annotation.Timed;
 import com.yammer.tenacity.core.properties.TenacityPropertyKeyFactory;
 import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import com.yammer.tenacity.core.retry.Retrying;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -16,6 +17,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Path(TenacityConfigurationResource.PATH)
 public class TenacityConfigurationResource {
     public static final String PATH = "/tenacity/configuration";
+    public static final String RETRY_BUDGET_PATH = "retryBudget";
     private final TenacityPropertyKeyFactory factory;
 
     public TenacityConfigurationResource(TenacityPropertyKeyFactory factory) {
@@ -30,4 +32,15 @@ public class TenacityConfigurationResource {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
     }
+
+    @GET @Timed @Produces(MediaType.APPLICATION_JSON) @Path("{key}/" + RETRY_BUDGET_PATH)
+    public Response getRetryBudget(@PathParam("key") String key) {
+        try {
+            return Retrying.getBudget(factory.from(key))
+                    .map((budget) -> Response.ok(budget).build())
+                    .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+        } catch (IllegalArgumentException err) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.yammer.tenacity.core.resources;
+
+import com.codahale.metrics.annotation.Timed;
+import com.yammer.tenacity.core.metrics.TenacityPrometheusExporter;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+@Path(TenacityPrometheusResource.PATH)
+public class TenacityPrometheusResource {
+    public static final String PATH = "/tenacity/metrics";
+    private final TenacityPrometheusExporter exporter;
+
+    public TenacityPrometheusResource(TenacityPrometheusExporter exporter) {
+        this.exporter = checkNotNull(exporter);
+    }
+
+    public TenacityPrometheusExporter getExporter() {
+        return exporter;
+    }
+
+    @GET @Timed @Produces(TenacityPrometheusExporter.CONTENT_TYPE)
+    public StreamingOutput metrics() {
+        return (output) -> exporter.write(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+}
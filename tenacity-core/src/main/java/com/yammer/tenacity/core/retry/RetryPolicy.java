@@ -0,0 +1,80 @@
+package com.yammer.tenacity.core.retry;
+
+import com.google.common.base.MoreObjects;
+import io.dropwizard.util.Duration;
+
+import java.util.function.Predicate;
+
+/**
+ * How often to try a command (maxAttempts includes the first attempt) and how long to wait in between: a random delay
+ * of up to initialBackoff * 2^(retry - 1), capped at maxBackoff ("full jitter"). Only failures and timeouts whose cause
+ * matches retryable are retried, and only while the key's retry budget allows it. See Retrying.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Predicate<Throwable> retryable;
+    private final double budgetRatio;
+    private final int maxBudget;
+
+    public RetryPolicy(int maxAttempts) {
+        this(maxAttempts, (err) -> true);
+    }
+
+    public RetryPolicy(int maxAttempts, Predicate<Throwable> retryable) {
+        this(maxAttempts, Duration.milliseconds(10), Duration.seconds(1), retryable, 0.1, 10);
+    }
+
+    public RetryPolicy(int maxAttempts,
+                       Duration initialBackoff,
+                       Duration maxBackoff,
+                       Predicate<Throwable> retryable,
+                       double budgetRatio,
+                       int maxBudget) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retryable = retryable;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = maxBudget;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public Predicate<Throwable> getRetryable() {
+        return retryable;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("maxAttempts", maxAttempts)
+                .add("initialBackoff", initialBackoff)
+                .add("maxBackoff", maxBackoff)
+                .add("budgetRatio", budgetRatio)
+                .add("maxBudget", maxBudget)
+                .toString();
+    }
+}
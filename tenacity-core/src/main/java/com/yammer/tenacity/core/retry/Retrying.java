@@ -0,0 +1,134 @@
+package com.yammer.tenacity.core.retry;
+
+import com.netflix.hystrix.HystrixInvokableInfo;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.exception.HystrixTimeoutException;
+import com.yammer.tenacity.core.core.TokenBudget;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Retries attempts that failed with a COMMAND_EXCEPTION or TIMEOUT. Rejections and short circuits are never retried,
+ * since retrying is what makes a saturated dependency worse. Every retry costs a token from the key's budget, which
+ * first attempts refill, so retries stay a bounded fraction of the traffic to the key; the first policy used with a key
+ * sizes its budget.
+ *
+ * Each attempt is a command of its own. Its fallback should first ask its Attempt whether the failure is retried, and
+ * give way to the retry by throwing UnsupportedOperationException (Hystrix's "no fallback") if it is. So only the last
+ * attempt falls back, inside its command, with its fallback isolation and metrics.
+ */
+public class Retrying {
+    private static final ConcurrentMap<String, TokenBudget> BUDGETS = new ConcurrentHashMap<>();
+
+    private Retrying() {}
+
+    /**
+     * One attempt of a retried execution, which decides whether the attempt's failure is retried.
+     */
+    public static class Attempt {
+        private final RetryPolicy policy;
+        private final TokenBudget budget;
+        private final int number;
+        private Boolean retried;
+
+        private Attempt(RetryPolicy policy, TokenBudget budget, int number) {
+            this.policy = policy;
+            this.budget = budget;
+            this.number = number;
+        }
+
+        /**
+         * For the attempt's fallback: whether the command's failure is retried. Decided once, spending a token from
+         * the budget if it is.
+         */
+        public synchronized boolean isRetried(HystrixInvokableInfo<?> command) {
+            if (retried == null) {
+                if (command.isResponseTimedOut()) {
+                    retried = decide(HystrixRuntimeException.FailureType.TIMEOUT, new HystrixTimeoutException());
+                } else if (command.isFailedExecution()) {
+                    retried = decide(HystrixRuntimeException.FailureType.COMMAND_EXCEPTION,
+                            command.getFailedExecutionException());
+                } else {
+                    retried = false;
+                }
+            }
+            return retried;
+        }
+
+        private synchronized boolean isRetried(Throwable err) {
+            if (retried == null) {
+                if (err instanceof HystrixRuntimeException) {
+                    final HystrixRuntimeException hystrixException = (HystrixRuntimeException) err;
+                    retried = decide(hystrixException.getFailureType(),
+                            hystrixException.getCause() != null ? hystrixException.getCause() : err);
+                } else {
+                    retried = false;
+                }
+            }
+            return retried;
+        }
+
+        private boolean decide(HystrixRuntimeException.FailureType failureType, Throwable cause) {
+            switch (failureType) {
+                case COMMAND_EXCEPTION:
+                case TIMEOUT:
+                    return number < policy.getMaxAttempts()
+                            && policy.getRetryable().test(cause)
+                            && budget.tryWithdraw();
+                default:
+                    return false;
+            }
+        }
+    }
+
+    public static <R> Observable<R> retry(TenacityPropertyKey key,
+                                          RetryPolicy policy,
+                                          Function<Attempt, Observable<R>> attempt) {
+        return Observable.defer(() -> {
+            final TokenBudget budget = BUDGETS.computeIfAbsent(key.name(),
+                    (name) -> new TokenBudget(policy.getBudgetRatio(), policy.getMaxBudget()));
+            budget.deposit();
+            return attempt(policy, budget, attempt, 1);
+        });
+    }
+
+    public static Optional<TokenBudget> getBudget(TenacityPropertyKey key) {
+        return Optional.ofNullable(BUDGETS.get(key.name()));
+    }
+
+    /**
+     * Forgets every key's budget, for when Hystrix is reset.
+     */
+    public static void reset() {
+        BUDGETS.clear();
+    }
+
+    private static <R> Observable<R> attempt(RetryPolicy policy,
+                                             TokenBudget budget,
+                                             Function<Attempt, Observable<R>> attempt,
+                                             int number) {
+        final Attempt current = new Attempt(policy, budget, number);
+        return attempt.apply(current).onErrorResumeNext((err) -> {
+            if (!current.isRetried(err)) {
+                return Observable.error(err);
+            }
+            return Observable
+                    .timer(backoffInMillis(policy, number), TimeUnit.MILLISECONDS, Schedulers.io())
+                    .flatMap((tick) -> attempt(policy, budget, attempt, number + 1));
+        });
+    }
+
+    private static long backoffInMillis(RetryPolicy policy, int retry) {
+        final long ceiling = Math.min(policy.getMaxBackoff().toMilliseconds(),
+                policy.getInitialBackoff().toMilliseconds() << Math.min(retry - 1, 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
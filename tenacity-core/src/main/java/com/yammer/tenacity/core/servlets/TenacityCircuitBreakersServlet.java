@@ -2,10 +2,17 @@ package com.yammer.tenacity.core.servlets;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.io.CharStreams;
+import com.yammer.tenacity.core.core.CircuitBreakerEventStream;
 import com.yammer.tenacity.core.resources.TenacityCircuitBreakersResource;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import rx.subscriptions.SerialSubscription;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.HttpHeaders;
@@ -13,6 +20,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
@@ -32,6 +41,12 @@ public class TenacityCircuitBreakersServlet extends TenacityServlet {
         final String path = req.getPathInfo();
         if (path == null || path.isEmpty() || path.equals("/")) {
             writeResponse(resp, circuitBreakersResource.circuitBreakers());
+        } else if (path.equals("/" + TenacityCircuitBreakersResource.STREAM_PATH)) {
+            resp.setStatus(HttpServletResponse.SC_OK);
+            resp.setContentType(CircuitBreakerEventStream.MEDIA_TYPE);
+            resp.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            resp.setHeader("Cache-Control", "no-cache");
+            stream(req, resp);
         } else if (byName.matcher(path).matches()) {
             final String key = path.trim().substring(1);
             writeResponse(resp, circuitBreakersResource.getCircuitBreaker(key));
@@ -40,6 +55,106 @@ public class TenacityCircuitBreakersServlet extends TenacityServlet {
         }
     }
 
+    /*
+     * Needs the servlet to be registered with async support. The request thread returns straight away, and the output is
+     * written without blocking: what the client isn't ready for waits for the container to say it is, and a client
+     * with more than 64KiB waiting is closed.
+     */
+    private void stream(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        final AsyncContext asyncContext = req.startAsync();
+        asyncContext.setTimeout(0);
+        final SerialSubscription subscription = new SerialSubscription();
+        final OutputStreamClient client = new OutputStreamClient(resp.getOutputStream(), asyncContext);
+        resp.getOutputStream().setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() throws IOException {
+                client.drain();
+            }
+
+            @Override
+            public void onError(Throwable err) {
+                subscription.unsubscribe();
+            }
+        });
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                subscription.unsubscribe();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                subscription.unsubscribe();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                subscription.unsubscribe();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        subscription.set(circuitBreakersResource.getEventStream().open(client));
+    }
+
+    private static class OutputStreamClient implements CircuitBreakerEventStream.Client {
+        private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+        private static final int MAX_PENDING_BYTES = 64 * 1024;
+        private final ServletOutputStream output;
+        private final AsyncContext asyncContext;
+        private final Queue<byte[]> pending = new ArrayDeque<>();
+        private int pendingBytes = 0;
+        private boolean unflushed = false;
+
+        private OutputStreamClient(ServletOutputStream output, AsyncContext asyncContext) {
+            this.output = output;
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void send(String data) throws IOException {
+            write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            write(HEARTBEAT);
+        }
+
+        private synchronized void write(byte[] bytes) throws IOException {
+            if (pendingBytes + bytes.length > MAX_PENDING_BYTES) {
+                throw new IOException("Circuit breaker stream client isn't keeping up");
+            }
+            pending.add(bytes);
+            pendingBytes += bytes.length;
+            drain();
+        }
+
+        /* Writes and flushes for as long as the output is ready, the container calls onWritePossible() once it is again */
+        private synchronized void drain() throws IOException {
+            while (output.isReady()) {
+                final byte[] bytes = pending.poll();
+                if (bytes != null) {
+                    pendingBytes -= bytes.length;
+                    output.write(bytes);
+                    unflushed = true;
+                } else if (unflushed) {
+                    output.flush();
+                    unflushed = false;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            asyncContext.complete();
+        }
+    }
+
     @Override
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         final String path = req.getPathInfo();
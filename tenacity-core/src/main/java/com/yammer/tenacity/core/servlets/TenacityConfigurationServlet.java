@@ -20,7 +20,14 @@ public class TenacityConfigurationServlet extends TenacityServlet {
 
     @Override
     protected void doGet(final HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        final String key = req.getPathInfo().replaceAll("/", "");
-        writeResponse(resp, configurationResource.get(key));
+        final String path = req.getPathInfo();
+        final String retryBudgetSuffix = "/" + TenacityConfigurationResource.RETRY_BUDGET_PATH;
+        if (path.endsWith(retryBudgetSuffix)) {
+            final String key = path.substring(0, path.length() - retryBudgetSuffix.length()).replaceAll("/", "");
+            writeResponse(resp, configurationResource.getRetryBudget(key));
+        } else {
+            final String key = path.replaceAll("/", "");
+            writeResponse(resp, configurationResource.get(key));
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.yammer.tenacity.core.servlets;
+
+import com.yammer.tenacity.core.metrics.TenacityPrometheusExporter;
+import com.yammer.tenacity.core.resources.TenacityPrometheusResource;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+
+public class TenacityPrometheusServlet extends HttpServlet {
+    private static final long serialVersionUID = 0;
+    private transient final TenacityPrometheusResource prometheusResource;
+
+    public TenacityPrometheusServlet(TenacityPrometheusResource prometheusResource) {
+        this.prometheusResource = prometheusResource;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(TenacityPrometheusExporter.CONTENT_TYPE);
+        resp.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        try (final Writer writer = resp.getWriter()) {
+            prometheusResource.getExporter().write(writer);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.yammer.tenacity.core.shedding;
+
+/**
+ * How much it matters that a command runs now rather than later, see LoadShedder.
+ */
+public enum Criticality {
+    /** User facing work that may use all of a key's capacity, including what is reserved for it. */
+    CRITICAL,
+    /** Work that may use a key's capacity except for the part reserved for critical work. */
+    DEFAULT,
+    /** Work that can wait, such as batch jobs and prefetching: it only runs while the key is lightly loaded. */
+    SHEDDABLE
+}
@@ -0,0 +1,170 @@
+package com.yammer.tenacity.core.shedding;
+
+import com.netflix.config.DynamicDoubleProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixInvokable;
+import com.netflix.hystrix.HystrixInvokableInfo;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.TenacityObservableCommand;
+import com.yammer.tenacity.core.config.LoadSheddingConfiguration;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import rx.Observable;
+import rx.functions.Func0;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides, before a command is handed to Hystrix, whether its key has room for it given its Criticality. Critical
+ * commands are always admitted and only ever rejected by Hystrix itself. Default commands are shed once the key's
+ * work in flight (executing plus queued) reaches the part of its concurrency limit not reserved for critical work
+ * (loadShedding.criticalReserve), and sheddable commands once it reaches loadShedding.sheddableLimit of it.
+ *
+ * Shed commands never reach Hystrix, so they take neither a thread nor a semaphore permit of the key and aren't counted
+ * in the health its circuit breaker trips on: shedding sheddable work can't open the circuit for critical work. They
+ * are only counted here (getShedCount), fall back on the subscribing thread like commands Hystrix rejects, under the
+ * command's deadline, and without a fallback fail with a HystrixRuntimeException of the matching REJECTED_* failure
+ * type, which TenacityExceptionMapper maps to a 429. The fallbacks of a key's shed commands are bounded by its
+ * fallbackMaxConcurrentRequests, counted apart from the fallbacks Hystrix runs; beyond it they are rejected too.
+ */
+public class LoadShedder {
+    private static final ConcurrentMap<String, Thresholds> THRESHOLDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> SHED = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, AtomicInteger> FALLBACKS = new ConcurrentHashMap<>();
+
+    private LoadShedder() {}
+
+    private static class Thresholds {
+        private final DynamicDoubleProperty criticalReserve;
+        private final DynamicDoubleProperty sheddableLimit;
+
+        private Thresholds(TenacityPropertyKey key) {
+            final LoadSheddingConfiguration defaults = new LoadSheddingConfiguration();
+            final DynamicPropertyFactory propertyFactory = DynamicPropertyFactory.getInstance();
+            this.criticalReserve = propertyFactory.getDoubleProperty(
+                    TenacityPropertyRegister.loadSheddingCriticalReserve(key), defaults.getCriticalReserve());
+            this.sheddableLimit = propertyFactory.getDoubleProperty(
+                    TenacityPropertyRegister.loadSheddingSheddableLimit(key), defaults.getSheddableLimit());
+        }
+
+        private double utilizationLimit(Criticality criticality) {
+            return criticality == Criticality.SHEDDABLE
+                    ? sheddableLimit.get()
+                    : 1.0 - criticalReserve.get();
+        }
+    }
+
+    public static boolean admit(HystrixCommandKey commandKey, Criticality criticality) {
+        if (criticality == Criticality.CRITICAL || !(commandKey instanceof TenacityPropertyKey)) {
+            return true;
+        }
+        final TenacityPropertyKey key = (TenacityPropertyKey) commandKey;
+        /* get() first, computeIfAbsent() locks even when the key is there */
+        Thresholds thresholds = THRESHOLDS.get(key.name());
+        if (thresholds == null) {
+            thresholds = THRESHOLDS.computeIfAbsent(key.name(), (name) -> new Thresholds(key));
+        }
+        final double utilizationLimit = thresholds.utilizationLimit(criticality);
+        if (utilizationLimit >= 1.0) {
+            return true;
+        }
+        if (getWorkInFlight(key) < AdaptiveConcurrencyLimiter.getLimit(key) * utilizationLimit) {
+            return true;
+        }
+        SHED.computeIfAbsent(key.name(), (name) -> new LongAdder()).increment();
+        return false;
+    }
+
+    public static int getWorkInFlight(TenacityPropertyKey key) {
+        if (TenacityCommand.getCommandProperties(key).executionIsolationStrategy().get()
+                == HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE) {
+            final HystrixCommandMetrics metrics = TenacityCommand.getCommandMetrics(key);
+            return metrics == null ? 0 : metrics.getCurrentConcurrentExecutionCount();
+        }
+        final HystrixThreadPoolMetrics metrics = TenacityCommand.getThreadpoolMetrics(key);
+        return metrics == null ? 0 : metrics.getCurrentActiveCount().intValue() + metrics.getCurrentQueueSize().intValue();
+    }
+
+    public static long getShedCount(HystrixCommandKey key) {
+        final LongAdder shed = SHED.get(key.name());
+        return shed == null ? 0 : shed.sum();
+    }
+
+    public static boolean isShed(HystrixInvokableInfo<?> command) {
+        return (command instanceof TenacityCommand && ((TenacityCommand<?>) command).isResponseShed())
+                || (command instanceof TenacityObservableCommand && ((TenacityObservableCommand<?>) command).isResponseShed());
+    }
+
+    /**
+     * @return the fallback of a shed command, run under its deadline while the key has fallback permits to spare, and
+     * failing as a rejection when there is none, it fails or no permit is left
+     */
+    public static <R> Observable<R> fallBack(Class<? extends HystrixInvokable> commandClass,
+                                             HystrixCommandKey key,
+                                             Criticality criticality,
+                                             Optional<Deadline> deadline,
+                                             Func0<Observable<R>> fallback) {
+        return Deadline.within(deadline, Observable.defer(() -> {
+                    final AtomicInteger fallbacks = FALLBACKS.computeIfAbsent(key.name(), (name) -> new AtomicInteger());
+                    if (fallbacks.incrementAndGet() > getFallbackLimit(key)) {
+                        fallbacks.decrementAndGet();
+                        return Observable.<R>error(new RejectedExecutionException(
+                                "No fallback permits left for " + key.name()));
+                    }
+                    final AtomicBoolean released = new AtomicBoolean();
+                    final Runnable release = () -> {
+                        if (released.compareAndSet(false, true)) {
+                            fallbacks.decrementAndGet();
+                        }
+                    };
+                    return Observable.defer(fallback)
+                            .doOnTerminate(release::run)
+                            .doOnUnsubscribe(release::run);
+                }))
+                .onErrorResumeNext((err) -> Observable.error(rejection(commandClass, key, criticality, err)));
+    }
+
+    private static int getFallbackLimit(HystrixCommandKey key) {
+        return TenacityCommand.getCommandProperties((TenacityPropertyKey) key)
+                .fallbackIsolationSemaphoreMaxConcurrentRequests()
+                .get();
+    }
+
+    public static HystrixRuntimeException rejection(Class<? extends HystrixInvokable> commandClass,
+                                                    HystrixCommandKey key,
+                                                    Criticality criticality,
+                                                    Throwable fallbackException) {
+        final boolean semaphoreIsolated = key instanceof TenacityPropertyKey
+                && TenacityCommand.getCommandProperties((TenacityPropertyKey) key).executionIsolationStrategy().get()
+                == HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE;
+        final String fallbackOutcome;
+        if (fallbackException instanceof UnsupportedOperationException) {
+            fallbackOutcome = "no fallback available.";
+        } else if (fallbackException instanceof RejectedExecutionException) {
+            fallbackOutcome = "fallback rejected.";
+        } else {
+            fallbackOutcome = "fallback failed.";
+        }
+        return new HystrixRuntimeException(
+                semaphoreIsolated
+                        ? HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION
+                        : HystrixRuntimeException.FailureType.REJECTED_THREAD_EXECUTION,
+                commandClass,
+                key.name() + " shed " + criticality + " work and " + fallbackOutcome,
+                new RejectedExecutionException("Shed " + criticality + " work for " + key.name()),
+                fallbackException);
+    }
+}
@@ -7,6 +7,7 @@ import com.netflix.hystrix.exception.HystrixRuntimeException;
 import com.yammer.tenacity.core.TenacityCommand;
 import com.yammer.tenacity.core.config.BreakerboxConfiguration;
 import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.deadline.Deadline;
 import com.yammer.tenacity.core.http.TenacityJerseyClientBuilder;
 import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
@@ -53,6 +54,12 @@ public class ClientTimeoutTest {
                          @DefaultValue("100") long sleepTimeMs) throws InterruptedException {
             doSleep(sleepTimeMs);
         }
+
+        @GET
+        @Path("deadline")
+        public String deadline(@HeaderParam(Deadline.HEADER) String deadline) {
+            return deadline;
+        }
     }
 
     public static class ClientTimeoutApplication extends Application<Configuration> {
@@ -203,6 +210,31 @@ public class ClientTimeoutTest {
         tenacityClient.target(uri).request().post(null);
     }
 
+    @Test
+    public void tenacityClientTimesOutAtTheDeadline() {
+        clientConfiguration.setTimeout(Duration.seconds(1));
+        tenacityConfiguration.setExecutionIsolationThreadTimeoutInMillis(1000);
+        registerTenacityProperties();
+        final WebTarget webTarget = tenacityClientBuilder.build(buildClient()).target(uri);
+
+        thrown.expectCause(any(SocketTimeoutException.class));
+        try (Deadline.Scope ignored = Deadline.after(Duration.milliseconds(100)).attach()) {
+            postSettingTheTimeoutOnResource(webTarget, Duration.milliseconds(500));
+        }
+    }
+
+    @Test
+    public void tenacityClientForwardsTheDeadline() {
+        tenacityConfiguration.setExecutionIsolationThreadTimeoutInMillis(1000);
+        registerTenacityProperties();
+        final WebTarget webTarget = tenacityClientBuilder.build(buildClient()).target(uri).path("deadline");
+
+        assertThat(webTarget.request().get(String.class)).isNullOrEmpty();
+        try (Deadline.Scope ignored = Deadline.after(Duration.milliseconds(500)).attach()) {
+            assertThat(Long.parseLong(webTarget.request().get(String.class))).isBetween(1L, 500L);
+        }
+    }
+
     private static class VoidCommand extends TenacityCommand<Void> {
         private final WebTarget webTarget;
         private final Duration sleepDuration;
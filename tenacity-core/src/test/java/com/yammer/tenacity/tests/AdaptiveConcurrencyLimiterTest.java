@@ -0,0 +1,159 @@
+package com.yammer.tenacity.tests;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.yammer.tenacity.core.config.*;
+import com.yammer.tenacity.core.limiter.AdaptiveConcurrencyLimiter;
+import com.yammer.tenacity.core.limiter.AimdLimitAlgorithm;
+import com.yammer.tenacity.core.limiter.GradientLimitAlgorithm;
+import com.yammer.tenacity.core.limiter.LimitSample;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class AdaptiveConcurrencyLimiterTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    @Rule
+    public final WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private enum Key implements TenacityPropertyKey {
+        ADAPTIVE, STATIC
+    }
+
+    @Test
+    public void aimdBacksOffOnTimeouts() {
+        final AimdLimitAlgorithm aimd = new AimdLimitAlgorithm(0.5);
+        assertThat(aimd.update(10, new LimitSample(100, 1, 0, 10, 5))).isEqualTo(5);
+        assertThat(aimd.update(1, new LimitSample(100, 1, 0, 1, 5))).isEqualTo(0);
+    }
+
+    @Test
+    public void aimdGrowsWhenSaturated() {
+        final AimdLimitAlgorithm aimd = new AimdLimitAlgorithm(0.9);
+        assertThat(aimd.update(10, new LimitSample(100, 0, 0, 10, 5))).isEqualTo(11);
+        assertThat(aimd.update(10, new LimitSample(100, 0, 3, 4, 5))).isEqualTo(11);
+        assertThat(aimd.update(10, new LimitSample(100, 0, 0, 4, 5))).isEqualTo(10);
+    }
+
+    @Test
+    public void gradientShrinksAsLatencyQueuesUp() {
+        final GradientLimitAlgorithm gradient = new GradientLimitAlgorithm(1.0);
+        assertThat(gradient.update(16, new LimitSample(100, 0, 0, 16, 10))).isEqualTo(20);
+        assertThat(gradient.getMinLatencyInMillis()).isEqualTo(10);
+        assertThat(gradient.update(20, new LimitSample(100, 0, 0, 20, 20))).isLessThan(20);
+        assertThat(gradient.update(20, new LimitSample(100, 0, 0, 5, 10))).isEqualTo(20);
+    }
+
+    @Test
+    public void gradientRecoversWhenLatencyStepsUp() {
+        final GradientLimitAlgorithm gradient = new GradientLimitAlgorithm(0.5, 5);
+        int limit = 20;
+        for (int i = 0; i < 5; i++) {
+            limit = gradient.update(limit, new LimitSample(100, 0, 0, limit, 10));
+        }
+        final int limitBeforeStep = limit;
+
+        limit = gradient.update(limit, new LimitSample(100, 0, 0, limit, 50));
+        assertThat(limit).isLessThan(limitBeforeStep);
+        for (int i = 0; i < 20; i++) {
+            limit = Math.min(100, gradient.update(limit, new LimitSample(100, 0, 0, limit, 50)));
+        }
+
+        assertThat(gradient.getMinLatencyInMillis()).isEqualTo(50);
+        assertThat(limit).isGreaterThan(limitBeforeStep);
+    }
+
+    @Test
+    public void limiterAdjustsConfiguredLimitWithinBounds() {
+        final AdaptiveLimitConfiguration aimd = new AdaptiveLimitConfiguration(
+                AdaptiveLimitConfiguration.Algorithm.AIMD, 2, 10, 0.5, 0.2);
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(
+                        Key.ADAPTIVE, new TenacityConfiguration(new ThreadPoolConfiguration(8, 1, -1, 5, 10000, 10),
+                                new CircuitBreakerConfiguration(), new SemaphoreConfiguration(), 10,
+                                HystrixCommandProperties.ExecutionIsolationStrategy.THREAD, aimd),
+                        Key.STATIC, new TenacityConfiguration(new ThreadPoolConfiguration(8, 1, -1, 5, 10000, 10),
+                                new CircuitBreakerConfiguration(), new SemaphoreConfiguration(), 10)),
+                new BreakerboxConfiguration(),
+                mock(ArchaiusPropertyRegister.class)).register();
+        assertThat(TenacityPropertyStore.getTenacityConfiguration(Key.ADAPTIVE).getAdaptiveLimit()).isEqualTo(aimd);
+
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(ImmutableList.of(Key.ADAPTIVE, Key.STATIC));
+        for (int i = 0; i < 3; i++) {
+            for (TenacityPropertyKey key : Key.values()) {
+                limiter.updateLimit(key, new LimitSample(10, 10, 0, 8, 100));
+            }
+        }
+
+        assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.ADAPTIVE)).isEqualTo(2);
+        assertThat(TenacityPropertyStore.getTenacityConfiguration(Key.ADAPTIVE).getThreadpool().getThreadPoolCoreSize())
+                .isEqualTo(2);
+        assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.STATIC)).isEqualTo(8);
+    }
+
+    @Test
+    public void unknownAlgorithmsFallBackToTheDefault() {
+        ConfigurationManager.getConfigInstance().setProperty(TenacityPropertyRegister.adaptiveLimitAlgorithm(Key.ADAPTIVE), "bogus");
+        assertThat(TenacityPropertyStore.getAdaptiveLimitConfiguration(Key.ADAPTIVE).getAlgorithm())
+                .isEqualTo(new AdaptiveLimitConfiguration().getAlgorithm());
+    }
+
+    @Test
+    public void limiterWinsOverBreakerbox() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/archaius/test")).willReturn(aResponse().withStatus(200)
+                .withBody(TenacityPropertyRegister.threadpoolCoreSize(Key.ADAPTIVE) + "=9\n")));
+        final BreakerboxConfiguration breakerboxConfiguration = new BreakerboxConfiguration();
+        breakerboxConfiguration.setUrls("http://localhost:" + wireMockRule.port() + "/archaius/test");
+        breakerboxConfiguration.setDelay(Duration.milliseconds(50));
+        breakerboxConfiguration.setJitter(0.0);
+        final AdaptiveLimitConfiguration aimd = new AdaptiveLimitConfiguration(
+                AdaptiveLimitConfiguration.Algorithm.AIMD, 2, 10, 0.5, 0.2);
+        final ArchaiusPropertyRegister.Registration registration = new ArchaiusPropertyRegister()
+                .register(breakerboxConfiguration);
+        try {
+            new TenacityPropertyRegister(
+                    ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(
+                            Key.ADAPTIVE, new TenacityConfiguration(new ThreadPoolConfiguration(8, 1, -1, 5, 10000, 10),
+                                    new CircuitBreakerConfiguration(), new SemaphoreConfiguration(), 10,
+                                    HystrixCommandProperties.ExecutionIsolationStrategy.THREAD, aimd)),
+                    new BreakerboxConfiguration(),
+                    mock(ArchaiusPropertyRegister.class)).register();
+            assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.ADAPTIVE)).isEqualTo(9);
+
+            final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(ImmutableList.of(Key.ADAPTIVE));
+            limiter.updateLimit(Key.ADAPTIVE, new LimitSample(10, 10, 0, 9, 100));
+            assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.ADAPTIVE)).isEqualTo(4);
+
+            final int polls = wireMockRule.findAll(getRequestedFor(urlEqualTo("/archaius/test"))).size();
+            for (int i = 0; i < 100 && wireMockRule.findAll(getRequestedFor(urlEqualTo("/archaius/test"))).size() < polls + 2; i++) {
+                Thread.sleep(20);
+            }
+            assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.ADAPTIVE)).isEqualTo(4);
+            limiter.updateLimit(Key.ADAPTIVE, new LimitSample(10, 10, 0, 4, 100));
+            assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.ADAPTIVE)).isEqualTo(2);
+
+            limiter.stop();
+            assertThat(AdaptiveConcurrencyLimiter.getLimit(Key.ADAPTIVE)).isEqualTo(9);
+        } finally {
+            registration.close();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.yammer.tenacity.tests;
 
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.google.common.collect.ImmutableMap;
 import com.netflix.config.*;
 import com.netflix.config.sources.URLConfigurationSource;
 import com.yammer.tenacity.core.config.BreakerboxConfiguration;
 import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
 import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
 import com.yammer.tenacity.testing.TenacityTestRule;
@@ -14,6 +16,12 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -21,6 +29,9 @@ public class ArchaiusPropertyRegisterTest {
     @Rule
     public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
 
+    @Rule
+    public final WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
     private BreakerboxConfiguration breakerboxConfiguration;
 
     @Before
@@ -112,4 +123,66 @@ public class ArchaiusPropertyRegisterTest {
         verify(mockPollingSchedulerOne, atLeastOnce()).startPolling(any(PolledConfigurationSource.class), any(Configuration.class));
         verify(mockPollingSchedulerTwo, atLeastOnce()).startPolling(any(PolledConfigurationSource.class), any(Configuration.class));
     }
+
+    @Test
+    public void longPollingAppliesChangesWithoutWaitingForTheDelay() throws Exception {
+        final String timeout = TenacityPropertyRegister.executionIsolationThreadTimeoutInMilliseconds(DependencyKey.EXAMPLE);
+        serve("\"1\"", timeout + "=2000\n");
+        breakerboxConfiguration.setUrls("http://localhost:" + wireMockRule.port() + "/archaius/test");
+        breakerboxConfiguration.setDelay(Duration.minutes(1));
+        breakerboxConfiguration.setLongPollTimeout(Duration.seconds(1));
+        breakerboxConfiguration.setJitter(0.0);
+
+        new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        final DynamicLongProperty property = DynamicPropertyFactory.getInstance().getLongProperty(timeout, 0);
+        assertThat(property.get()).isEqualTo(2000);
+
+        Thread.sleep(1000);
+        serve("\"2\"", timeout + "=3000\n");
+        for (int i = 0; i < 100 && property.get() != 3000; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(property.get()).isEqualTo(3000);
+    }
+
+    @Test
+    public void closingTheRegistrationStopsPollingAndRemovesTheConfiguration() throws Exception {
+        final String timeout = TenacityPropertyRegister.executionIsolationThreadTimeoutInMilliseconds(DependencyKey.EXAMPLE);
+        serve("\"1\"", timeout + "=2000\n");
+        breakerboxConfiguration.setUrls("http://localhost:" + wireMockRule.port() + "/archaius/test");
+        breakerboxConfiguration.setJitter(0.0);
+
+        final ArchaiusPropertyRegister.Registration registration = new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        assertThat(ConfigurationManager.getConfigInstance().getLong(timeout)).isEqualTo(2000);
+
+        registration.close();
+        assertThat(ConfigurationManager.getConfigInstance().containsKey(timeout)).isFalse();
+        final int requests = wireMockRule.findAll(getRequestedFor(urlEqualTo("/archaius/test"))).size();
+        Thread.sleep(300);
+        assertThat(wireMockRule.findAll(getRequestedFor(urlEqualTo("/archaius/test")))).hasSize(requests);
+    }
+
+    @Test
+    public void failingPollsBackOff() throws Exception {
+        wireMockRule.stubFor(get(urlEqualTo("/archaius/test")).willReturn(aResponse().withStatus(503)));
+        breakerboxConfiguration.setUrls("http://localhost:" + wireMockRule.port() + "/archaius/test");
+        breakerboxConfiguration.setJitter(0.0);
+
+        new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        Thread.sleep(1000);
+
+        /* Every 100ms that would be 10 requests; backing off they come at 0, 100, 300, 700ms */
+        assertThat(wireMockRule.findAll(getRequestedFor(urlEqualTo("/archaius/test"))).size()).isBetween(3, 5);
+    }
+
+    private void serve(String etag, String body) {
+        wireMockRule.resetMappings();
+        wireMockRule.stubFor(get(urlEqualTo("/archaius/test"))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", etag).withBody(body)));
+        wireMockRule.stubFor(get(urlEqualTo("/archaius/test"))
+                .atPriority(1)
+                .withHeader("If-None-Match", equalTo(etag))
+                .willReturn(aResponse().withStatus(304).withHeader("Preference-Applied", "wait=1").withFixedDelay(600)));
+    }
 }
@@ -0,0 +1,159 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.config.ConfigurationManager;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.core.CircuitBreakerEventStream;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import rx.Subscription;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerEventStreamTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        STREAMED_BREAKER, NOT_YET_EXECUTED
+    }
+
+    private static class RecordingClient implements CircuitBreakerEventStream.Client {
+        private final StringBuffer events = new StringBuffer();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile boolean disconnected = false;
+
+        @Override
+        public void send(String data) throws IOException {
+            heartbeat();
+            events.append("data: ").append(data).append("\n\n");
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            if (disconnected) {
+                throw new IOException("client disconnected");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        private void waitFor(String text) throws InterruptedException {
+            for (int i = 0; i < 100 && !events.toString().contains(text); i++) {
+                Thread.sleep(20);
+            }
+            assertThat(events.toString()).contains(text);
+        }
+    }
+
+    private static CircuitBreakerEventStream eventStream(TenacityPropertyKey... keys) {
+        return new CircuitBreakerEventStream(ImmutableList.copyOf(keys), Jackson.newObjectMapper(), Duration.milliseconds(50));
+    }
+
+    @Test
+    public void streamsTransitionsUntilTheClientDisconnects() throws Exception {
+        new TenacitySuccessCommand(DependencyKey.EXISTENT_HEALTHCHECK).execute();
+        new TenacitySuccessCommand(DependencyKey.ANOTHER_EXISTENT_HEALTHCHECK).execute();
+        TenacityPropertyRegister.registerCircuitForceClosed(DependencyKey.EXISTENT_HEALTHCHECK);
+
+        final RecordingClient client = new RecordingClient();
+        eventStream(DependencyKey.EXISTENT_HEALTHCHECK).open(client);
+
+        client.waitFor("data: {\"id\":\"EXISTENT_HEALTHCHECK\",\"state\":\"FORCED_CLOSED\",\"open\":false}\n\n");
+
+        TenacityPropertyRegister.registerCircuitForceOpen(DependencyKey.ANOTHER_EXISTENT_HEALTHCHECK);
+        TenacityPropertyRegister.registerCircuitForceReset(DependencyKey.EXISTENT_HEALTHCHECK);
+        TenacityPropertyRegister.registerCircuitForceOpen(DependencyKey.EXISTENT_HEALTHCHECK);
+
+        client.waitFor("data: {\"id\":\"EXISTENT_HEALTHCHECK\",\"state\":\"FORCED_OPEN\",\"open\":true}\n\n");
+        assertThat(client.events.toString())
+                .contains("data: {\"id\":\"EXISTENT_HEALTHCHECK\",\"state\":\"CLOSED\",\"open\":false}\n\n")
+                .doesNotContain("ANOTHER_EXISTENT_HEALTHCHECK");
+
+        client.disconnected = true;
+        assertThat(client.closed.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void aStalledClientDoesNotHoldUpTheOthers() throws Exception {
+        final CountDownLatch unstall = new CountDownLatch(1);
+        final CircuitBreakerEventStream eventStream = eventStream(Key.STREAMED_BREAKER);
+        final Subscription stalled = eventStream.open(new RecordingClient() {
+            @Override
+            public void heartbeat() {
+                try {
+                    unstall.await();
+                } catch (InterruptedException err) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try {
+            final RecordingClient client = new RecordingClient();
+            eventStream.open(client);
+
+            TenacityPropertyRegister.registerCircuitForceOpen(Key.STREAMED_BREAKER);
+            new TenacitySuccessCommand(Key.STREAMED_BREAKER).execute();
+
+            client.waitFor("data: {\"id\":\"STREAMED_BREAKER\",\"state\":\"FORCED_OPEN\",\"open\":true}\n\n");
+        } finally {
+            unstall.countDown();
+            stalled.unsubscribe();
+        }
+    }
+
+    @Test
+    public void unsubscribingClosesTheClient() throws Exception {
+        final RecordingClient client = new RecordingClient();
+        final Subscription subscription = eventStream(Key.STREAMED_BREAKER).open(client);
+
+        subscription.unsubscribe();
+        assertThat(client.closed.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void streamsKeysThatHadNotExecutedWhenTheClientConnected() throws Exception {
+        final RecordingClient client = new RecordingClient();
+        eventStream(Key.NOT_YET_EXECUTED).open(client);
+
+        TenacityPropertyRegister.registerCircuitForceOpen(Key.NOT_YET_EXECUTED);
+        new TenacitySuccessCommand(Key.NOT_YET_EXECUTED).execute();
+
+        client.waitFor("data: {\"id\":\"NOT_YET_EXECUTED\",\"state\":\"FORCED_OPEN\",\"open\":true}\n\n");
+    }
+
+    @Test
+    public void streamsCircuitsOpeningAndHalfOpeningAsTheyHappen() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.default.metrics.healthSnapshot.intervalInMilliseconds", 10);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.STREAMED_BREAKER.circuitBreaker.requestVolumeThreshold", 1);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.STREAMED_BREAKER.circuitBreaker.sleepWindowInMilliseconds", 300);
+
+        final RecordingClient client = new RecordingClient();
+        eventStream(Key.STREAMED_BREAKER).open(client);
+
+        final String opened = "data: {\"id\":\"STREAMED_BREAKER\",\"state\":\"OPEN\",\"open\":true}\n\n";
+        for (int i = 0; i < 50 && !client.events.toString().contains(opened); i++) {
+            TenacityCommand.<Boolean>builder(Key.STREAMED_BREAKER)
+                    .run(() -> {
+                        throw new IllegalStateException();
+                    })
+                    .fallback(() -> false)
+                    .execute();
+            Thread.sleep(20);
+        }
+        client.waitFor(opened);
+        client.waitFor(opened + "data: {\"id\":\"STREAMED_BREAKER\",\"state\":\"CLOSED\",\"open\":false}\n\n");
+    }
+}
@@ -0,0 +1,115 @@
+package com.yammer.tenacity.tests;
+
+import com.netflix.config.ConfigurationManager;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.core.CircuitBreaker;
+import com.yammer.tenacity.core.core.CircuitBreakerStateCache;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerStateCacheTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        CACHED_BREAKER
+    }
+
+    @Before
+    public void setup() {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.default.metrics.healthSnapshot.intervalInMilliseconds", 10);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.CACHED_BREAKER.circuitBreaker.requestVolumeThreshold", 1);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.CACHED_BREAKER.circuitBreaker.sleepWindowInMilliseconds", 100);
+    }
+
+    private static boolean execute(boolean succeed) {
+        return TenacityCommand.<Boolean>builder(Key.CACHED_BREAKER)
+                .run(() -> {
+                    if (!succeed) {
+                        throw new IllegalStateException();
+                    }
+                    return true;
+                })
+                .fallback(() -> false)
+                .execute();
+    }
+
+    private static CircuitBreaker.State state() {
+        return CircuitBreakerStateCache.get(Key.CACHED_BREAKER).map(CircuitBreaker::getState).orElse(null);
+    }
+
+    @Test
+    public void emptyUntilTheKeyHasExecuted() {
+        assertThat(CircuitBreakerStateCache.get(Key.CACHED_BREAKER)).isEmpty();
+        execute(true);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void forcedStatesAreVisibleImmediately() {
+        execute(true);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        TenacityPropertyRegister.registerCircuitForceOpen(Key.CACHED_BREAKER);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.FORCED_OPEN);
+
+        TenacityPropertyRegister.registerCircuitForceReset(Key.CACHED_BREAKER);
+        TenacityPropertyRegister.registerCircuitForceClosed(Key.CACHED_BREAKER);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.FORCED_CLOSED);
+
+        TenacityPropertyRegister.registerCircuitForceReset(Key.CACHED_BREAKER);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static void open() throws InterruptedException {
+        for (int i = 0; i < 50 && state() != CircuitBreaker.State.OPEN; i++) {
+            execute(false);
+            Thread.sleep(20);
+        }
+        assertThat(state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void halfOpenCircuitsReportClosedWithoutTakingTheTestRequest() throws Exception {
+        open();
+
+        Thread.sleep(200);
+        for (int i = 0; i < 10; i++) {
+            assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+        assertThat(TenacityCommand.getCircuitBreaker(Key.CACHED_BREAKER).allowRequest())
+                .as("monitoring must not use up the half-open test request")
+                .isTrue();
+    }
+
+    @Test
+    public void failedTestRequestsReopenTheCircuit() throws Exception {
+        open();
+        Thread.sleep(200);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        execute(false);
+        Thread.sleep(30);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.OPEN);
+        Thread.sleep(200);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void successfulTestRequestsCloseTheCircuit() throws Exception {
+        open();
+        Thread.sleep(200);
+        execute(true);
+        Thread.sleep(30);
+        assertThat(state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(TenacityCommand.getCircuitBreaker(Key.CACHED_BREAKER).isOpen()).isFalse();
+
+        open();
+    }
+}
@@ -0,0 +1,177 @@
+package com.yammer.tenacity.tests;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.config.PollResult;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.properties.ConditionalURLConfigurationSource;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConditionalURLConfigurationSourceTest {
+    @Rule
+    public final WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private static final String PATH = "/archaius/tenacity";
+
+    private ConditionalURLConfigurationSource source() {
+        return new ConditionalURLConfigurationSource("http://localhost:" + wireMockRule.port() + PATH);
+    }
+
+    private ConditionalURLConfigurationSource source(Duration longPollTimeout, boolean failover, String... paths) {
+        final BreakerboxConfiguration breakerboxConfiguration = new BreakerboxConfiguration();
+        final StringBuilder urls = new StringBuilder();
+        for (String path : paths) {
+            urls.append(urls.length() > 0 ? "," : "").append("http://localhost:").append(wireMockRule.port()).append(path);
+        }
+        breakerboxConfiguration.setUrls(urls.toString());
+        breakerboxConfiguration.setLongPollTimeout(longPollTimeout);
+        breakerboxConfiguration.setFailover(failover);
+        return new ConditionalURLConfigurationSource(breakerboxConfiguration);
+    }
+
+    private void serve(String etag, String body) {
+        wireMockRule.resetMappings();
+        wireMockRule.stubFor(get(urlEqualTo(PATH))
+                .atPriority(2)
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("ETag", etag)
+                        .withBody(body)));
+        wireMockRule.stubFor(get(urlEqualTo(PATH))
+                .atPriority(1)
+                .withHeader("If-None-Match", equalTo(etag))
+                .willReturn(aResponse().withStatus(304)));
+    }
+
+    @Test
+    public void initialPollLoadsEverything() throws IOException {
+        serve("\"1\"", "a=1\nb=2\n");
+
+        final PollResult result = source().poll(true, null);
+        assertThat(result.isIncremental()).isFalse();
+        assertThat(result.getComplete()).isEqualTo(ImmutableMap.of("a", "1", "b", "2"));
+    }
+
+    @Test
+    public void unchangedPayloadsAreNotDownloadedAgain() throws IOException {
+        serve("\"1\"", "a=1\nb=2\n");
+        final ConditionalURLConfigurationSource source = source();
+        source.poll(true, null);
+
+        final PollResult result = source.poll(false, null);
+        assertThat(result.hasChanges()).isFalse();
+        verify(1, getRequestedFor(urlEqualTo(PATH)).withHeader("If-None-Match", equalTo("\"1\"")));
+    }
+
+    @Test
+    public void onlyChangedPropertiesAreApplied() throws IOException {
+        serve("\"1\"", "a=1\nb=2\nc=3\n");
+        final ConditionalURLConfigurationSource source = source();
+        source.poll(true, null);
+
+        serve("\"2\"", "a=1\nb=20\nd=4\n");
+        final PollResult result = source.poll(false, null);
+        assertThat(result.isIncremental()).isTrue();
+        assertThat(result.getAdded()).isEqualTo(ImmutableMap.of("d", "4"));
+        assertThat(result.getChanged()).isEqualTo(ImmutableMap.of("b", "20"));
+        assertThat(result.getDeleted()).containsOnlyKeys("c");
+    }
+
+    @Test
+    public void longPollsAskTheServerToHoldThem() throws IOException {
+        serve("\"1\"", "a=1\n");
+        final ConditionalURLConfigurationSource source = source(Duration.seconds(30), false, PATH);
+        source.poll(true, null);
+        source.poll(false, null);
+
+        verify(1, getRequestedFor(urlEqualTo(PATH)).withHeader("Prefer", equalTo("wait=30")));
+    }
+
+    @Test
+    public void longPollsAreHeldOnlyWhenTheServerSaysSo() throws IOException {
+        serve("\"1\"", "a=1\n");
+        final ConditionalURLConfigurationSource source = source(Duration.seconds(30), false, PATH);
+        source.poll(true, null);
+        source.poll(false, null);
+        assertThat(source.isHoldingPolls()).isFalse();
+
+        wireMockRule.stubFor(get(urlEqualTo(PATH))
+                .atPriority(1)
+                .withHeader("If-None-Match", equalTo("\"1\""))
+                .willReturn(aResponse().withStatus(304).withHeader("Preference-Applied", "wait=30")));
+        source.poll(false, null);
+        assertThat(source.isHoldingPolls()).isTrue();
+        source.close();
+    }
+
+    @Test
+    public void longPollsReturnAsSoonAsAnyUrlChanges() throws IOException {
+        serve("\"1\"", "a=1\n");
+        wireMockRule.stubFor(get(urlEqualTo("/held"))
+                .atPriority(2)
+                .willReturn(aResponse().withStatus(200).withHeader("ETag", "\"held\"").withBody("b=2\n")));
+        wireMockRule.stubFor(get(urlEqualTo("/held"))
+                .atPriority(1)
+                .withHeader("If-None-Match", equalTo("\"held\""))
+                .willReturn(aResponse().withStatus(304).withFixedDelay(10000)));
+        final ConditionalURLConfigurationSource source = source(Duration.seconds(10), false, PATH, "/held");
+        assertThat(source.poll(true, null).getComplete()).isEqualTo(ImmutableMap.of("a", "1", "b", "2"));
+
+        serve("\"2\"", "a=10\n");
+        wireMockRule.stubFor(get(urlEqualTo("/held"))
+                .withHeader("If-None-Match", equalTo("\"held\""))
+                .willReturn(aResponse().withStatus(304).withFixedDelay(10000)));
+        final long start = System.nanoTime();
+        final PollResult result = source.poll(false, null);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+        assertThat(result.getChanged()).isEqualTo(ImmutableMap.of("a", "10"));
+        assertThat(result.getDeleted()).isEmpty();
+    }
+
+    @Test
+    public void failoverSticksToTheUrlThatAnswered() throws IOException {
+        serve("\"1\"", "a=1\n");
+        wireMockRule.stubFor(get(urlEqualTo("/down")).willReturn(aResponse().withStatus(503)));
+        final ConditionalURLConfigurationSource source = source(Duration.milliseconds(0), true, "/down", PATH);
+        assertThat(source.poll(true, null).getComplete()).isEqualTo(ImmutableMap.of("a", "1"));
+
+        serve("\"2\"", "a=2\n");
+        assertThat(source.poll(false, null).getChanged()).isEqualTo(ImmutableMap.of("a", "2"));
+        verify(1, getRequestedFor(urlEqualTo("/down")));
+    }
+
+    @Test
+    public void failoverReplacesThePropertiesOfThePreviousUrl() throws IOException {
+        serve("\"1\"", "a=1\nb=1\n");
+        wireMockRule.stubFor(get(urlEqualTo("/backup")).willReturn(aResponse().withStatus(200).withBody("a=2\n")));
+        final ConditionalURLConfigurationSource source = source(Duration.milliseconds(0), true, PATH, "/backup");
+        assertThat(source.poll(true, null).getComplete()).isEqualTo(ImmutableMap.of("a", "1", "b", "1"));
+
+        wireMockRule.stubFor(get(urlEqualTo(PATH)).atPriority(0).willReturn(aResponse().withStatus(503)));
+        final PollResult result = source.poll(false, null);
+        assertThat(result.getChanged()).isEqualTo(ImmutableMap.of("a", "2"));
+        assertThat(result.getDeleted()).containsOnlyKeys("b");
+    }
+
+    @Test(expected = IOException.class)
+    public void failoverFailsThePollWhenNoUrlAnswers() throws IOException {
+        wireMockRule.stubFor(get(urlEqualTo(PATH)).willReturn(aResponse().withStatus(500)));
+        wireMockRule.stubFor(get(urlEqualTo("/down")).willReturn(aResponse().withStatus(503)));
+        source(Duration.milliseconds(0), true, PATH, "/down").poll(true, null);
+    }
+
+    @Test(expected = IOException.class)
+    public void failedRequestsFailThePoll() throws IOException {
+        wireMockRule.stubFor(get(urlEqualTo(PATH)).willReturn(aResponse().withStatus(500)));
+        source().poll(true, null);
+    }
+}
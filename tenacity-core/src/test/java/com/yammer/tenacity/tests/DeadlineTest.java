@@ -0,0 +1,160 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.core.TenacityConcurrencyStrategy;
+import com.yammer.tenacity.core.core.TenacityPropertiesStrategy;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.deadline.DeadlineFilter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeadlineTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        SLOW, NESTED
+    }
+
+    @Before
+    public void setup() {
+        HystrixPlugins.getInstance().registerConcurrencyStrategy(new TenacityConcurrencyStrategy());
+        HystrixPlugins.getInstance().registerPropertiesStrategy(new TenacityPropertiesStrategy());
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setExecutionIsolationThreadTimeoutInMillis(2000);
+        new TenacityPropertyRegister(ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(
+                Key.SLOW, configuration, Key.NESTED, configuration), new BreakerboxConfiguration()).register();
+    }
+
+    private static TenacityCommand.Builder<String> slow() {
+        return TenacityCommand.<String>builder(Key.SLOW)
+                .run(() -> {
+                    sleep(1000);
+                    return "value";
+                })
+                .fallback(() -> "fallback");
+    }
+
+    @Test
+    public void commandsTimeOutAtTheDeadline() {
+        final long start = System.nanoTime();
+        try (Deadline.Scope ignored = Deadline.after(Duration.milliseconds(100)).attach()) {
+            final TenacityCommand<String> command = slow().build();
+            assertThat(command.execute()).isEqualTo("fallback");
+            assertThat(command.isResponseTimedOut()).isTrue();
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(900);
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    @Test
+    public void commandsKeepTheirTimeoutWithoutADeadline() {
+        assertThat(slow().execute()).isEqualTo("value");
+        assertThat(TenacityCommand.getCommandProperties(Key.SLOW))
+                .isSameAs(TenacityCommand.getCommandProperties(Key.SLOW));
+    }
+
+    @Test
+    public void commandsKeepTheirTimeoutBeforeALaterDeadline() {
+        try (Deadline.Scope ignored = Deadline.after(Duration.seconds(10)).attach()) {
+            final TenacityCommand<String> command = slow().build();
+            assertThat(command.getProperties().executionTimeoutInMilliseconds().get()).isEqualTo(2000);
+            assertThat(command.getProperties()).isSameAs(TenacityCommand.getCommandProperties(Key.SLOW));
+        }
+    }
+
+    @Test
+    public void commandsTimeOutAtTheDeadlineTheyWereCreatedUnder() {
+        final TenacityCommand<String> command;
+        try (Deadline.Scope ignored = Deadline.after(Duration.milliseconds(100)).attach()) {
+            command = slow().build();
+            assertThat(command.getProperties()).isSameAs(TenacityCommand.getCommandProperties(Key.SLOW));
+        }
+        assertThat(command.getProperties().executionTimeoutInMilliseconds().get()).isEqualTo(2000);
+        assertThat(command.execute()).isEqualTo("fallback");
+        assertThat(command.isResponseTimedOut()).isTrue();
+    }
+
+    @Test
+    public void nestedCommandsInheritTheDeadline() {
+        final AtomicReference<Optional<Deadline>> inner = new AtomicReference<>();
+        final AtomicReference<Integer> innerTimeout = new AtomicReference<>();
+        final TenacityCommand.Builder<String> outer = TenacityCommand.<String>builder(Key.NESTED)
+                .run(() -> {
+                    inner.set(Deadline.current());
+                    innerTimeout.set(slow().build().getProperties().executionTimeoutInMilliseconds().get());
+                    return "value";
+                });
+
+        try (Deadline.Scope ignored = Deadline.after(Duration.milliseconds(500)).attach()) {
+            assertThat(outer.execute()).isEqualTo("value");
+        }
+        assertThat(inner.get()).isPresent();
+        assertThat(innerTimeout.get()).isBetween(1, 500);
+    }
+
+    @Test
+    public void filterAttachesTheHeader() throws Exception {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(Deadline.HEADER)).thenReturn("250");
+        final AtomicReference<Optional<Deadline>> attached = new AtomicReference<>();
+        final FilterChain chain = (req, resp) -> attached.set(Deadline.current());
+
+        new DeadlineFilter(ImmutableList.of(Key.SLOW)).doFilter(request, mock(ServletResponse.class), chain);
+
+        assertThat(attached.get()).isPresent();
+        assertThat(attached.get().get().getRemainingMillis()).isBetween(1L, 250L);
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    @Test
+    public void filterCapsTheHeaderAtTheLongestTimeout() throws Exception {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(Deadline.HEADER)).thenReturn(String.valueOf(Long.MAX_VALUE));
+        final AtomicReference<Optional<Deadline>> attached = new AtomicReference<>();
+        final FilterChain chain = (req, resp) -> attached.set(Deadline.current());
+
+        new DeadlineFilter(ImmutableList.of(Key.SLOW, Key.NESTED)).doFilter(request, mock(ServletResponse.class), chain);
+
+        assertThat(attached.get()).isPresent();
+        assertThat(attached.get().get().getRemainingMillis()).isBetween(1L, 2000L);
+    }
+
+    @Test
+    public void malformedHeadersAreIgnored() {
+        assertThat(Deadline.fromHeader(null)).isEmpty();
+        assertThat(Deadline.fromHeader("soon")).isEmpty();
+        assertThat(Deadline.fromHeader("-1")).isEmpty();
+        assertThat(Deadline.fromHeader("0").map(Deadline::isExpired)).contains(true);
+        assertThat(Deadline.fromHeader(String.valueOf(Long.MAX_VALUE)).map(Deadline::isExpired)).contains(false);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
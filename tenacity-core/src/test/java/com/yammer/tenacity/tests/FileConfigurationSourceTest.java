@@ -0,0 +1,113 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.config.DynamicLongProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.config.PollResult;
+import com.netflix.config.ConfigurationManager;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
+import com.yammer.tenacity.core.properties.FileConfigurationSource;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileConfigurationSourceTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static void write(Path file, String properties) throws IOException {
+        Files.write(file, properties.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void laterFilesOverrideEarlierOnes() throws Exception {
+        final Path directory = folder.getRoot().toPath();
+        write(directory.resolve("b.properties"), "a=2\nc=3\n");
+        write(directory.resolve("a.properties"), "a=1\nb=1\n");
+        write(directory.resolve("ignored.txt"), "a=4\n");
+
+        final PollResult result = new FileConfigurationSource(directory).poll(true, null);
+        assertThat(result.getComplete()).isEqualTo(ImmutableMap.of("a", "2", "b", "1", "c", "3"));
+    }
+
+    @Test
+    public void onlyChangedPropertiesAreApplied() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("tenacity.properties");
+        final FileConfigurationSource source = new FileConfigurationSource(file);
+        assertThat(source.poll(true, null).getComplete()).isEmpty();
+
+        write(file, "a=1\nb=2\n");
+        assertThat(source.poll(false, null).getAdded()).isEqualTo(ImmutableMap.of("a", "1", "b", "2"));
+        assertThat(source.poll(false, null).hasChanges()).isFalse();
+
+        write(file, "a=1\nb=3\n");
+        final PollResult result = source.poll(false, null);
+        assertThat(result.getAdded()).isEmpty();
+        assertThat(result.getChanged()).isEqualTo(ImmutableMap.of("b", "3"));
+    }
+
+    @Test
+    public void changesApplyWithoutWaitingForTheDelay() throws Exception {
+        final String timeout = "hystrix.command.FILE_WATCHED.execution.isolation.thread.timeoutInMilliseconds";
+        final Path file = folder.getRoot().toPath().resolve("tenacity.properties");
+        write(file, timeout + "=2000\n");
+        final BreakerboxConfiguration breakerboxConfiguration = new BreakerboxConfiguration();
+        breakerboxConfiguration.setPath(file.toString());
+        breakerboxConfiguration.setDelay(Duration.minutes(1));
+
+        new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        final DynamicLongProperty property = DynamicPropertyFactory.getInstance().getLongProperty(timeout, 0);
+        assertThat(property.get()).isEqualTo(2000);
+
+        write(file, timeout + "=3000\n");
+        for (int i = 0; i < 250 && property.get() != 3000; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(property.get()).isEqualTo(3000);
+    }
+
+    @Test
+    public void removingAnOverrideRevertsIt() throws Exception {
+        final String timeout = "hystrix.command.FILE_WATCHED.execution.isolation.thread.timeoutInMilliseconds";
+        final String coreSize = "hystrix.threadpool.FILE_WATCHED.coreSize";
+        ConfigurationManager.getConfigInstance().setProperty(timeout, 1000);
+        ConfigurationManager.getConfigInstance().setProperty(coreSize, 10);
+        final Path file = folder.getRoot().toPath().resolve("tenacity.properties");
+        write(file, timeout + "=2000\n" + coreSize + "=20\n");
+        final BreakerboxConfiguration breakerboxConfiguration = new BreakerboxConfiguration();
+        breakerboxConfiguration.setPath(file.toString());
+        breakerboxConfiguration.setDelay(Duration.minutes(1));
+
+        new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        final DynamicLongProperty timeoutProperty = DynamicPropertyFactory.getInstance().getLongProperty(timeout, 0);
+        final DynamicLongProperty coreSizeProperty = DynamicPropertyFactory.getInstance().getLongProperty(coreSize, 0);
+        assertThat(timeoutProperty.get()).isEqualTo(2000);
+        assertThat(coreSizeProperty.get()).isEqualTo(20);
+
+        write(file, coreSize + "=20\n");
+        for (int i = 0; i < 250 && timeoutProperty.get() != 1000; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(timeoutProperty.get()).isEqualTo(1000);
+        assertThat(coreSizeProperty.get()).isEqualTo(20);
+
+        Files.delete(file);
+        for (int i = 0; i < 250 && coreSizeProperty.get() != 10; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(coreSizeProperty.get()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,185 @@
+package com.yammer.tenacity.tests;
+
+import com.yammer.tenacity.core.Tenacity;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.hedging.HedgePolicy;
+import com.yammer.tenacity.core.hedging.Hedging;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HedgingTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        HEDGE_WINS, PRIMARY_WINS, NO_BUDGET, FAILED_HEDGE, FAILED_PRIMARY, SYNC_HEDGE
+    }
+
+    private static final HedgePolicy POLICY = new HedgePolicy(95, Duration.milliseconds(50), 0.1, 10);
+
+    private static <R> R get(CompletionStage<R> stage) throws Exception {
+        return stage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void slowPrimaryIsHedgedAndCancelled() throws Exception {
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+        final String result = get(TenacityCommand
+                .<String>asyncBuilder(Key.HEDGE_WINS)
+                .run(() -> {
+                    final CompletableFuture<String> attempt = attempts.isEmpty()
+                            ? new CompletableFuture<>()
+                            : CompletableFuture.completedFuture("hedge");
+                    attempts.add(attempt);
+                    return attempt;
+                })
+                .fallback(() -> CompletableFuture.completedFuture("fallback"))
+                .hedge(POLICY)
+                .execute());
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(attempts).hasSize(2);
+        assertThat(attempts.get(0).isCancelled()).isTrue();
+        assertThat(Hedging.getBudget(Key.HEDGE_WINS).get().getBalance()).isLessThan(10.0);
+    }
+
+    @Test
+    public void fastPrimaryIsNotHedged() throws Exception {
+        final List<String> attempts = new CopyOnWriteArrayList<>();
+        assertThat(get(TenacityCommand
+                .<String>asyncBuilder(Key.PRIMARY_WINS)
+                .run(() -> {
+                    attempts.add("attempt");
+                    return CompletableFuture.completedFuture("primary");
+                })
+                .hedge(POLICY)
+                .execute())).isEqualTo("primary");
+
+        Thread.sleep(200);
+        assertThat(attempts).hasSize(1);
+    }
+
+    @Test
+    public void noHedgesWithoutBudget() throws Exception {
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+        final String result = get(TenacityCommand
+                .<String>asyncBuilder(Key.NO_BUDGET)
+                .run(() -> {
+                    final CompletableFuture<String> attempt = new CompletableFuture<>();
+                    attempts.add(attempt);
+                    return attempt;
+                })
+                .fallback(() -> CompletableFuture.completedFuture("fallback"))
+                .hedge(new HedgePolicy(95, Duration.milliseconds(50), 0.0, 0))
+                .execute());
+
+        assertThat(result).isEqualTo("fallback");
+        assertThat(attempts).hasSize(1);
+    }
+
+    @Test
+    public void failedHedgeIsIgnored() throws Exception {
+        final List<String> attempts = new CopyOnWriteArrayList<>();
+        final String result = get(TenacityCommand
+                .<String>asyncBuilder(Key.FAILED_HEDGE)
+                .run(() -> {
+                    attempts.add("attempt");
+                    if (attempts.size() == 1) {
+                        return CompletableFuture.supplyAsync(() -> {
+                            sleep(300);
+                            return "primary";
+                        });
+                    }
+                    final CompletableFuture<String> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(new IllegalStateException("hedge failed"));
+                    return failed;
+                })
+                .fallback(() -> CompletableFuture.completedFuture("fallback"))
+                .hedge(POLICY)
+                .execute());
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts).hasSize(2);
+    }
+
+    @Test
+    public void primaryFallbackWaitsForTheHedge() throws Exception {
+        final List<String> attempts = new CopyOnWriteArrayList<>();
+        final String result = get(TenacityCommand
+                .<String>asyncBuilder(Key.FAILED_PRIMARY)
+                .run(() -> {
+                    attempts.add("attempt");
+                    if (attempts.size() == 1) {
+                        return CompletableFuture.supplyAsync(() -> {
+                            sleep(150);
+                            throw new IllegalStateException("primary failed");
+                        });
+                    }
+                    return CompletableFuture.supplyAsync(() -> {
+                        sleep(300);
+                        return "hedge";
+                    });
+                })
+                .fallback(() -> CompletableFuture.completedFuture("fallback"))
+                .hedge(POLICY)
+                .execute());
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(attempts).hasSize(2);
+    }
+
+    @Test
+    public void hedgesThreadIsolatedCommandsAndInterruptsTheLoser() throws Exception {
+        final List<String> attempts = new CopyOnWriteArrayList<>();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final String result = TenacityCommand
+                .<String>builder(Key.SYNC_HEDGE)
+                .run(() -> {
+                    attempts.add("attempt");
+                    if (attempts.size() == 1) {
+                        try {
+                            Thread.sleep(500);
+                        } catch (InterruptedException err) {
+                            interrupted.countDown();
+                        }
+                        return "primary";
+                    }
+                    return "hedge";
+                })
+                .hedge(POLICY)
+                .execute();
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(attempts).hasSize(2);
+        assertThat(interrupted.await(200, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void resetForgetsBudgets() throws Exception {
+        fastPrimaryIsNotHedged();
+        assertThat(Hedging.getBudget(Key.PRIMARY_WINS)).isPresent();
+
+        Tenacity.reset();
+        assertThat(Hedging.getBudget(Key.PRIMARY_WINS)).isEmpty();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
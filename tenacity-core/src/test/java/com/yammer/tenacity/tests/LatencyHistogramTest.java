@@ -0,0 +1,170 @@
+package com.yammer.tenacity.tests;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.netflix.hystrix.Hystrix;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.metrics.HdrHistogramReservoir;
+import com.yammer.tenacity.core.metrics.HdrHistogramSnapshot;
+import com.yammer.tenacity.core.metrics.YammerMetricsPublisher;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.HdrHistogram.Histogram;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        TIMED
+    }
+
+    private static class ManualClock extends Clock {
+        private final AtomicLong tick = new AtomicLong();
+
+        @Override
+        public long getTick() {
+            return tick.get();
+        }
+
+        private void advance(Duration duration) {
+            tick.addAndGet(duration.toNanoseconds());
+        }
+    }
+
+    @Test
+    public void percentilesAreWithinThePrecision() {
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.minutes(1));
+        for (long value = 1; value <= 100000; value++) {
+            reservoir.update(value);
+        }
+
+        final Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(100000);
+        assertThat(snapshot.get99thPercentile()).isCloseTo(99000, within(990.0));
+        assertThat(snapshot.getValue(0.999)).isCloseTo(99900, within(999.0));
+        assertThat(snapshot.getMin()).isEqualTo(1);
+        assertThat(snapshot.getMean()).isCloseTo(50000, within(500.0));
+    }
+
+    @Test
+    public void snapshotsRollOverAfterTheWindow() {
+        final ManualClock clock = new ManualClock();
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.seconds(10), clock);
+        reservoir.update(1000);
+        assertThat(reservoir.getSnapshot().size()).isEqualTo(1);
+
+        clock.advance(Duration.seconds(10));
+        reservoir.update(2000);
+        assertThat(reservoir.getSnapshot().size()).isEqualTo(2);
+
+        clock.advance(Duration.seconds(10));
+        final Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(1);
+        assertThat(snapshot.getMin()).isCloseTo(2000, within(20L));
+
+        clock.advance(Duration.seconds(10));
+        assertThat(reservoir.getSnapshot().size()).isZero();
+    }
+
+    @Test
+    public void sizeCountsTheValuesWithoutASnapshot() {
+        final ManualClock clock = new ManualClock();
+        final HdrHistogramReservoir reservoir = new HdrHistogramReservoir(2, Duration.seconds(10), clock);
+        reservoir.update(1000);
+        reservoir.update(2000);
+        assertThat(reservoir.size()).isEqualTo(2);
+
+        assertThat(reservoir.getSnapshot().size()).isEqualTo(2);
+        reservoir.update(3000);
+        assertThat(reservoir.size()).isEqualTo(3);
+
+        clock.advance(Duration.seconds(10));
+        reservoir.getSnapshot();
+        assertThat(reservoir.size()).isEqualTo(3);
+
+        clock.advance(Duration.seconds(10));
+        reservoir.getSnapshot();
+        assertThat(reservoir.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void snapshotsMerge() {
+        final HdrHistogramReservoir first = new HdrHistogramReservoir(2, Duration.minutes(1));
+        final HdrHistogramReservoir second = new HdrHistogramReservoir(2, Duration.minutes(1));
+        first.update(100);
+        second.update(300);
+
+        final Histogram merged = ((HdrHistogramSnapshot) first.getSnapshot()).getHistogram();
+        merged.add(((HdrHistogramSnapshot) second.getSnapshot()).getHistogram());
+        assertThat(merged.getTotalCount()).isEqualTo(2);
+        assertThat(merged.getValueAtPercentile(100)).isCloseTo(300, within(3L));
+    }
+
+    @Test
+    public void commandLatenciesArePublishedAsTimers() {
+        final MetricRegistry registry = new MetricRegistry();
+        HystrixPlugins.getInstance().registerMetricsPublisher(new YammerMetricsPublisher(registry, 3, Duration.minutes(1)));
+
+        for (int i = 0; i < 5; i++) {
+            TenacityCommand.<Boolean>builder(Key.TIMED)
+                    .run(() -> {
+                        try {
+                            Thread.sleep(20);
+                        } catch (InterruptedException err) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return true;
+                    })
+                    .execute();
+        }
+
+        final Timer latencyExecute = timer(registry, "TIMED.latencyExecute");
+        final Timer latencyTotal = timer(registry, "TIMED.latencyTotal");
+        assertThat(latencyExecute.getCount()).isEqualTo(5);
+        assertThat(latencyTotal.getCount()).isEqualTo(5);
+        assertThat(latencyExecute.getSnapshot()).isInstanceOf(HdrHistogramSnapshot.class);
+        assertThat(latencyExecute.getSnapshot().getMedian())
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(latencyTotal.getSnapshot().getMax())
+                .isGreaterThanOrEqualTo(latencyExecute.getSnapshot().getMin());
+    }
+
+    @Test
+    public void timersKeepRecordingAfterHystrixIsReset() {
+        final MetricRegistry registry = new MetricRegistry();
+        HystrixPlugins.getInstance().registerMetricsPublisher(new YammerMetricsPublisher(registry, 3, Duration.minutes(1)));
+        TenacityCommand.<Boolean>builder(Key.TIMED).run(() -> true).execute();
+
+        final Timer latencyTotal = timer(registry, "TIMED.latencyTotal");
+        assertThat(latencyTotal.getCount()).isEqualTo(1);
+
+        Hystrix.reset();
+        assertThat(latencyTotal.getCount()).isEqualTo(1);
+        TenacityCommand.<Boolean>builder(Key.TIMED).run(() -> true).execute();
+        TenacityCommand.<Boolean>builder(Key.TIMED).run(() -> true).execute();
+        assertThat(latencyTotal.getCount()).isEqualTo(3);
+    }
+
+    private static Timer timer(MetricRegistry registry, String suffix) {
+        for (Map.Entry<String, Timer> timer : registry.getTimers().entrySet()) {
+            if (timer.getKey().endsWith(suffix)) {
+                return timer.getValue();
+            }
+        }
+        throw new AssertionError("No timer named *" + suffix + " in " + registry.getTimers().keySet());
+    }
+}
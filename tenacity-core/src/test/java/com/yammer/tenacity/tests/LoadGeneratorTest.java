@@ -0,0 +1,109 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.CircuitBreakerConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.config.ThreadPoolConfiguration;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import com.yammer.tenacity.testing.load.LatencyDistribution;
+import com.yammer.tenacity.testing.load.LoadGenerator;
+import com.yammer.tenacity.testing.load.LoadReport;
+import com.yammer.tenacity.testing.load.StubDependency;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadGeneratorTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        DEPENDENCY
+    }
+
+    private static void register(TenacityConfiguration configuration) {
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.DEPENDENCY, configuration),
+                new BreakerboxConfiguration()).register();
+    }
+
+    private static LoadReport run(StubDependency dependency, int concurrency, double rate) throws Exception {
+        return LoadGenerator
+                .builder(() -> TenacityCommand.<String>builder(Key.DEPENDENCY)
+                        .run(dependency::call)
+                        .fallback(() -> "fallback")
+                        .build())
+                .concurrency(concurrency)
+                .rate(rate)
+                .duration(Duration.milliseconds(500))
+                .build()
+                .run();
+    }
+
+    @Test
+    public void healthyDependency() throws Exception {
+        final StubDependency dependency = StubDependency.builder()
+                .latency(LatencyDistribution.constant(Duration.milliseconds(5)))
+                .build();
+
+        final LoadReport report = run(dependency, 4, 0);
+
+        assertThat(report.getRequests()).isPositive().isEqualTo(dependency.getCalls());
+        assertThat(report.getCount(LoadReport.Outcome.SUCCESS)).isEqualTo(report.getRequests());
+        assertThat(report.getFallbacks()).isZero();
+        assertThat(report.getLatencyMicrosAtPercentile(50)).isGreaterThanOrEqualTo(5000);
+    }
+
+    @Test
+    public void undersizedThreadPoolsReject() throws Exception {
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setThreadpool(new ThreadPoolConfiguration(2, 1, -1, 5, 10000, 10));
+        register(configuration);
+        final StubDependency dependency = StubDependency.builder()
+                .latency(LatencyDistribution.uniform(Duration.milliseconds(10), Duration.milliseconds(30)))
+                .build();
+
+        final LoadReport report = run(dependency, 8, 0);
+
+        assertThat(report.getCount(LoadReport.Outcome.REJECTED)).isPositive();
+        assertThat(report.getCount(LoadReport.Outcome.SUCCESS)).isPositive();
+        assertThat(report.getErrors()).isZero();
+    }
+
+    @Test
+    public void failingDependenciesShortCircuit() throws Exception {
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setCircuitBreaker(new CircuitBreakerConfiguration(5, 5000, 50, 10000, 10));
+        register(configuration);
+        final StubDependency dependency = StubDependency.builder()
+                .latency(LatencyDistribution.exponential(Duration.milliseconds(1)))
+                .errorRate(1.0)
+                .build();
+
+        final LoadReport report = run(dependency, 2, 200);
+
+        assertThat(report.getRequests()).isLessThanOrEqualTo(110);
+        assertThat(report.getCount(LoadReport.Outcome.FAILURE)).isPositive();
+        assertThat(report.getCount(LoadReport.Outcome.SHORT_CIRCUITED)).isPositive();
+        assertThat(report.getFallbacks()).isEqualTo(report.getRequests());
+    }
+
+    @Test
+    public void latencyIncludesTimeSpentBehindSchedule() throws Exception {
+        final StubDependency dependency = StubDependency.builder()
+                .latency(LatencyDistribution.constant(Duration.milliseconds(50)))
+                .build();
+
+        final LoadReport report = run(dependency, 1, 100);
+
+        assertThat(report.getCount(LoadReport.Outcome.SUCCESS)).isEqualTo(report.getRequests());
+        assertThat(report.getLatencyMicrosAtPercentile(50)).isGreaterThanOrEqualTo(100000);
+        assertThat(report.getLatencyMicrosAtPercentile(100)).isGreaterThanOrEqualTo(300000);
+    }
+}
@@ -0,0 +1,264 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.TenacityObservableCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.CircuitBreakerConfiguration;
+import com.yammer.tenacity.core.config.LoadSheddingConfiguration;
+import com.yammer.tenacity.core.config.SemaphoreConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.deadline.Deadline;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import com.yammer.tenacity.core.shedding.Criticality;
+import com.yammer.tenacity.core.shedding.LoadShedder;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class LoadShedderTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        SHARED
+    }
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Future<String>> occupying = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE);
+        configuration.setExecutionIsolationThreadTimeoutInMillis(5000);
+        configuration.setSemaphore(new SemaphoreConfiguration(4, 10));
+        configuration.setLoadShedding(new LoadSheddingConfiguration(0.25, 0.5));
+        configuration.setCircuitBreaker(new CircuitBreakerConfiguration(1, 5000, 1, 10000, 10));
+        new TenacityPropertyRegister(ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.SHARED, configuration),
+                new BreakerboxConfiguration()).register();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        for (Future<String> future : occupying) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executorService.shutdownNow();
+    }
+
+    private void occupy(int slots) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(slots);
+        for (int i = 0; i < slots; i++) {
+            occupying.add(executorService.submit(() -> TenacityCommand.<String>builder(Key.SHARED)
+                    .run(() -> {
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException err) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "occupied";
+                    })
+                    .criticality(Criticality.CRITICAL)
+                    .execute()));
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static TenacityCommand.Builder<String> command(Criticality criticality) {
+        return TenacityCommand.<String>builder(Key.SHARED)
+                .run(() -> "value")
+                .fallback(() -> "fallback")
+                .criticality(criticality);
+    }
+
+    @Test
+    public void everythingRunsWhenIdle() {
+        final long shed = LoadShedder.getShedCount(Key.SHARED);
+        assertThat(command(Criticality.SHEDDABLE).execute()).isEqualTo("value");
+        assertThat(command(Criticality.DEFAULT).execute()).isEqualTo("value");
+        assertThat(command(Criticality.CRITICAL).execute()).isEqualTo("value");
+        assertThat(LoadShedder.getShedCount(Key.SHARED)).isEqualTo(shed);
+    }
+
+    @Test
+    public void shedsSheddableWorkFirst() throws Exception {
+        occupy(2);
+        final long shed = LoadShedder.getShedCount(Key.SHARED);
+
+        assertThat(command(Criticality.SHEDDABLE).execute()).isEqualTo("fallback");
+        assertThat(command(Criticality.DEFAULT).execute()).isEqualTo("value");
+        assertThat(command(Criticality.CRITICAL).execute()).isEqualTo("value");
+        assertThat(LoadShedder.getShedCount(Key.SHARED)).isEqualTo(shed + 1);
+    }
+
+    @Test
+    public void reservesCapacityForCriticalWork() throws Exception {
+        occupy(3);
+
+        assertThat(command(Criticality.DEFAULT).execute()).isEqualTo("fallback");
+        assertThat(command(Criticality.CRITICAL).execute()).isEqualTo("value");
+    }
+
+    @Test
+    public void shedWorkWithoutAFallbackIsRejected() throws Exception {
+        occupy(2);
+
+        try {
+            TenacityCommand.<String>builder(Key.SHARED)
+                    .run(() -> "value")
+                    .criticality(Criticality.SHEDDABLE)
+                    .execute();
+            fail("Sheddable work should have been shed");
+        } catch (HystrixRuntimeException err) {
+            assertThat(err.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION);
+            assertThat(err.getMessage()).contains("no fallback available");
+            assertThat(err.getCause()).isInstanceOf(RejectedExecutionException.class);
+        }
+    }
+
+    @Test
+    public void shedWorkNeverReachesHystrix() throws Exception {
+        occupy(2);
+
+        final TenacityCommand<String> command = command(Criticality.SHEDDABLE).build();
+        assertThat(command.execute()).isEqualTo("fallback");
+        assertThat(command.isResponseShed()).isTrue();
+        assertThat(command.isResponseRejected()).isFalse();
+        assertThat(command.getExecutionEvents()).isEmpty();
+    }
+
+    @Test
+    public void shedObservableWorkFallsBack() throws Exception {
+        occupy(2);
+
+        final TenacityObservableCommand<String> command = TenacityObservableCommand.<String>builder(Key.SHARED)
+                .run(() -> Observable.just("value"))
+                .fallback(() -> Observable.just("fallback"))
+                .criticality(Criticality.SHEDDABLE)
+                .build();
+        assertThat(command.toObservable().toBlocking().single()).isEqualTo("fallback");
+        assertThat(command.isResponseShed()).isTrue();
+        assertThat(command.isResponseRejected()).isFalse();
+    }
+
+    @Test
+    public void heavySheddingDoesNotOpenTheCircuit() throws Exception {
+        occupy(2);
+        final long shed = LoadShedder.getShedCount(Key.SHARED);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(command(Criticality.SHEDDABLE).execute()).isEqualTo("fallback");
+        }
+        /* Let Hystrix take a health snapshot, which is when the circuit would open */
+        Thread.sleep(TenacityCommand.getCommandProperties(Key.SHARED).metricsHealthSnapshotIntervalInMilliseconds().get() * 2);
+
+        assertThat(LoadShedder.getShedCount(Key.SHARED)).isEqualTo(shed + 100);
+        assertThat(TenacityCommand.getCommandMetrics(Key.SHARED).getHealthCounts().getErrorCount()).isZero();
+        assertThat(command(Criticality.CRITICAL).execute()).isEqualTo("value");
+        assertThat(TenacityCommand.getCircuitBreaker(Key.SHARED).isOpen()).isFalse();
+    }
+
+    @Test
+    public void shedFallbacksAreBounded() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(
+                TenacityPropertyRegister.semaphoreFallbackMaxConcurrentRequests(Key.SHARED), 1);
+        occupy(2);
+        final CountDownLatch fallingBack = new CountDownLatch(1);
+        final Future<String> blocked = executorService.submit(() -> TenacityCommand.<String>builder(Key.SHARED)
+                .run(() -> "value")
+                .fallback(() -> {
+                    fallingBack.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException err) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "fallback";
+                })
+                .criticality(Criticality.SHEDDABLE)
+                .execute());
+        occupying.add(blocked);
+        assertThat(fallingBack.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            command(Criticality.SHEDDABLE).execute();
+            fail("The shed fallback should have been rejected");
+        } catch (HystrixRuntimeException err) {
+            assertThat(err.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION);
+            assertThat(err.getMessage()).contains("fallback rejected");
+        }
+
+        release.countDown();
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isEqualTo("fallback");
+    }
+
+    @Test
+    public void shedFallbacksRunUnderTheCommandsDeadline() throws Exception {
+        occupy(2);
+        final AtomicReference<Optional<Deadline>> fallbackDeadline = new AtomicReference<>();
+        final Deadline deadline = Deadline.after(Duration.seconds(10));
+        final TenacityCommand<String> command;
+        try (Deadline.Scope ignored = deadline.attach()) {
+            command = TenacityCommand.<String>builder(Key.SHARED)
+                    .run(() -> "value")
+                    .fallback(() -> {
+                        fallbackDeadline.set(Deadline.current());
+                        return "fallback";
+                    })
+                    .criticality(Criticality.SHEDDABLE)
+                    .build();
+        }
+
+        assertThat(command.execute()).isEqualTo("fallback");
+        assertThat(fallbackDeadline.get()).contains(deadline);
+    }
+
+    @Test
+    public void shedCommandsExecuteOnlyOnce() throws Exception {
+        occupy(2);
+        final long shed = LoadShedder.getShedCount(Key.SHARED);
+
+        final TenacityCommand<String> command = command(Criticality.SHEDDABLE).build();
+        assertThat(command.execute()).isEqualTo("fallback");
+        try {
+            command.execute();
+            fail("A command can only be executed once");
+        } catch (HystrixRuntimeException err) {
+            assertThat(err.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.BAD_REQUEST_EXCEPTION);
+        }
+        assertThat(LoadShedder.getShedCount(Key.SHARED)).isEqualTo(shed + 1);
+    }
+
+    @Test
+    public void configurationIsRegistered() {
+        assertThat(TenacityPropertyStore.getTenacityConfiguration(Key.SHARED).getLoadShedding())
+                .isEqualTo(new LoadSheddingConfiguration(0.25, 0.5));
+    }
+}
@@ -0,0 +1,180 @@
+package com.yammer.tenacity.tests;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.core.CircuitBreaker;
+import com.yammer.tenacity.core.core.CircuitBreakerStateCache;
+import com.yammer.tenacity.core.errors.TenacityExceptionMapper;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class RetryAfterTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        BROKEN, ALREADY_BROKEN, SLOW
+    }
+
+    @Before
+    public void setup() {
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.default.metrics.healthSnapshot.intervalInMilliseconds", 10);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.BROKEN.circuitBreaker.requestVolumeThreshold", 1);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.BROKEN.circuitBreaker.sleepWindowInMilliseconds", 3000);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.ALREADY_BROKEN.circuitBreaker.requestVolumeThreshold", 1);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.ALREADY_BROKEN.circuitBreaker.sleepWindowInMilliseconds", 3000);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.SLOW.execution.isolation.strategy", "SEMAPHORE");
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.SLOW.execution.isolation.semaphore.maxConcurrentRequests", 1);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.SLOW.execution.isolation.thread.timeoutInMilliseconds", 5000);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.SLOW.metrics.rollingPercentile.timeInMilliseconds", 1000);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.command.SLOW.metrics.rollingPercentile.numBuckets", 10);
+    }
+
+    private static HystrixRuntimeException failure(Key key) {
+        try {
+            TenacityCommand.<Boolean>builder(key)
+                    .run(() -> {
+                        throw new IllegalStateException();
+                    })
+                    .execute();
+        } catch (HystrixRuntimeException err) {
+            return err;
+        }
+        fail("Expected a HystrixRuntimeException");
+        return null;
+    }
+
+    private static Optional<CircuitBreaker.State> state() {
+        return CircuitBreakerStateCache.get(Key.BROKEN).map(CircuitBreaker::getState);
+    }
+
+    private static HystrixRuntimeException rejection(Key key) {
+        try {
+            TenacityCommand.<Boolean>builder(key)
+                    .run(() -> true)
+                    .execute();
+        } catch (HystrixRuntimeException err) {
+            return err;
+        }
+        fail("Expected a HystrixRuntimeException");
+        return null;
+    }
+
+    @Test
+    public void shortCircuitsRetryAfterTheRestOfTheSleepWindow() throws Exception {
+        /* Seen closed, so that the circuit is seen to open */
+        TenacityCommand.<Boolean>builder(Key.BROKEN).run(() -> true).execute();
+        assertThat(state()).contains(CircuitBreaker.State.CLOSED);
+
+        for (int i = 0; i < 50 && !state().equals(Optional.of(CircuitBreaker.State.OPEN)); i++) {
+            failure(Key.BROKEN);
+            Thread.sleep(20);
+        }
+        assertThat(state()).contains(CircuitBreaker.State.OPEN);
+        Thread.sleep(1100);
+
+        final HystrixRuntimeException shortCircuited = failure(Key.BROKEN);
+        assertThat(shortCircuited.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.SHORTCIRCUIT);
+        assertThat(TenacityExceptionMapper.retryAfterSeconds(shortCircuited)).contains(2L);
+    }
+
+    @Test
+    public void forcedOpenCircuitsRetryAfterTheWholeSleepWindow() {
+        failure(Key.BROKEN);
+        TenacityPropertyRegister.registerCircuitForceOpen(Key.BROKEN);
+        assertThat(state()).contains(CircuitBreaker.State.FORCED_OPEN);
+
+        final HystrixRuntimeException shortCircuited = failure(Key.BROKEN);
+        assertThat(shortCircuited.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.SHORTCIRCUIT);
+        assertThat(TenacityExceptionMapper.retryAfterSeconds(shortCircuited)).contains(3L);
+    }
+
+    @Test
+    public void circuitsAlreadyOpenWhenFirstSeenRetryAfterTheWholeSleepWindow() throws Exception {
+        HystrixRuntimeException shortCircuited = failure(Key.ALREADY_BROKEN);
+        for (int i = 0; i < 50 && shortCircuited.getFailureType() != HystrixRuntimeException.FailureType.SHORTCIRCUIT; i++) {
+            Thread.sleep(20);
+            shortCircuited = failure(Key.ALREADY_BROKEN);
+        }
+        assertThat(shortCircuited.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.SHORTCIRCUIT);
+        assertThat(CircuitBreakerStateCache.get(Key.ALREADY_BROKEN).map(CircuitBreaker::getState))
+                .contains(CircuitBreaker.State.OPEN);
+        Thread.sleep(1100);
+
+        assertThat(TenacityExceptionMapper.retryAfterSeconds(failure(Key.ALREADY_BROKEN))).contains(3L);
+    }
+
+    @Test
+    public void rejectionsRetryAfterTheQueueDrains() throws Exception {
+        final TenacityCommand.Builder<Boolean> slow = TenacityCommand.<Boolean>builder(Key.SLOW)
+                .run(() -> {
+                    sleep(1200);
+                    return true;
+                });
+        assertThat(slow.execute()).isTrue();
+        /* Latencies are only recorded once something asks for them */
+        assertThat(TenacityCommand.getCommandMetrics(Key.SLOW).getExecutionTimeMean()).isZero();
+        assertThat(slow.execute()).isTrue();
+        for (int i = 0; i < 100 && TenacityCommand.getCommandMetrics(Key.SLOW).getExecutionTimeMean() == 0; i++) {
+            Thread.sleep(20);
+        }
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final Thread occupying = new Thread(() -> TenacityCommand.<Boolean>builder(Key.SLOW)
+                .run(() -> {
+                    started.countDown();
+                    sleep(1200);
+                    return true;
+                })
+                .execute());
+        occupying.start();
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        final HystrixRuntimeException rejected = rejection(Key.SLOW);
+        assertThat(rejected.getFailureType()).isEqualTo(HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION);
+        assertThat(TenacityExceptionMapper.retryAfterSeconds(rejected)).contains(2L);
+        occupying.join();
+    }
+
+    @Test
+    public void failuresOfOtherCommandsRetryAfterASecond() {
+        final HystrixRuntimeException rejected = new HystrixRuntimeException(
+                HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION,
+                TenacityCommand.class,
+                Key.SLOW.name() + " could not acquire a semaphore for execution and no fallback available.",
+                null,
+                null);
+        assertThat(TenacityExceptionMapper.retryAfterSeconds(rejected)).contains(1L);
+    }
+
+    @Test
+    public void unknownKeysRetryAfterASecond() {
+        final HystrixRuntimeException rejected = new HystrixRuntimeException(
+                HystrixRuntimeException.FailureType.SHORTCIRCUIT,
+                TenacityCommand.class,
+                "UNKNOWN short-circuited and no fallback available.",
+                null,
+                null);
+        assertThat(TenacityExceptionMapper.retryAfterSeconds(rejected)).contains(1L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
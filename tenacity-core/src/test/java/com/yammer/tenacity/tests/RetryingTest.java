@@ -0,0 +1,124 @@
+package com.yammer.tenacity.tests;
+
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.retry.RetryPolicy;
+import com.yammer.tenacity.core.retry.Retrying;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RetryingTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        TRANSIENT, NOT_RETRYABLE, EXHAUSTED, FAILING_FALLBACK, NO_FALLBACK, BUDGET
+    }
+
+    private static RetryPolicy policy(int maxAttempts, double budgetRatio, int maxBudget) {
+        return new RetryPolicy(maxAttempts, Duration.milliseconds(1), Duration.milliseconds(5),
+                (err) -> err instanceof IllegalStateException, budgetRatio, maxBudget);
+    }
+
+    private static TenacityCommand.Builder<String> failing(TenacityPropertyKey key, AtomicInteger attempts, int failures) {
+        return TenacityCommand
+                .<String>builder(key)
+                .run(() -> {
+                    if (attempts.incrementAndGet() <= failures) {
+                        throw new IllegalStateException("transient");
+                    }
+                    return "success";
+                });
+    }
+
+    @Test
+    public void retriesTransientFailures() {
+        final AtomicInteger attempts = new AtomicInteger();
+        assertThat(failing(Key.TRANSIENT, attempts, 2)
+                .fallback(() -> "fallback")
+                .retry(policy(3, 0.1, 10))
+                .execute()).isEqualTo("success");
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void doesNotRetryWhatIsNotRetryable() {
+        final AtomicInteger attempts = new AtomicInteger();
+        assertThat(TenacityCommand
+                .<String>builder(Key.NOT_RETRYABLE)
+                .run(() -> {
+                    attempts.incrementAndGet();
+                    throw new UnsupportedOperationException("permanent");
+                })
+                .fallback(() -> "fallback")
+                .retry(policy(3, 0.1, 10))
+                .execute()).isEqualTo("fallback");
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void fallsBackOnceAttemptsAreExhausted() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger fallbacks = new AtomicInteger();
+        assertThat(failing(Key.EXHAUSTED, attempts, Integer.MAX_VALUE)
+                .fallback(() -> "fallback" + fallbacks.incrementAndGet())
+                .retry(policy(3, 0.1, 10))
+                .execute()).isEqualTo("fallback1");
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void fallsBackInsideTheLastAttempt() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final List<String> fallbackThreads = new CopyOnWriteArrayList<>();
+        assertThatThrownBy(() -> failing(Key.FAILING_FALLBACK, attempts, Integer.MAX_VALUE)
+                .fallback(() -> {
+                    fallbackThreads.add(Thread.currentThread().getName());
+                    throw new IllegalArgumentException("fallback failed");
+                })
+                .retry(policy(3, 0.1, 10))
+                .execute())
+                .isInstanceOfSatisfying(HystrixRuntimeException.class, (err) -> assertThat(err.getFallbackException())
+                        .isInstanceOf(IllegalArgumentException.class))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(fallbackThreads).hasSize(1);
+        assertThat(fallbackThreads.get(0)).startsWith("hystrix-");
+    }
+
+    @Test
+    public void failsWithoutFallback() {
+        final AtomicInteger attempts = new AtomicInteger();
+        assertThatThrownBy(() -> failing(Key.NO_FALLBACK, attempts, Integer.MAX_VALUE)
+                .retry(policy(2, 0.1, 10))
+                .execute())
+                .isInstanceOf(HystrixRuntimeException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void retriesAreLimitedByTheBudget() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final TenacityCommand.Builder<String> builder = failing(Key.BUDGET, attempts, Integer.MAX_VALUE)
+                .fallback(() -> "fallback")
+                .retry(policy(5, 0.0, 1));
+
+        assertThat(builder.execute()).isEqualTo("fallback");
+        assertThat(attempts.get()).isEqualTo(2);
+
+        assertThat(builder.execute()).isEqualTo("fallback");
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(Retrying.getBudget(Key.BUDGET).get().getBalance()).isZero();
+    }
+}
@@ -0,0 +1,144 @@
+package com.yammer.tenacity.tests;
+
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.coalescing.SingleFlight;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        FEATURE_FLAGS
+    }
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger fallbacks = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    private TenacityCommand.Builder<String> lookup(String argument, boolean fail) {
+        return TenacityCommand
+                .<String>builder(Key.FEATURE_FLAGS)
+                .run(() -> {
+                    final int call = calls.incrementAndGet();
+                    sleep();
+                    if (fail) {
+                        throw new IllegalStateException("down");
+                    }
+                    return argument + call;
+                })
+                .fallback(() -> "fallback" + fallbacks.incrementAndGet())
+                .singleFlight("flags", argument);
+    }
+
+    private TenacityCommand.Builder<Integer> count(String argument) {
+        return TenacityCommand
+                .<Integer>builder(Key.FEATURE_FLAGS)
+                .run(() -> {
+                    calls.incrementAndGet();
+                    sleep();
+                    return argument.length();
+                })
+                .fallback(() -> -1)
+                .singleFlight("count", argument);
+    }
+
+    private List<String> concurrently(List<Supplier<String>> executions) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<String>> futures = new ArrayList<>();
+        for (Supplier<String> execution : executions) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return execution.get();
+            }));
+        }
+        start.countDown();
+
+        final List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @Test
+    public void concurrentExecutionsShareOneCall() throws Exception {
+        final List<Supplier<String>> executions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            executions.add(() -> lookup("alice", false).execute());
+        }
+
+        assertThat(concurrently(executions)).containsOnly("alice1");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(SingleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    public void concurrentExecutionsShareTheFallback() throws Exception {
+        final List<Supplier<String>> executions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            executions.add(() -> lookup("alice", true).execute());
+        }
+
+        assertThat(concurrently(executions)).containsOnly("fallback1");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(fallbacks.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void differentArgumentsAreNotShared() throws Exception {
+        final List<Supplier<String>> executions = new ArrayList<>();
+        executions.add(() -> lookup("alice", false).execute());
+        executions.add(() -> lookup("bob", false).execute());
+
+        assertThat(concurrently(executions)).hasSize(2);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void differentGroupsAreNotShared() throws Exception {
+        final List<Supplier<String>> executions = new ArrayList<>();
+        executions.add(() -> lookup("alice", false).execute());
+        executions.add(() -> String.valueOf(count("alice").execute()));
+
+        final List<String> results = concurrently(executions);
+        assertThat(results.get(0)).startsWith("alice");
+        assertThat(results.get(1)).isEqualTo("5");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void sequentialExecutionsAreNotShared() {
+        assertThat(lookup("alice", false).execute()).isEqualTo("alice1");
+        assertThat(lookup("alice", false).execute()).isEqualTo("alice2");
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
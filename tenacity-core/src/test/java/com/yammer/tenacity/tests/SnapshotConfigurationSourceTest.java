@@ -0,0 +1,140 @@
+package com.yammer.tenacity.tests;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.config.DynamicLongProperty;
+import com.netflix.config.DynamicPropertyFactory;
+import com.netflix.config.PollResult;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
+import com.yammer.tenacity.core.properties.SnapshotConfigurationSource;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotConfigurationSourceTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private static Properties read(Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        return properties;
+    }
+
+    @Test
+    public void startsFromTheSnapshotWithoutPollingTheSource() throws Exception {
+        final Path snapshot = folder.getRoot().toPath().resolve("tenacity.snapshot");
+        Files.write(snapshot, "a=1\nb=1\n".getBytes(StandardCharsets.ISO_8859_1));
+        final AtomicInteger polls = new AtomicInteger();
+        final SnapshotConfigurationSource source = new SnapshotConfigurationSource((initial, checkPoint) -> {
+            polls.incrementAndGet();
+            return PollResult.createFull(ImmutableMap.of("a", "2"));
+        }, snapshot);
+
+        assertThat(source.poll(true, null).getComplete()).isEqualTo(ImmutableMap.of("a", "1", "b", "1"));
+        assertThat(polls.get()).isZero();
+
+        final PollResult result = source.poll(false, null);
+        assertThat(polls.get()).isEqualTo(1);
+        assertThat(result.getChanged()).isEqualTo(ImmutableMap.of("a", "2"));
+        assertThat(result.getDeleted()).containsOnlyKeys("b");
+        assertThat(read(snapshot)).isEqualTo(ImmutableMap.of("a", "2"));
+    }
+
+    @Test
+    public void writesWhatTheSourceChanged() throws Exception {
+        final Path snapshot = folder.getRoot().toPath().resolve("snapshots").resolve("tenacity.snapshot");
+        final SnapshotConfigurationSource source = new SnapshotConfigurationSource((initial, checkPoint) -> initial
+                ? PollResult.createFull(ImmutableMap.of("a", "1", "b", "1"))
+                : PollResult.createIncremental(ImmutableMap.of("c", "1"), null, ImmutableMap.of("b", "1"), checkPoint),
+                snapshot);
+
+        assertThat(source.poll(true, null).getComplete()).isEqualTo(ImmutableMap.of("a", "1", "b", "1"));
+        assertThat(read(snapshot)).isEqualTo(ImmutableMap.of("a", "1", "b", "1"));
+
+        final PollResult result = source.poll(false, null);
+        assertThat(result.getAdded()).isEqualTo(ImmutableMap.of("c", "1"));
+        assertThat(result.getDeleted()).containsOnlyKeys("b");
+        assertThat(read(snapshot)).isEqualTo(ImmutableMap.of("a", "1", "c", "1"));
+    }
+
+    @Test
+    public void registerDoesNotWaitForBreakerboxWithASnapshot() throws Exception {
+        final String timeout = "hystrix.command.SNAPSHOTTED.execution.isolation.thread.timeoutInMilliseconds";
+        final Path snapshot = folder.getRoot().toPath().resolve("tenacity.snapshot");
+        Files.write(snapshot, (timeout + "=2000\n").getBytes(StandardCharsets.ISO_8859_1));
+        wireMockRule.stubFor(get(urlEqualTo("/archaius/test"))
+                .willReturn(aResponse().withStatus(200).withBody(timeout + "=3000\n").withFixedDelay(1000)));
+        final BreakerboxConfiguration breakerboxConfiguration = new BreakerboxConfiguration();
+        breakerboxConfiguration.setUrls("http://localhost:" + wireMockRule.port() + "/archaius/test");
+        breakerboxConfiguration.setSnapshot(snapshot.toString());
+        breakerboxConfiguration.setJitter(0.0);
+        breakerboxConfiguration.setWaitForInitialLoad(Duration.seconds(5));
+
+        final long start = System.nanoTime();
+        new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        final DynamicLongProperty property = DynamicPropertyFactory.getInstance().getLongProperty(timeout, 0);
+        assertThat(property.get()).isEqualTo(2000);
+
+        for (int i = 0; i < 250 && property.get() != 3000; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(property.get()).isEqualTo(3000);
+        assertThat(read(snapshot)).containsEntry(timeout, "3000");
+    }
+
+    @Test
+    public void propertiesBreakerboxNoLongerServesAreRemoved() throws Exception {
+        final String timeout = "hystrix.command.SNAPSHOTTED.execution.isolation.thread.timeoutInMilliseconds";
+        final String coreSize = "hystrix.threadpool.SNAPSHOTTED.coreSize";
+        ConfigurationManager.getConfigInstance().setProperty(coreSize, 10);
+        final Path snapshot = folder.getRoot().toPath().resolve("tenacity.snapshot");
+        Files.write(snapshot, (timeout + "=2000\n" + coreSize + "=20\n").getBytes(StandardCharsets.ISO_8859_1));
+        wireMockRule.stubFor(get(urlEqualTo("/archaius/test"))
+                .willReturn(aResponse().withStatus(200).withBody(timeout + "=3000\n").withFixedDelay(200)));
+        final BreakerboxConfiguration breakerboxConfiguration = new BreakerboxConfiguration();
+        breakerboxConfiguration.setUrls("http://localhost:" + wireMockRule.port() + "/archaius/test");
+        breakerboxConfiguration.setSnapshot(snapshot.toString());
+        breakerboxConfiguration.setJitter(0.0);
+
+        new ArchaiusPropertyRegister().register(breakerboxConfiguration);
+        final DynamicLongProperty timeoutProperty = DynamicPropertyFactory.getInstance().getLongProperty(timeout, 0);
+        final DynamicLongProperty coreSizeProperty = DynamicPropertyFactory.getInstance().getLongProperty(coreSize, 0);
+        assertThat(coreSizeProperty.get()).isEqualTo(20);
+
+        for (int i = 0; i < 250 && timeoutProperty.get() != 3000; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(timeoutProperty.get()).isEqualTo(3000);
+        assertThat(coreSizeProperty.get()).isEqualTo(10);
+        assertThat(read(snapshot)).isEqualTo(ImmutableMap.of(timeout, "3000"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TenacityAsyncCommandBuilderTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private static <R> R get(CompletionStage<R> stage) throws Exception {
+        return stage.toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noRunNoFallbackShouldFail() {
+        TenacityCommand
+                .asyncBuilder(DependencyKey.GENERAL)
+                .execute();
+    }
+
+    @Test
+    public void simpleExecuteNoFallback() throws Exception {
+        assertThat(get(TenacityCommand
+                .<Integer>asyncBuilder(DependencyKey.GENERAL)
+                .run(() -> CompletableFuture.completedFuture(1))
+                .execute())).isEqualTo(1);
+    }
+
+    @Test
+    public void doesNotWaitForTheStage() throws Exception {
+        final CompletableFuture<Integer> dependency = new CompletableFuture<>();
+        final AtomicReference<Thread> runThread = new AtomicReference<>();
+        final CompletionStage<Integer> result = TenacityCommand
+                .<Integer>asyncBuilder(DependencyKey.GENERAL)
+                .run(() -> {
+                    runThread.set(Thread.currentThread());
+                    return dependency;
+                })
+                .execute();
+
+        assertThat(result.toCompletableFuture().isDone()).isFalse();
+        assertThat(runThread.get()).isSameAs(Thread.currentThread());
+
+        dependency.complete(3);
+        assertThat(get(result)).isEqualTo(3);
+    }
+
+    @Test
+    public void failedStageWithoutFallbackFails() {
+        final CompletionStage<Integer> result = TenacityCommand
+                .<Integer>asyncBuilder(DependencyKey.GENERAL)
+                .run(() -> {
+                    final CompletableFuture<Integer> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(new IllegalStateException("down"));
+                    return failed;
+                })
+                .execute();
+
+        assertThatThrownBy(() -> get(result))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(HystrixRuntimeException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void failedStageCallsFallback() throws Exception {
+        assertThat(get(TenacityCommand
+                .<Integer>asyncBuilder(DependencyKey.GENERAL)
+                .run(() -> CompletableFuture.supplyAsync(() -> {
+                    throw new IllegalStateException("down");
+                }))
+                .fallback(() -> CompletableFuture.completedFuture(2))
+                .execute())).isEqualTo(2);
+    }
+
+    @Test
+    public void timesOutWithoutBlockingAndCancelsTheStage() throws Exception {
+        final TenacityConfiguration tenacityConfiguration = new TenacityConfiguration();
+        tenacityConfiguration.setExecutionIsolationThreadTimeoutInMillis(100);
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(DependencyKey.OBSERVABLE_TIMEOUT, tenacityConfiguration),
+                new BreakerboxConfiguration())
+                .register();
+
+        final CompletableFuture<Integer> neverCompletes = new CompletableFuture<>();
+        final CompletionStage<Integer> result = TenacityCommand
+                .<Integer>asyncBuilder(DependencyKey.OBSERVABLE_TIMEOUT)
+                .run(() -> neverCompletes)
+                .fallback(() -> CompletableFuture.completedFuture(4))
+                .execute();
+
+        assertThat(get(result)).isEqualTo(4);
+        assertThat(neverCompletes.isCancelled()).isTrue();
+    }
+}
@@ -0,0 +1,264 @@
+package com.yammer.tenacity.tests;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.HystrixCollapserKey;
+import com.netflix.hystrix.HystrixCollapserMetrics;
+import com.netflix.hystrix.HystrixCollapserProperties;
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestContext;
+import com.netflix.hystrix.strategy.properties.HystrixPropertiesFactory;
+import com.yammer.tenacity.core.TenacityCollapser;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.CollapserConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.metrics.YammerMetricsPublisherCollapser;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TenacityCollapserTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        USER_LOOKUP, FAILING_LOOKUP, CONFIGURED_LOOKUP, UNCONFIGURED_LOOKUP
+    }
+
+    private final List<Collection<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    private List<String> lookup(Collection<Integer> ids) {
+        batches.add(ImmutableList.copyOf(ids));
+        final List<String> users = new ArrayList<>();
+        for (Integer id : ids) {
+            if (id >= 0) {
+                users.add(id + ":user");
+            }
+        }
+        return users;
+    }
+
+    private static Integer idOf(String user) {
+        return Integer.valueOf(user.substring(0, user.indexOf(':')));
+    }
+
+    @Test
+    public void batchesConcurrentRequests() throws Exception {
+        final TenacityCollapser<Integer, String> collapser = TenacityCollapser
+                .<Integer, String>builder(Key.USER_LOOKUP)
+                .batch(this::lookup)
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .window(Duration.milliseconds(100))
+                .build();
+
+        final List<Future<String>> responses = new ArrayList<>();
+        for (int id = 0; id < 5; id++) {
+            responses.add(collapser.queue(id));
+        }
+        final Future<String> missing = collapser.queue(-1);
+
+        for (int id = 0; id < 5; id++) {
+            assertThat(responses.get(id).get(5, TimeUnit.SECONDS)).isEqualTo(id + ":user");
+        }
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsOnly(0, 1, 2, 3, 4, -1);
+    }
+
+    @Test
+    public void fallsBackPerArgument() throws Exception {
+        final TenacityCollapser<Integer, String> collapser = TenacityCollapser
+                .<Integer, String>builder(Key.FAILING_LOOKUP)
+                .batch(ids -> {
+                    throw new IllegalStateException("down");
+                })
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .fallback(id -> id + ":fallback")
+                .build();
+
+        final Future<String> first = collapser.queue(1);
+        final Future<String> second = collapser.queue(2);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("1:fallback");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("2:fallback");
+    }
+
+    @Test
+    public void collapsersSharingAKeyBatchTheirOwnRequests() throws Exception {
+        final TenacityCollapser<Integer, String> users = TenacityCollapser
+                .<Integer, String>builder(Key.USER_LOOKUP)
+                .batch(this::lookup)
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .window(Duration.milliseconds(100))
+                .build();
+        final TenacityCollapser<Integer, String> groups = TenacityCollapser
+                .<Integer, String>builder(Key.USER_LOOKUP)
+                .batch((ids) -> ImmutableList.of(ids.iterator().next() + ":group"))
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .window(Duration.milliseconds(100))
+                .build();
+
+        final Future<String> user = users.queue(1);
+        final Future<String> group = groups.queue(2);
+
+        assertThat(user.get(5, TimeUnit.SECONDS)).isEqualTo("1:user");
+        assertThat(group.get(5, TimeUnit.SECONDS)).isEqualTo("2:group");
+        assertThat(batches).containsExactly(ImmutableList.of(1));
+    }
+
+    @Test
+    public void cachesResponsesWithinARequestContext() throws Exception {
+        final TenacityCollapser<Integer, String> collapser = TenacityCollapser
+                .<Integer, String>builder(Key.USER_LOOKUP)
+                .batch(this::lookup)
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .build();
+
+        assertThat(collapser.execute(1)).isEqualTo("1:user");
+        assertThat(collapser.execute(1)).isEqualTo("1:user");
+        assertThat(batches).hasSize(2);
+
+        final HystrixRequestContext context = HystrixRequestContext.initializeContext();
+        try {
+            assertThat(collapser.execute(1)).isEqualTo("1:user");
+            assertThat(collapser.execute(1)).isEqualTo("1:user");
+            assertThat(batches).hasSize(3);
+        } finally {
+            context.shutdown();
+        }
+    }
+
+    private static class Id {
+        private final int value;
+
+        private Id(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Id && ((Id) obj).value == value;
+        }
+
+        @Override
+        public String toString() {
+            return "Id";
+        }
+    }
+
+    @Test
+    public void cachesResponsesByArgumentEquality() throws Exception {
+        final TenacityCollapser<Id, String> collapser = TenacityCollapser
+                .<Id, String>builder(Key.USER_LOOKUP)
+                .batch((ids) -> {
+                    final List<String> users = new ArrayList<>();
+                    for (Id id : ids) {
+                        users.add(id.value + ":user");
+                    }
+                    return users;
+                })
+                .argumentSelector((user) -> new Id(idOf(user)))
+                .build();
+
+        final HystrixRequestContext context = HystrixRequestContext.initializeContext();
+        try {
+            assertThat(collapser.execute(new Id(1))).isEqualTo("1:user");
+            assertThat(collapser.execute(new Id(2))).isEqualTo("2:user");
+            assertThat(collapser.execute(new Id(1))).isEqualTo("1:user");
+        } finally {
+            context.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void requiresABatchFunction() {
+        TenacityCollapser.<Integer, String>builder(Key.USER_LOOKUP)
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .build();
+    }
+
+    @Test
+    public void configurationIsRegistered() throws Exception {
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setCollapser(new CollapserConfiguration(3, 25, false));
+        new TenacityPropertyRegister(ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.CONFIGURED_LOOKUP, configuration),
+                new BreakerboxConfiguration()).register();
+
+        assertThat(TenacityPropertyStore.getTenacityConfiguration(Key.CONFIGURED_LOOKUP).getCollapser())
+                .isEqualTo(new CollapserConfiguration(3, 25, false));
+
+        final TenacityCollapser<Integer, String> collapser = TenacityCollapser
+                .<Integer, String>builder(Key.CONFIGURED_LOOKUP)
+                .batch(this::lookup)
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .window(Duration.milliseconds(100))
+                .build();
+        final List<Future<String>> responses = new ArrayList<>();
+        for (int id = 0; id < 6; id++) {
+            responses.add(collapser.queue(id));
+        }
+        for (int id = 0; id < 6; id++) {
+            assertThat(responses.get(id).get(5, TimeUnit.SECONDS)).isEqualTo(id + ":user");
+        }
+        assertThat(batches).allMatch(batch -> batch.size() <= 3);
+    }
+
+    @Test
+    public void builderDefaultsApplyWithoutACollapserSection() throws Exception {
+        new TenacityPropertyRegister(ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.UNCONFIGURED_LOOKUP, new TenacityConfiguration()),
+                new BreakerboxConfiguration()).register();
+
+        final TenacityCollapser<Integer, String> collapser = TenacityCollapser
+                .<Integer, String>builder(Key.UNCONFIGURED_LOOKUP)
+                .batch(this::lookup)
+                .argumentSelector(TenacityCollapserTest::idOf)
+                .maxBatchSize(2)
+                .window(Duration.milliseconds(200))
+                .build();
+        final long startNanos = System.nanoTime();
+        final List<Future<String>> responses = new ArrayList<>();
+        for (int id = 0; id < 5; id++) {
+            responses.add(collapser.queue(id));
+        }
+        assertThat(responses.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("0:user");
+        assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(150));
+        for (int id = 0; id < 5; id++) {
+            assertThat(responses.get(id).get(5, TimeUnit.SECONDS)).isEqualTo(id + ":user");
+        }
+        assertThat(batches).hasSize(3).allMatch(batch -> batch.size() <= 2);
+    }
+
+    @Test
+    public void publishesBatchSizes() {
+        final MetricRegistry registry = new MetricRegistry();
+        final HystrixCollapserKey collapserKey = TenacityCollapser.collapserKey(Key.USER_LOOKUP);
+        new YammerMetricsPublisherCollapser(collapserKey,
+                HystrixCollapserMetrics.getInstance(collapserKey,
+                        HystrixPropertiesFactory.getCollapserProperties(collapserKey, HystrixCollapserProperties.Setter())),
+                registry).initialize();
+
+        assertThat(registry.getGauges().keySet()).contains(
+                "HystrixCollapser.USER_LOOKUP.countBatches",
+                "HystrixCollapser.USER_LOOKUP.batchSize_mean",
+                "HystrixCollapser.USER_LOOKUP.batchSize_percentile_99",
+                "HystrixCollapser.USER_LOOKUP.batchSize_percentile_995");
+    }
+}
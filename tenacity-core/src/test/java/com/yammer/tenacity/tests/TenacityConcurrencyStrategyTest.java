@@ -0,0 +1,67 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.*;
+import com.yammer.tenacity.core.core.TenacityConcurrencyStrategy;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityPropertyStore;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TenacityConcurrencyStrategyTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        VIRTUAL, PLATFORM
+    }
+
+    private final ThreadPoolConfiguration virtualThreadPool = new ThreadPoolConfiguration(2, 1, -1, 5, 10000, 10, true);
+
+    @Before
+    public void setup() {
+        HystrixPlugins.getInstance().registerConcurrencyStrategy(new TenacityConcurrencyStrategy());
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(
+                        Key.VIRTUAL, new TenacityConfiguration(virtualThreadPool, new CircuitBreakerConfiguration(),
+                                new SemaphoreConfiguration(), 1000),
+                        Key.PLATFORM, new TenacityConfiguration()),
+                new BreakerboxConfiguration(),
+                mock(ArchaiusPropertyRegister.class)).register();
+    }
+
+    private static String executingThreadName(TenacityPropertyKey key) {
+        return TenacityCommand.<String>builder(key)
+                .run(() -> Thread.currentThread().getName())
+                .execute();
+    }
+
+    @Test
+    public void virtualThreadKeysRunOnVirtualThreadsWhenAvailable() {
+        final String expectedPrefix = TenacityConcurrencyStrategy.isVirtualThreadsAvailable()
+                ? "tenacity-VIRTUAL-"
+                : "hystrix-VIRTUAL-";
+        assertThat(executingThreadName(Key.VIRTUAL)).startsWith(expectedPrefix);
+    }
+
+    @Test
+    public void otherKeysKeepPlatformThreadPools() {
+        assertThat(executingThreadName(Key.PLATFORM)).startsWith("hystrix-PLATFORM-");
+    }
+
+    @Test
+    public void virtualThreadsIsReadBackFromProperties() {
+        assertThat(TenacityPropertyStore.getTenacityConfiguration(Key.VIRTUAL).getThreadpool())
+                .isEqualTo(virtualThreadPool);
+        assertThat(TenacityPropertyStore.isVirtualThreads(Key.PLATFORM)).isFalse();
+    }
+}
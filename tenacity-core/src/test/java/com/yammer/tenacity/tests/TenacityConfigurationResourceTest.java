@@ -1,14 +1,19 @@
 package com.yammer.tenacity.tests;
 
+import com.yammer.tenacity.core.TenacityCommand;
 import com.yammer.tenacity.core.config.TenacityConfiguration;
 import com.yammer.tenacity.core.properties.TenacityPropertyKeyFactory;
 import com.yammer.tenacity.core.resources.TenacityConfigurationResource;
+import com.yammer.tenacity.core.retry.RetryPolicy;
 import com.yammer.tenacity.testing.TenacityTestRule;
 import io.dropwizard.testing.junit.ResourceTestRule;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import javax.ws.rs.core.GenericType;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -40,4 +45,22 @@ public class TenacityConfigurationResourceTest {
 
         assertThat(tenacityConfiguration).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetRetryBudget() throws Exception {
+        when(tenacityPropertyKeyFactoryMock.from(anyString())).thenReturn(DependencyKey.EXAMPLE);
+        TenacityCommand.<String>builder(DependencyKey.EXAMPLE)
+                .run(() -> "value")
+                .retry(new RetryPolicy(2))
+                .execute();
+
+        final Map<String, Object> retryBudget = resources.client()
+                .target(TENACITY_CONFIGURATION_URI)
+                .path(DependencyKey.EXAMPLE.toString())
+                .path(TenacityConfigurationResource.RETRY_BUDGET_PATH)
+                .request()
+                .get(new GenericType<Map<String, Object>>() {});
+
+        assertThat(retryBudget).containsKeys("ratio", "maxTokens", "balance");
+    }
+}
@@ -11,6 +11,7 @@ import com.yammer.tenacity.core.errors.TenacityContainerExceptionMapper;
 import com.yammer.tenacity.core.errors.TenacityExceptionMapper;
 import com.yammer.tenacity.core.healthcheck.TenacityCircuitBreakerHealthCheck;
 import com.yammer.tenacity.core.logging.ExceptionLoggingCommandHook;
+import com.yammer.tenacity.core.metrics.YammerMetricsPublisherCommand;
 import com.yammer.tenacity.core.properties.StringTenacityPropertyKeyFactory;
 import com.yammer.tenacity.core.properties.TenacityPropertyKey;
 import com.yammer.tenacity.core.properties.TenacityPropertyKeyFactory;
@@ -155,6 +156,30 @@ public class TenacityConfiguredBundleBuilderTest {
                 ));
     }
     
+    @Test
+    public void withDeadlinePropagation() {
+        final TenacityConfiguredBundle<Configuration> bundle = TenacityBundleBuilder
+                .newBuilder()
+                .configurationFactory(CONFIGURATION_FACTORY)
+                .withDeadlinePropagation()
+                .build();
+
+        assertThat(bundle)
+                .isNotEqualTo(TenacityBundleBuilder.newBuilder().configurationFactory(CONFIGURATION_FACTORY).build())
+                .isEqualTo(new TenacityConfiguredBundle<>(
+                        CONFIGURATION_FACTORY,
+                        Optional.empty(),
+                        Collections.<ExceptionMapper<? extends Throwable>>emptyList(),
+                        false,
+                        false,
+                        YammerMetricsPublisherCommand.DEFAULT_LATENCY_SIGNIFICANT_DIGITS,
+                        YammerMetricsPublisherCommand.DEFAULT_LATENCY_WINDOW,
+                        false,
+                        true,
+                        true
+                ));
+    }
+
     @Test
     public void dropwizardClientRuleShouldAddTenacityCircuitBreakerHealthCheck() {
         assertThat(RULE.getEnvironment().healthChecks().getNames())
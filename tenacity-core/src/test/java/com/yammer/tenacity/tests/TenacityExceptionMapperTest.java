@@ -10,6 +10,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import javax.ws.rs.*;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import java.util.concurrent.TimeoutException;
 
@@ -74,6 +75,19 @@ public class TenacityExceptionMapperTest {
         verify(mockFactory, times(1)).from(anyString());
     }
 
+    @Test
+    public void shouldAskRejectedClientsToRetryLater() {
+        setupFailureType(HystrixRuntimeException.FailureType.REJECTED_SEMAPHORE_EXECUTION);
+
+        final Response response = resources.client()
+                .target("/random")
+                .request()
+                .get();
+
+        assertThat(response.getStatus()).isEqualTo(statusCode);
+        assertThat(response.getHeaderString(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
     @Test
     public void shouldStillThrowServerError() {
         setupFailureType(HystrixRuntimeException.FailureType.COMMAND_EXCEPTION);
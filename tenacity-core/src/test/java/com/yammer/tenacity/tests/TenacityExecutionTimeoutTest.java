@@ -0,0 +1,52 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.config.ConfigurationManager;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.properties.ArchaiusPropertyRegister;
+import com.yammer.tenacity.core.properties.TenacityExecutionTimeout;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TenacityExecutionTimeoutTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        CACHED_TIMEOUT
+    }
+
+    private static int hystrixTimeout() {
+        return TenacityCommand.getCommandProperties(Key.CACHED_TIMEOUT).executionTimeoutInMilliseconds().get();
+    }
+
+    @Test
+    public void followsPropertyChanges() {
+        final TenacityExecutionTimeout timeout = TenacityExecutionTimeout.of(Key.CACHED_TIMEOUT);
+        assertThat(timeout.getTimeoutInMillis()).isEqualTo(hystrixTimeout()).isEqualTo(1000);
+
+        ConfigurationManager.getConfigInstance()
+                .setProperty("hystrix.command.default.execution.isolation.thread.timeoutInMilliseconds", 2000);
+        assertThat(timeout.getTimeoutInMillis()).isEqualTo(hystrixTimeout()).isEqualTo(2000);
+
+        final TenacityConfiguration configuration = new TenacityConfiguration();
+        configuration.setExecutionIsolationThreadTimeoutInMillis(345);
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(Key.CACHED_TIMEOUT, configuration),
+                new BreakerboxConfiguration(),
+                mock(ArchaiusPropertyRegister.class)).register();
+        assertThat(timeout.getTimeoutInMillis()).isEqualTo(hystrixTimeout()).isEqualTo(345);
+
+        ConfigurationManager.getConfigInstance().clear();
+        assertThat(timeout.getTimeoutInMillis()).isEqualTo(1000);
+        assertThat(TenacityExecutionTimeout.of(Key.CACHED_TIMEOUT)).isSameAs(timeout);
+    }
+}
@@ -0,0 +1,110 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategyDefault;
+import com.netflix.hystrix.strategy.executionhook.HystrixCommandExecutionHook;
+import com.netflix.hystrix.strategy.metrics.HystrixMetricsPublisher;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.config.BreakerboxConfiguration;
+import com.yammer.tenacity.core.config.TenacityConfiguration;
+import com.yammer.tenacity.core.core.TenacityConcurrencyStrategy;
+import com.yammer.tenacity.core.core.TenacityHystrixPlugins;
+import com.yammer.tenacity.core.core.TenacityPropertiesStrategy;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TenacityHystrixPluginsTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        WRAPPED, EARLY
+    }
+
+    private static class CountingConcurrencyStrategy extends HystrixConcurrencyStrategy {
+        private final AtomicInteger wrapped = new AtomicInteger();
+
+        @Override
+        public <T> Callable<T> wrapCallable(Callable<T> callable) {
+            wrapped.incrementAndGet();
+            return callable;
+        }
+    }
+
+    @Test
+    public void wrapsTheRegisteredStrategies() {
+        final CountingConcurrencyStrategy concurrencyStrategy = new CountingConcurrencyStrategy();
+        final HystrixCommandExecutionHook executionHook = new HystrixCommandExecutionHook() {};
+        HystrixPlugins.getInstance().registerConcurrencyStrategy(concurrencyStrategy);
+        HystrixPlugins.getInstance().registerCommandExecutionHook(executionHook);
+
+        TenacityHystrixPlugins.registerStrategies(true, true);
+
+        assertThat(HystrixPlugins.getInstance().getConcurrencyStrategy()).isInstanceOf(TenacityConcurrencyStrategy.class);
+        assertThat(((TenacityConcurrencyStrategy) HystrixPlugins.getInstance().getConcurrencyStrategy()).getDelegate())
+                .isSameAs(concurrencyStrategy);
+        assertThat(HystrixPlugins.getInstance().getPropertiesStrategy()).isInstanceOf(TenacityPropertiesStrategy.class);
+        assertThat(HystrixPlugins.getInstance().getCommandExecutionHook()).isSameAs(executionHook);
+
+        new TenacityPropertyRegister(ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(
+                Key.WRAPPED, new TenacityConfiguration()), new BreakerboxConfiguration()).register();
+        assertThat(TenacityCommand.<String>builder(Key.WRAPPED).run(() -> "value").execute()).isEqualTo("value");
+        assertThat(concurrencyStrategy.wrapped.get()).isPositive();
+    }
+
+    @Test
+    public void registersOnlyOnce() {
+        TenacityHystrixPlugins.registerStrategies(true, false);
+        final HystrixConcurrencyStrategy registered = HystrixPlugins.getInstance().getConcurrencyStrategy();
+
+        TenacityHystrixPlugins.registerStrategies(true, false);
+
+        assertThat(HystrixPlugins.getInstance().getConcurrencyStrategy()).isSameAs(registered);
+        assertThat(HystrixPlugins.getInstance().getPropertiesStrategy()).isNotInstanceOf(TenacityPropertiesStrategy.class);
+    }
+
+    @Test
+    public void registersNothingUnlessAsked() {
+        TenacityHystrixPlugins.registerStrategies(false, false);
+
+        assertThat(HystrixPlugins.getInstance().getConcurrencyStrategy()).isNotInstanceOf(TenacityConcurrencyStrategy.class);
+        assertThat(HystrixPlugins.getInstance().getPropertiesStrategy()).isNotInstanceOf(TenacityPropertiesStrategy.class);
+    }
+
+    @Test
+    public void registersAroundTheDefaultsWithoutAReset() {
+        final HystrixMetricsPublisher metricsPublisher = new HystrixMetricsPublisher() {};
+        HystrixPlugins.getInstance().registerMetricsPublisher(metricsPublisher);
+        final HystrixPlugins plugins = HystrixPlugins.getInstance();
+
+        TenacityHystrixPlugins.registerStrategies(true, true);
+
+        assertThat(HystrixPlugins.getInstance()).isSameAs(plugins);
+        assertThat(HystrixPlugins.getInstance().getMetricsPublisher()).isSameAs(metricsPublisher);
+        assertThat(((TenacityConcurrencyStrategy) HystrixPlugins.getInstance().getConcurrencyStrategy()).getDelegate())
+                .isSameAs(HystrixConcurrencyStrategyDefault.getInstance());
+        assertThat(HystrixPlugins.getInstance().getPropertiesStrategy()).isInstanceOf(TenacityPropertiesStrategy.class);
+    }
+
+    @Test
+    public void refusesToWrapOnceCommandsWereCreated() {
+        final CountingConcurrencyStrategy concurrencyStrategy = new CountingConcurrencyStrategy();
+        HystrixPlugins.getInstance().registerConcurrencyStrategy(concurrencyStrategy);
+        assertThat(TenacityCommand.<String>builder(Key.EARLY).run(() -> "value").execute()).isEqualTo("value");
+
+        assertThatThrownBy(() -> TenacityHystrixPlugins.registerStrategies(true, false))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(HystrixPlugins.getInstance().getConcurrencyStrategy()).isSameAs(concurrencyStrategy);
+    }
+}
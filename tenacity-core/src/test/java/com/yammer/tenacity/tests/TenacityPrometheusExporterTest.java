@@ -0,0 +1,102 @@
+package com.yammer.tenacity.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.metrics.TenacityPrometheusExporter;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TenacityPrometheusExporterTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        EXPORTED, IDLE
+    }
+
+    private static String scrape(TenacityPrometheusExporter exporter) throws IOException {
+        final StringWriter writer = new StringWriter();
+        exporter.write(writer);
+        return writer.toString();
+    }
+
+    private static void execute(boolean succeed) {
+        TenacityCommand.<Boolean>builder(Key.EXPORTED)
+                .run(() -> {
+                    if (!succeed) {
+                        throw new IllegalStateException();
+                    }
+                    return true;
+                })
+                .fallback(() -> false)
+                .execute();
+    }
+
+    @Test
+    public void countsEventsAndLatencies() throws Exception {
+        final TenacityPrometheusExporter exporter =
+                new TenacityPrometheusExporter(ImmutableList.<TenacityPropertyKey>of(Key.EXPORTED, Key.IDLE));
+        execute(true);
+        execute(true);
+        execute(false);
+
+        final List<String> lines = Arrays.asList(scrape(exporter).split("\n"));
+        assertThat(lines).contains(
+                "tenacity_command_events_total{key=\"EXPORTED\",event=\"success\"} 2",
+                "tenacity_command_events_total{key=\"EXPORTED\",event=\"failure\"} 1",
+                "tenacity_command_events_total{key=\"EXPORTED\",event=\"fallback_success\"} 1",
+                "tenacity_command_events_total{key=\"EXPORTED\",event=\"timeout\"} 0",
+                "tenacity_command_shed_total{key=\"EXPORTED\"} 0",
+                "tenacity_command_total_latency_seconds_bucket{key=\"EXPORTED\",le=\"+Inf\"} 3",
+                "tenacity_command_total_latency_seconds_count{key=\"EXPORTED\"} 3",
+                "tenacity_command_execution_latency_seconds_count{key=\"EXPORTED\"} 3",
+                "tenacity_threadpool_queue_size{key=\"EXPORTED\"} 0",
+                "tenacity_circuit_breaker_state{key=\"EXPORTED\",state=\"closed\"} 1",
+                "tenacity_circuit_breaker_state{key=\"EXPORTED\",state=\"open\"} 0");
+        assertThat(String.join("\n", lines)).doesNotContain("IDLE");
+    }
+
+    @Test
+    public void writesEachFamilyOnce() throws Exception {
+        final TenacityPrometheusExporter exporter =
+                new TenacityPrometheusExporter(ImmutableList.<TenacityPropertyKey>of(Key.EXPORTED));
+        execute(true);
+
+        final List<String> families = new ArrayList<>();
+        String family = null;
+        for (String line : scrape(exporter).split("\n")) {
+            if (line.startsWith("# TYPE ")) {
+                family = line.split(" ")[2];
+                assertThat(families).doesNotContain(family);
+                families.add(family);
+            } else if (!line.startsWith("#")) {
+                assertThat(line).startsWith(family);
+                assertThat(line).matches("[a-z_]+\\{[^}]*} [0-9.]+");
+            }
+        }
+        assertThat(families).contains(
+                "tenacity_command_events_total",
+                "tenacity_command_execution_latency_seconds",
+                "tenacity_threadpool_active_threads",
+                "tenacity_circuit_breaker_state");
+    }
+
+    @Test
+    public void escapesKeyNames() throws Exception {
+        final TenacityPropertyKey key = () -> "quoted\"key";
+        final TenacityPrometheusExporter exporter = new TenacityPrometheusExporter(ImmutableList.of(key));
+        TenacityCommand.<Boolean>builder(key).run(() -> true).execute();
+
+        assertThat(scrape(exporter)).contains("tenacity_command_events_total{key=\"quoted\\\"key\",event=\"success\"} 1");
+    }
+}
@@ -228,6 +228,20 @@ public class TenacityPropertiesTest {
                         new SemaphoreConfiguration(), 1000, HystrixCommandProperties.ExecutionIsolationStrategy.THREAD));
     }
 
+    @Test
+    public void propertyNamesAreReusedForRegisteredKeys() {
+        new TenacityPropertyRegister(
+                ImmutableMap.<TenacityPropertyKey, TenacityConfiguration>of(DependencyKey.EXAMPLE, new TenacityConfiguration()),
+                new BreakerboxConfiguration(),
+                mock(ArchaiusPropertyRegister.class)).register();
+
+        assertThat(TenacityPropertyRegister.threadpoolCoreSize(DependencyKey.EXAMPLE))
+                .isEqualTo("hystrix.threadpool.EXAMPLE.coreSize")
+                .isSameAs(TenacityPropertyRegister.threadpoolCoreSize(DependencyKey.EXAMPLE));
+        assertThat(TenacityPropertyRegister.executionIsolationThreadTimeoutInMilliseconds(DependencyKey.SLEEP))
+                .isEqualTo("hystrix.command.SLEEP.execution.isolation.thread.timeoutInMilliseconds");
+    }
+
     private static void checkFutures(Collection<Future<Optional<String>>> futures) throws Exception {
         for (Future<Optional<String>> future : futures) {
             assertFalse(future.isCancelled());
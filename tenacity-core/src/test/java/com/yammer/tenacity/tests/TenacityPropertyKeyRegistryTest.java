@@ -0,0 +1,39 @@
+package com.yammer.tenacity.tests;
+
+import com.yammer.tenacity.core.core.CircuitBreakers;
+import com.yammer.tenacity.core.properties.StringTenacityPropertyKeyFactory;
+import com.yammer.tenacity.core.properties.TenacityPropertyKeyRegistry;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TenacityPropertyKeyRegistryTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private final TenacityPropertyKeyRegistry registry =
+            TenacityPropertyKeyRegistry.of(DependencyKey.EXAMPLE, DependencyKey.SLEEP);
+
+    @Test
+    public void findsKeysByName() {
+        assertThat(registry).containsExactly(DependencyKey.EXAMPLE, DependencyKey.SLEEP);
+        assertThat(registry.find("SLEEP")).contains(DependencyKey.SLEEP);
+        assertThat(registry.find("OVERRIDE")).isEmpty();
+        assertThat(new DependencyKeyFactory().from("example").validate(registry)).isSameAs(DependencyKey.EXAMPLE);
+        assertThat(TenacityPropertyKeyRegistry.of(registry)).isSameAs(registry);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void validateThrowsForUnknownKeys() {
+        DependencyKey.OVERRIDE.validate(registry);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void circuitBreakersFindValidatesAgainstTheRegistry() {
+        CircuitBreakers.find(registry, new StringTenacityPropertyKeyFactory().from("unknown"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.yammer.tenacity.tests;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.yammer.tenacity.core.TenacityCommand;
+import com.yammer.tenacity.core.cache.TenacityResponseCache;
+import com.yammer.tenacity.core.properties.TenacityPropertyKey;
+import com.yammer.tenacity.core.properties.TenacityPropertyRegister;
+import com.yammer.tenacity.core.retry.RetryPolicy;
+import com.yammer.tenacity.testing.TenacityTestRule;
+import io.dropwizard.util.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TenacityResponseCacheTest {
+    @Rule
+    public final TenacityTestRule tenacityTestRule = new TenacityTestRule();
+
+    private enum Key implements TenacityPropertyKey {
+        USER_LOOKUP
+    }
+
+    private final TenacityResponseCache<String, String> cache =
+            new TenacityResponseCache<>(Duration.milliseconds(100), Duration.minutes(1), 2);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private TenacityCommand.Builder<String> lookup(String user) {
+        return TenacityCommand
+                .<String>builder(Key.USER_LOOKUP)
+                .run(() -> user + calls.incrementAndGet())
+                .fallback(() -> "fallback")
+                .cache(cache, user);
+    }
+
+    private TenacityCommand.Builder<String> failingLookup(String user) {
+        return TenacityCommand
+                .<String>builder(Key.USER_LOOKUP)
+                .run(() -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("down");
+                })
+                .fallback(() -> "fallback")
+                .cache(cache, user);
+    }
+
+    @Test
+    public void freshHitsDoNotExecuteTheCommand() {
+        assertThat(lookup("alice").execute()).isEqualTo("alice1");
+        assertThat(lookup("alice").execute()).isEqualTo("alice1");
+        assertThat(lookup("bob").execute()).isEqualTo("bob2");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void expiredEntriesAreRefreshed() throws InterruptedException {
+        assertThat(lookup("alice").execute()).isEqualTo("alice1");
+        Thread.sleep(150);
+        assertThat(lookup("alice").execute()).isEqualTo("alice2");
+    }
+
+    @Test
+    public void staleEntriesAreTheFallbackOnFailure() throws InterruptedException {
+        assertThat(lookup("alice").execute()).isEqualTo("alice1");
+        Thread.sleep(150);
+        assertThat(failingLookup("alice").execute()).isEqualTo("alice1");
+        assertThat(failingLookup("bob").execute()).isEqualTo("fallback");
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void staleEntriesAreTheFallbackWhenTheCircuitIsOpen() throws InterruptedException {
+        assertThat(lookup("alice").execute()).isEqualTo("alice1");
+        Thread.sleep(150);
+        ConfigurationManager.getConfigInstance()
+                .setProperty(TenacityPropertyRegister.circuitBreakerForceOpen(Key.USER_LOOKUP), true);
+
+        assertThat(lookup("alice").execute()).isEqualTo("alice1");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void missesWithoutAFallbackFailLikeCommandsWithoutOne() {
+        assertThatThrownBy(() -> TenacityCommand
+                .<String>builder(Key.USER_LOOKUP)
+                .run(() -> {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException("down");
+                })
+                .cache(cache, "alice")
+                .retry(new RetryPolicy(2, Duration.milliseconds(1), Duration.milliseconds(5),
+                        (err) -> err instanceof IllegalStateException, 0.1, 10))
+                .execute())
+                .isInstanceOfSatisfying(HystrixRuntimeException.class, (err) -> assertThat(err.getFailureType())
+                        .isEqualTo(HystrixRuntimeException.FailureType.COMMAND_EXCEPTION))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void keepsAtMostMaxEntries() {
+        lookup("alice").execute();
+        lookup("bob").execute();
+        lookup("carol").execute();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+}
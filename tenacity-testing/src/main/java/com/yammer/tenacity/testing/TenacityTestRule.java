@@ -11,7 +11,11 @@ import org.junit.runners.model.Statement;
 import java.util.concurrent.TimeUnit;
 
 public class TenacityTestRule implements TestRule {
+    /* tenacity-core depends on this module, so its state is reset by name rather than through a dependency */
+    private static final String TENACITY = "com.yammer.tenacity.core.Tenacity";
+
     private void setup() {
+        resetTenacity();
         resetStreams();
         Hystrix.reset();
         final AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
@@ -19,10 +23,25 @@ public class TenacityTestRule implements TestRule {
     }
 
     public void teardown() {
+        resetTenacity();
         Hystrix.reset(1, TimeUnit.SECONDS);
         ConfigurationManager.getConfigInstance().clear();
     }
 
+    private void resetTenacity() {
+        final Class<?> tenacity;
+        try {
+            tenacity = Class.forName(TENACITY);
+        } catch (ClassNotFoundException err) {
+            return;
+        }
+        try {
+            tenacity.getMethod("reset").invoke(null);
+        } catch (ReflectiveOperationException err) {
+            throw new IllegalStateException("Unable to reset " + TENACITY, err);
+        }
+    }
+
     private void resetStreams() {
         /* BucketedCounterStream */
         CumulativeCommandEventCounterStream.reset();
@@ -0,0 +1,42 @@
+package com.yammer.tenacity.testing.load;
+
+import io.dropwizard.util.Duration;
+
+import java.util.Random;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * How long a StubDependency takes to answer. Real dependencies are usually closer to logNormal than to anything else
+ * here: most calls near the median and a long tail.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+    long nextNanos(Random random);
+
+    static LatencyDistribution constant(Duration latency) {
+        final long nanos = latency.toNanoseconds();
+        return (random) -> nanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        final long minNanos = min.toNanoseconds();
+        final long rangeNanos = max.toNanoseconds() - minNanos;
+        checkArgument(rangeNanos >= 0, "max must not be less than min");
+        return (random) -> minNanos + (long) (random.nextDouble() * rangeNanos);
+    }
+
+    static LatencyDistribution exponential(Duration mean) {
+        final long meanNanos = mean.toNanoseconds();
+        return (random) -> (long) (-Math.log(1.0 - random.nextDouble()) * meanNanos);
+    }
+
+    /**
+     * @param sigma the standard deviation of the latency's logarithm: 0.5 puts p99 at about 3x the median, 1.0 at 10x
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        final long medianNanos = median.toNanoseconds();
+        checkArgument(sigma >= 0, "sigma must not be negative");
+        return (random) -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+}
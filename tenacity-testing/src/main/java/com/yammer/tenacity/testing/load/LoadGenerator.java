@@ -0,0 +1,173 @@
+package com.yammer.tenacity.testing.load;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.hystrix.HystrixCommand;
+import io.dropwizard.util.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Drives commands (typically TenacityCommands around a StubDependency) from a number of client threads for a while and
+ * reports what happened to them, to try ThreadPoolConfiguration and CircuitBreakerConfiguration choices offline:
+ *
+ * <pre>
+ * {@code
+ * final StubDependency dependency = StubDependency.builder()
+ *         .latency(LatencyDistribution.logNormal(Duration.milliseconds(20), 0.5))
+ *         .stalls(0.01, Duration.seconds(5))
+ *         .build();
+ * final LoadReport report = LoadGenerator
+ *         .builder(() -> TenacityCommand.<String>builder(Key.DEPENDENCY).run(dependency::call).build())
+ *         .concurrency(50)
+ *         .rate(500)
+ *         .duration(Duration.seconds(30))
+ *         .build()
+ *         .run();
+ * }
+ * </pre>
+ *
+ * Each client thread executes one command at a time, so without enough of them a slow dependency also slows the
+ * clients down and the rate isn't reached; the report says how much was actually sent.
+ *
+ * With a rate, every command has a time it is meant to be sent at, and its latency is measured from then rather than
+ * from when a client got round to sending it. Commands held up behind a stalled one are sent as soon as a client is
+ * free, and their latency includes the wait, so stalls show in the tail as they would for real callers instead of
+ * being hidden by coordinated omission. Whatever is still waiting to be sent when the duration is up isn't sent.
+ */
+public class LoadGenerator {
+    private final Supplier<? extends HystrixCommand<?>> commands;
+    private final int concurrency;
+    private final double rate;
+    private final Duration duration;
+
+    private LoadGenerator(Builder builder) {
+        this.commands = builder.commands;
+        this.concurrency = builder.concurrency;
+        this.rate = builder.rate;
+        this.duration = builder.duration;
+    }
+
+    public static Builder builder(Supplier<? extends HystrixCommand<?>> commands) {
+        return new Builder(commands);
+    }
+
+    public LoadReport run() throws InterruptedException {
+        final ExecutorService clients = Executors.newFixedThreadPool(concurrency, new ThreadFactoryBuilder()
+                .setNameFormat("tenacity-load-%d")
+                .setDaemon(true)
+                .build());
+        final long startNanos = System.nanoTime();
+        final long endNanos = startNanos + duration.toNanoseconds();
+        final Schedule schedule = rate > 0 ? new Schedule(startNanos, rate) : null;
+        try {
+            final List<Future<LoadReport.Counts>> results = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> drive(schedule, endNanos)));
+            }
+            final LoadReport.Counts total = new LoadReport.Counts();
+            for (Future<LoadReport.Counts> result : results) {
+                total.add(result.get());
+            }
+            return new LoadReport(total, System.nanoTime() - startNanos);
+        } catch (ExecutionException err) {
+            throw new IllegalStateException("Load generation failed", err.getCause());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private LoadReport.Counts drive(Schedule schedule, long endNanos) throws InterruptedException {
+        final LoadReport.Counts counts = new LoadReport.Counts();
+        while (System.nanoTime() < endNanos && !Thread.currentThread().isInterrupted()) {
+            final long startNanos = schedule == null ? System.nanoTime() : schedule.next();
+            if (startNanos >= endNanos) {
+                break;
+            }
+            if (schedule != null) {
+                sleepUntil(startNanos);
+            }
+            final HystrixCommand<?> command = commands.get();
+            boolean thrown = false;
+            try {
+                command.execute();
+            } catch (RuntimeException err) {
+                thrown = true;
+            }
+            counts.record(command, thrown, System.nanoTime() - startNanos);
+        }
+        return counts;
+    }
+
+    private static void sleepUntil(long nanos) throws InterruptedException {
+        final long sleepNanos = nanos - System.nanoTime();
+        if (sleepNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    /**
+     * The times commands are meant to be sent at, shared by the client threads: one every 1/rate seconds from the start.
+     */
+    private static class Schedule {
+        private final long startNanos;
+        private final double intervalNanos;
+        private final AtomicLong sent = new AtomicLong();
+
+        private Schedule(long startNanos, double rate) {
+            this.startNanos = startNanos;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        }
+
+        private long next() {
+            return startNanos + (long) (sent.getAndIncrement() * intervalNanos);
+        }
+    }
+
+    public static class Builder {
+        protected final Supplier<? extends HystrixCommand<?>> commands;
+        protected int concurrency = 10;
+        protected double rate = 0;
+        protected Duration duration = Duration.seconds(10);
+
+        public Builder(Supplier<? extends HystrixCommand<?>> commands) {
+            this.commands = commands;
+        }
+
+        public Builder concurrency(int concurrency) {
+            checkArgument(concurrency > 0, "concurrency must be positive");
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * @param rate commands per second across all client threads; 0 (the default) sends as fast as they can
+         */
+        public Builder rate(double rate) {
+            checkArgument(rate >= 0, "rate must not be negative");
+            this.rate = rate;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        public LoadGenerator build() {
+            if (commands == null) {
+                throw new IllegalStateException("Commands must be supplied.");
+            }
+            return new LoadGenerator(this);
+        }
+    }
+}
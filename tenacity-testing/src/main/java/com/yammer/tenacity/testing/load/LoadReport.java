@@ -0,0 +1,122 @@
+package com.yammer.tenacity.testing.load;
+
+import com.netflix.hystrix.HystrixInvokableInfo;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What happened to the commands a LoadGenerator sent: how many, how each ended, how long the clients waited for them
+ * (a latency histogram in microseconds) and how many the clients saw fail with an exception instead of a fallback.
+ */
+public class LoadReport {
+    public enum Outcome {
+        SUCCESS, FAILURE, TIMEOUT, REJECTED, SHORT_CIRCUITED
+    }
+
+    private final Counts counts;
+    private final long elapsedNanos;
+
+    LoadReport(Counts counts, long elapsedNanos) {
+        this.counts = counts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRequests() {
+        return counts.latencyMicros.getTotalCount();
+    }
+
+    public long getCount(Outcome outcome) {
+        return counts.outcomes[outcome.ordinal()];
+    }
+
+    public Map<Outcome, Long> getCounts() {
+        final Map<Outcome, Long> outcomes = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, getCount(outcome));
+        }
+        return outcomes;
+    }
+
+    public long getFallbacks() {
+        return counts.fallbacks;
+    }
+
+    public long getErrors() {
+        return counts.errors;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return completed commands per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getRequests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    public Histogram getLatencyMicros() {
+        return counts.latencyMicros.copy();
+    }
+
+    public long getLatencyMicrosAtPercentile(double percentile) {
+        return counts.latencyMicros.getValueAtPercentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        final Histogram latency = counts.latencyMicros;
+        return String.format(Locale.ROOT,
+                "%d requests in %dms (%.1f/s): %s, %d fallbacks, %d errors; latency us p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                getRequests(), getElapsedMillis(), getThroughput(), getCounts(), getFallbacks(), getErrors(),
+                latency.getValueAtPercentile(50), latency.getValueAtPercentile(90),
+                latency.getValueAtPercentile(99), latency.getValueAtPercentile(99.9), latency.getMaxValue());
+    }
+
+    static class Counts {
+        private final long[] outcomes = new long[Outcome.values().length];
+        private long fallbacks;
+        private long errors;
+        private final Histogram latencyMicros = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+
+        void record(HystrixInvokableInfo<?> command, boolean thrown, long latencyNanos) {
+            outcomes[outcome(command).ordinal()]++;
+            if (command.isResponseFromFallback()) {
+                fallbacks++;
+            }
+            if (thrown) {
+                errors++;
+            }
+            latencyMicros.recordValue(Math.min(latencyMicros.getHighestTrackableValue(),
+                    TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        }
+
+        void add(Counts other) {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += other.outcomes[i];
+            }
+            fallbacks += other.fallbacks;
+            errors += other.errors;
+            latencyMicros.add(other.latencyMicros);
+        }
+
+        private static Outcome outcome(HystrixInvokableInfo<?> command) {
+            if (command.isResponseShortCircuited()) {
+                return Outcome.SHORT_CIRCUITED;
+            } else if (command.isResponseRejected()) {
+                return Outcome.REJECTED;
+            } else if (command.isResponseTimedOut()) {
+                return Outcome.TIMEOUT;
+            } else if (command.isSuccessfulExecution()) {
+                return Outcome.SUCCESS;
+            } else {
+                return Outcome.FAILURE;
+            }
+        }
+    }
+}
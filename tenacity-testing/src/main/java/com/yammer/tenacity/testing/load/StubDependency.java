@@ -0,0 +1,129 @@
+package com.yammer.tenacity.testing.load;
+
+import io.dropwizard.util.Duration;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An in-process stand-in for a remote dependency, for commands to call under a LoadGenerator. Each call waits for a
+ * latency drawn from the distribution, or for the stall duration with probability stallRate, and then fails with
+ * probability errorRate. The behaviour can be changed while load is running, e.g. to see how quickly circuit breakers
+ * open on an outage and close after it.
+ *
+ * Interrupting a call (as Hystrix does when a thread isolated command times out) ends it with a StubFailure.
+ */
+public class StubDependency {
+    private volatile LatencyDistribution latency;
+    private volatile double errorRate;
+    private volatile double stallRate;
+    private volatile Duration stall;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+
+    private StubDependency(Builder builder) {
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.stallRate = builder.stallRate;
+        this.stall = builder.stall;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String call() {
+        calls.increment();
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long waitNanos;
+        if (stallRate > 0 && random.nextDouble() < stallRate) {
+            stalls.increment();
+            waitNanos = stall.toNanoseconds();
+        } else {
+            waitNanos = latency.nextNanos(random);
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+            throw new StubFailure("Interrupted");
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            failures.increment();
+            throw new StubFailure("Failed");
+        }
+        return "stub";
+    }
+
+    public void setLatency(LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    public void setErrorRate(double errorRate) {
+        checkArgument(errorRate >= 0 && errorRate <= 1, "errorRate must be between 0 and 1");
+        this.errorRate = errorRate;
+    }
+
+    public void setStallRate(double stallRate) {
+        checkArgument(stallRate >= 0 && stallRate <= 1, "stallRate must be between 0 and 1");
+        this.stallRate = stallRate;
+    }
+
+    public void setStall(Duration stall) {
+        this.stall = stall;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    public static class StubFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public StubFailure(String message) {
+            super(message);
+        }
+    }
+
+    public static class Builder {
+        protected LatencyDistribution latency = LatencyDistribution.constant(Duration.milliseconds(1));
+        protected double errorRate = 0;
+        protected double stallRate = 0;
+        protected Duration stall = Duration.seconds(30);
+
+        public Builder latency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder errorRate(double errorRate) {
+            checkArgument(errorRate >= 0 && errorRate <= 1, "errorRate must be between 0 and 1");
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public Builder stalls(double stallRate, Duration stall) {
+            checkArgument(stallRate >= 0 && stallRate <= 1, "stallRate must be between 0 and 1");
+            this.stallRate = stallRate;
+            this.stall = stall;
+            return this;
+        }
+
+        public StubDependency build() {
+            return new StubDependency(this);
+        }
+    }
+}